@@ -1,8 +1,8 @@
-import { HttpErrorResponse, HttpInterceptorFn } from '@angular/common/http';
+import { HttpErrorResponse, HttpInterceptorFn, HttpResponse } from '@angular/common/http';
 import { inject } from '@angular/core';
 import { BehaviorSubject, Observable, throwError } from 'rxjs';
-import { catchError, filter, switchMap, take } from 'rxjs/operators';
-import { AuthService } from '../services/auth.service';
+import { catchError, filter, switchMap, take, tap } from 'rxjs/operators';
+import { AuthService, REFRESH_IN_HEADER } from '../services/auth.service';
 
 let isRefreshing = false;
 const refreshSubject = new BehaviorSubject<string | null>(null);
@@ -20,6 +20,12 @@ export const authInterceptor: HttpInterceptorFn = (req, next) => {
     : req;
 
   return next(authReq).pipe(
+    tap(event => {
+      const refreshIn = event instanceof HttpResponse ? event.headers.get(REFRESH_IN_HEADER) : null;
+      if (refreshIn !== null) {
+        authService.scheduleRefresh(Number(refreshIn));
+      }
+    }),
     catchError((error: HttpErrorResponse) => {
       if (error.status === 401 && authService.getRefreshToken()) {
         return handleTokenRefresh(authService, req, next);
@@ -10,6 +10,13 @@ export interface AuthResponse {
   userId: string;
   email: string;
   displayName: string;
+  /** Seconds until the access token should be refreshed. */
+  refreshInSeconds: number;
+}
+
+/** Sent on /user/queue/token.refresh to sessions that connected with an access token. */
+export interface TokenRefreshHint {
+  refreshInSeconds: number;
 }
 
 export interface RegisterRequest {
@@ -1,5 +1,6 @@
 export type ControlMode = 'COLLABORATIVE' | 'HOST_ONLY';
 export type PlaybackMode = 'ORDERED' | 'SHUFFLE';
+export type SyncStrategy = 'SERVER_CLOCK' | 'HOST' | 'QUORUM_MEDIAN';
 
 export interface Room {
   id: string;
@@ -26,6 +27,8 @@ export interface PlayerState {
   videoUrl?: string;
   currentTimeSeconds: number;
   isPlaying: boolean;
+  /** Server time (epoch ms) at which to apply a PLAY, SEEK or CHANGE_VIDEO; set by the server. */
+  executeAt?: number;
 }
 
 export interface RoomState {
@@ -34,9 +37,58 @@ export interface RoomState {
   currentTimeSeconds: number;
   isPlaying: boolean;
   playbackMode: PlaybackMode;
+  syncStrategy: SyncStrategy;
   participants: Participant[];
 }
 
+export interface RosterUpdate {
+  type: 'ROSTER_UPDATE';
+  joined: Participant[];
+  left: string[];
+  hostConnectionId: string | null;
+}
+
+export interface Admission {
+  status: 'QUEUED' | 'RETRY';
+  position: number;
+  estimatedWaitSeconds: number;
+}
+
+export interface RoomWelcome {
+  connectionId: string;
+  resumeToken: string;
+  lastSeq: number;
+  roomState: RoomState;
+  playlist: { items: PlaylistItem[] };
+  chatHistory: ChatMessage[];
+}
+
+export interface RoomEvent {
+  seq: number;
+  destination: string;
+  payload: unknown;
+}
+
+export interface RoomResume {
+  connectionId: string;
+  resumeToken: string;
+  lastSeq: number;
+  roomState: RoomState;
+  /** Null when the missed events are gone from the server's log; snapshots are sent instead. */
+  missed: RoomEvent[] | null;
+  playlist: { items: PlaylistItem[] } | null;
+  chatHistory: ChatMessage[] | null;
+}
+
+export interface RoomCatchUp {
+  lastSeq: number;
+  /** Null when the requested events are gone from the server's log; snapshots are sent instead. */
+  missed: RoomEvent[] | null;
+  roomState: RoomState | null;
+  playlist: { items: PlaylistItem[] } | null;
+  chatHistory: ChatMessage[] | null;
+}
+
 export interface ChatMessage {
   id: string;
   nickname: string;
@@ -64,6 +116,11 @@ export interface SyncCorrection {
   correctionType: SyncCorrectionType;
 }
 
+/** How often to send position reports while playing; adjusted by the server as drift changes. */
+export interface ReportInterval {
+  intervalMs: number;
+}
+
 export interface VideoRecommendation {
   videoId: string;
   videoUrl: string;
@@ -89,3 +146,9 @@ export interface RemotePeer {
   nickname: string;
   stream: MediaStream | null;
 }
+
+export interface TimePong {
+  clientSendTime: number;
+  serverReceiveTime: number;
+  serverSendTime: number;
+}
@@ -1,12 +1,18 @@
 import { Injectable, signal, computed, inject } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
-import { tap } from 'rxjs/operators';
-import { Observable } from 'rxjs';
+import { finalize, share, tap } from 'rxjs/operators';
+import { Observable, defer, firstValueFrom } from 'rxjs';
 import { AuthResponse, AuthUser, LoginRequest, RegisterRequest, UpdateProfileRequest, ChangePasswordRequest, DeleteAccountRequest } from '../models/auth.model';
 
 const ACCESS_TOKEN_KEY = 'wp_access_token';
 const REFRESH_TOKEN_KEY = 'wp_refresh_token';
 const USER_KEY = 'wp_user';
+const REFRESH_AT_KEY = 'wp_refresh_at';
+/** Web Lock held while rotating, so tabs sharing the stored tokens never present the same one twice. */
+const REFRESH_LOCK = 'wp_refresh';
+
+/** Header on authenticated API responses advising when to refresh the access token. */
+export const REFRESH_IN_HEADER = 'X-Token-Refresh-In';
 
 @Injectable({ providedIn: 'root' })
 export class AuthService {
@@ -17,6 +23,16 @@ export class AuthService {
   readonly currentUser = this._currentUser.asReadonly();
   readonly isLoggedIn = computed(() => this._currentUser() !== null);
 
+  private refreshTimer: ReturnType<typeof setTimeout> | null = null;
+  private inFlightRefresh: Observable<AuthResponse> | null = null;
+
+  constructor() {
+    const refreshAt = Number(localStorage.getItem(REFRESH_AT_KEY));
+    if (refreshAt && this.getRefreshToken()) {
+      this.armRefreshTimer(Math.max(0, refreshAt - Date.now()));
+    }
+  }
+
   register(request: RegisterRequest): Observable<AuthResponse> {
     return this.http.post<AuthResponse>('/api/auth/register', request).pipe(
       tap(res => this.storeSession(res))
@@ -29,14 +45,38 @@ export class AuthService {
     );
   }
 
+  /**
+   * Rotates the refresh token. Concurrent callers share one request, and tabs take turns through a
+   * Web Lock: presenting the same refresh token twice looks like a replay to the server, which then
+   * revokes the whole session. A tab that finds the token already rotated by another one while it
+   * waited adopts the stored session instead of calling the server.
+   */
   refresh(): Observable<AuthResponse> {
-    const refreshToken = localStorage.getItem(REFRESH_TOKEN_KEY);
-    return this.http.post<AuthResponse>('/api/auth/refresh', { refreshToken }).pipe(
-      tap(res => this.storeSession(res))
-    );
+    if (!this.inFlightRefresh) {
+      const presented = this.getRefreshToken();
+      this.inFlightRefresh = defer(() => this.withRefreshLock(() => this.rotate(presented))).pipe(
+        finalize(() => this.inFlightRefresh = null),
+        share()
+      );
+    }
+    return this.inFlightRefresh;
+  }
+
+  /**
+   * Refreshes the access token after the server's hint instead of waiting for a 401. Expiries are
+   * jittered server-side, so following the hint spreads refreshes out.
+   */
+  scheduleRefresh(refreshInSeconds: number): void {
+    localStorage.setItem(REFRESH_AT_KEY, String(Date.now() + refreshInSeconds * 1000));
+    this.armRefreshTimer(refreshInSeconds * 1000);
   }
 
   logout(): void {
+    if (this.refreshTimer) {
+      clearTimeout(this.refreshTimer);
+      this.refreshTimer = null;
+    }
+    localStorage.removeItem(REFRESH_AT_KEY);
     localStorage.removeItem(ACCESS_TOKEN_KEY);
     localStorage.removeItem(REFRESH_TOKEN_KEY);
     localStorage.removeItem(USER_KEY);
@@ -65,12 +105,62 @@ export class AuthService {
     return localStorage.getItem(REFRESH_TOKEN_KEY);
   }
 
+  /**
+   * Every tab arms its own timer against the shared deadline. When it fires, a deadline moved later
+   * means another tab already rotated, so this one just waits for the new deadline.
+   */
+  private armRefreshTimer(delayMs: number): void {
+    if (this.refreshTimer) {
+      clearTimeout(this.refreshTimer);
+    }
+    const due = Date.now() + delayMs;
+    this.refreshTimer = setTimeout(() => {
+      this.refreshTimer = null;
+      const refreshAt = Number(localStorage.getItem(REFRESH_AT_KEY));
+      if (refreshAt > due) {
+        this.armRefreshTimer(refreshAt - Date.now());
+      } else if (this.getRefreshToken()) {
+        // A failure here is left to the 401 path of the interceptor
+        this.refresh().subscribe({ error: () => {} });
+      }
+    }, delayMs);
+  }
+
+  private withRefreshLock<T>(work: () => Promise<T>): Promise<T> {
+    return 'locks' in navigator ? navigator.locks.request(REFRESH_LOCK, work) : work();
+  }
+
+  /** Runs under the refresh lock; the new tokens are stored before the lock is released. */
+  private rotate(presented: string | null): Promise<AuthResponse> {
+    const current = this.getRefreshToken();
+    if (current && current !== presented) {
+      const rotated = this.loadStoredSession(current);
+      this.storeSession(rotated);
+      return Promise.resolve(rotated);
+    }
+    return firstValueFrom(this.http.post<AuthResponse>('/api/auth/refresh', { refreshToken: current }).pipe(
+      tap(res => this.storeSession(res))
+    ));
+  }
+
+  private loadStoredSession(refreshToken: string): AuthResponse {
+    const user = this.loadStoredUser()!;
+    const refreshAt = Number(localStorage.getItem(REFRESH_AT_KEY));
+    return {
+      ...user,
+      accessToken: this.getAccessToken()!,
+      refreshToken,
+      refreshInSeconds: Math.max(0, (refreshAt - Date.now()) / 1000)
+    };
+  }
+
   private storeSession(res: AuthResponse): void {
     localStorage.setItem(ACCESS_TOKEN_KEY, res.accessToken);
     localStorage.setItem(REFRESH_TOKEN_KEY, res.refreshToken);
     const user: AuthUser = { userId: res.userId, email: res.email, displayName: res.displayName };
     localStorage.setItem(USER_KEY, JSON.stringify(user));
     this._currentUser.set(user);
+    this.scheduleRefresh(res.refreshInSeconds);
   }
 
   private loadStoredUser(): AuthUser | null {
@@ -1,11 +1,68 @@
 import { Injectable, signal, computed, inject, NgZone } from '@angular/core';
 import { Client, IMessage } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
-import { ChatMessage, Participant, PlayerState, PlaylistItem, RoomState, SyncCorrection, WebRtcSignalEnvelope } from '../models/room.model';
+import { AuthService } from './auth.service';
+import {
+  Admission,
+  ChatMessage,
+  Participant,
+  PlayerState,
+  PlaylistItem,
+  ReportInterval,
+  RoomCatchUp,
+  RoomEvent,
+  RoomResume,
+  RoomState,
+  RoomWelcome,
+  RosterUpdate,
+  SyncCorrection,
+  SyncStrategy,
+  TimePong,
+  WebRtcSignalEnvelope,
+} from '../models/room.model';
+import {
+  SYNC_CODEC_CONTENT_TYPE,
+  SYNC_CODEC_HEADER,
+  SYNC_CODEC_VERSION,
+  decodeSyncCorrection,
+  encodePositionReport,
+} from '../utils/sync-codec';
+import { ClockEstimator, ClockSample, localNow } from '../utils/clock-sync';
+import { TokenRefreshHint } from '../models/auth.model';
+
+const ROOM_TOPIC_SUFFIXES = ['', '.chat', '.playlist', '.camera-state'] as const;
+
+const RESUME_KEY_PREFIX = 'wp_resume_';
+/** A scheduled action further out than this means the clock estimate is off; apply it now. */
+const MAX_SCHEDULE_WAIT_MS = 2000;
+const DEFAULT_REPORT_INTERVAL_MS = 5000;
+
+const CATCH_UP_DESTINATION = '/app/room.catchup';
+/** How long to wait for a catch-up before asking again; doubles with each attempt. */
+const CATCH_UP_TIMEOUT_MS = 2000;
+/** After this many unanswered catch-ups the gap is given up on and the full room state requested. */
+const CATCH_UP_ATTEMPTS = 3;
+
+/** A few quick pings right after connecting get a usable clock estimate fast; then it is only kept fresh. */
+const CLOCK_BURST_PINGS = 5;
+const CLOCK_BURST_INTERVAL_MS = 250;
+const CLOCK_INTERVAL_MS = 15000;
+
+interface ResumeState {
+  token: string;
+  seq: number;
+}
+
+interface HeldRoomEvent {
+  seq: number;
+  suffix: string;
+  body: unknown;
+}
 
 @Injectable({ providedIn: 'root' })
 export class WebSocketService {
   private readonly zone = inject(NgZone);
+  private readonly authService = inject(AuthService);
   private client: Client | null = null;
   private roomCode = '';
 
@@ -15,64 +72,85 @@ export class WebSocketService {
   readonly chatMessages = signal<ChatMessage[]>([]);
   readonly playlistItems = signal<PlaylistItem[]>([]);
   readonly syncCorrection = signal<SyncCorrection | null>(null);
+  readonly reportIntervalMs = signal(DEFAULT_REPORT_INTERVAL_MS);
   readonly webRtcSignal = signal<WebRtcSignalEnvelope[]>([]);
   readonly myConnectionId = signal<string | null>(null);
   readonly peerCameraStates = signal<Map<string, boolean>>(new Map());
+  /** Set while the join is queued (room full) or waiting to be retried (server busy). */
+  readonly admission = signal<Admission | null>(null);
+  private joinRetryTimer: ReturnType<typeof setTimeout> | null = null;
+  private lastSeq = 0;
+  private heldEvents: HeldRoomEvent[] | null = null;
+  private catchUpTimer: ReturnType<typeof setTimeout> | null = null;
+  private catchUpAttempts = 0;
+  private readonly clock = new ClockEstimator();
+  private lastClockSample: ClockSample | null = null;
+  private clockTimer: ReturnType<typeof setTimeout> | null = null;
+  private scheduledPlayerTimer: ReturnType<typeof setTimeout> | null = null;
 
   connect(roomCode: string, nickname: string): void {
     this.roomCode = roomCode;
 
     this.client = new Client({
       webSocketFactory: () => new SockJS('/ws'),
-      reconnectDelay: 5000,
+      // Reconnect well within the server's leave grace period so the seat (and host role) is kept
+      reconnectDelay: 2000,
+      // Match the server's heartbeat settings; it drops sessions that miss two in a row
+      heartbeatIncoming: 10000,
+      heartbeatOutgoing: 10000,
+      beforeConnect: () => {
+        const token = this.authService.getAccessToken();
+        const resume = this.loadResume(roomCode);
+        this.client!.connectHeaders = {
+          [SYNC_CODEC_HEADER]: SYNC_CODEC_VERSION,
+          ...(token ? { Authorization: `Bearer ${token}` } : {}),
+          ...(resume ? { 'x-resume-token': resume.token, 'x-resume-seq': String(resume.seq) } : {}),
+        };
+      },
       onConnect: () => {
         this.connected.set(true);
 
-        this.client!.subscribe(`/topic/room.${roomCode}`, (message: IMessage) => {
+        // Room broadcasts carry a sequence number so a resumed session can be sent what it missed
+        for (const suffix of ROOM_TOPIC_SUFFIXES) {
+          this.client!.subscribe(`/topic/room.${roomCode}${suffix}`, (message: IMessage) => {
+            this.zone.run(() => {
+              this.onRoomEvent(suffix, Number(message.headers['seq']), JSON.parse(message.body));
+            });
+          });
+        }
+
+        this.client!.subscribe('/user/queue/room.catchup', (message: IMessage) => {
           this.zone.run(() => {
-            const body = JSON.parse(message.body);
-            if (body.participants) {
-              this.roomState.set(body as RoomState);
-              // Clean up stale camera states for participants who left
-              const activeIds = new Set((body as RoomState).participants.map((p: Participant) => p.connectionId));
-              this.peerCameraStates.update(map => {
-                let changed = false;
-                const next = new Map(map);
-                for (const id of next.keys()) {
-                  if (!activeIds.has(id)) {
-                    next.delete(id);
-                    changed = true;
-                  }
-                }
-                return changed ? next : map;
-              });
+            const body = JSON.parse(message.body) as RoomCatchUp;
+            this.clearCatchUp();
+            if (body.missed) {
+              this.replay(roomCode, body.missed);
             } else {
-              const current = this.roomState();
-              if (current) {
-                const ps = body as PlayerState;
-                this.roomState.set({
-                  ...current,
-                  currentVideoUrl: ps.videoUrl ?? current.currentVideoUrl,
-                  currentTimeSeconds: ps.currentTimeSeconds,
-                  isPlaying: ps.isPlaying,
-                });
+              this.roomState.set(body.roomState!);
+              this.pruneCameraStates(body.roomState!.participants);
+              this.playlistItems.set(body.playlist!.items);
+              this.chatMessages.set(body.chatHistory!);
+              this.trackSeq(body.lastSeq);
+            }
+            // Broadcasts held back while waiting; the ones the catch-up already covered are skipped
+            const held = this.heldEvents ?? [];
+            this.heldEvents = null;
+            for (const event of held) {
+              if (event.seq > this.lastSeq) {
+                this.applyRoomEvent(event.suffix, event.body);
+                this.trackSeq(event.seq);
               }
             }
           });
         });
 
-        this.client!.subscribe(`/topic/room.${roomCode}.chat`, (message: IMessage) => {
+        // A catch-up dropped by the rate limiter is asked for again once its budget has had time to refill
+        this.client!.subscribe('/user/queue/errors', (message: IMessage) => {
           this.zone.run(() => {
-            const msg = JSON.parse(message.body) as ChatMessage;
-            this.chatMessages.update(messages => {
-              const idx = messages.findIndex(m => m.id === msg.id);
-              if (idx >= 0) {
-                const updated = [...messages];
-                updated[idx] = msg;
-                return updated;
-              }
-              return [...messages, msg];
-            });
+            const error = JSON.parse(message.body) as { message: string };
+            if (this.heldEvents && error.message.includes(CATCH_UP_DESTINATION)) {
+              this.armCatchUpRetry();
+            }
           });
         });
 
@@ -82,24 +160,26 @@ export class WebSocketService {
           });
         });
 
-        this.client!.subscribe('/user/queue/playlist.history', (message: IMessage) => {
+        this.client!.subscribe('/user/queue/sync.correction', (message: IMessage) => {
           this.zone.run(() => {
-            const body = JSON.parse(message.body) as { items: PlaylistItem[] };
-            this.playlistItems.set(body.items);
+            const compact = message.headers['content-type'] === SYNC_CODEC_CONTENT_TYPE;
+            this.syncCorrection.set(compact ? decodeSyncCorrection(message.body) : JSON.parse(message.body) as SyncCorrection);
           });
         });
 
-        this.client!.subscribe(`/topic/room.${roomCode}.playlist`, (message: IMessage) => {
+        this.client!.subscribe('/user/queue/sync.interval', (message: IMessage) => {
           this.zone.run(() => {
-            const body = JSON.parse(message.body) as { items: PlaylistItem[] };
-            this.playlistItems.set(body.items);
+            this.reportIntervalMs.set((JSON.parse(message.body) as ReportInterval).intervalMs);
           });
         });
 
-        this.client!.subscribe('/user/queue/sync.correction', (message: IMessage) => {
-          this.zone.run(() => {
-            this.syncCorrection.set(JSON.parse(message.body) as SyncCorrection);
-          });
+        this.client!.subscribe('/user/queue/token.refresh', (message: IMessage) => {
+          this.authService.scheduleRefresh((JSON.parse(message.body) as TokenRefreshHint).refreshInSeconds);
+        });
+
+        // Pongs are timed outside the Angular zone: nothing in the UI depends on them
+        this.client!.subscribe('/user/queue/time.pong', (message: IMessage) => {
+          this.lastClockSample = this.clock.record(JSON.parse(message.body) as TimePong);
         });
 
         this.client!.subscribe('/user/queue/webrtc.signal', (message: IMessage) => {
@@ -109,34 +189,53 @@ export class WebSocketService {
           });
         });
 
-        this.client!.subscribe(`/topic/room.${roomCode}.camera-state`, (message: IMessage) => {
+        // Everything needed after joining arrives in one frame
+        this.client!.subscribe('/user/queue/room.welcome', (message: IMessage) => {
           this.zone.run(() => {
-            const body = JSON.parse(message.body) as { connectionId: string; enabled: boolean };
-            if (body.connectionId === this.myConnectionId()) return;
-            this.peerCameraStates.update(map => {
-              const next = new Map(map);
-              if (body.enabled) {
-                next.set(body.connectionId, true);
-              } else {
-                next.delete(body.connectionId);
-              }
-              return next;
-            });
+            const body = JSON.parse(message.body) as RoomWelcome;
+            this.admission.set(null);
+            this.heldEvents = null;
+            this.clearCatchUp();
+            this.myConnectionId.set(body.connectionId);
+            this.roomState.set(body.roomState);
+            this.playlistItems.set(body.playlist.items);
+            this.chatMessages.set(body.chatHistory);
+            this.saveResume(roomCode, { token: body.resumeToken, seq: body.lastSeq });
           });
         });
 
-        this.client!.subscribe('/user/queue/session.info', (message: IMessage) => {
+        // Reattached to our previous seat: replay what we missed, then take the current state
+        this.client!.subscribe('/user/queue/room.resume', (message: IMessage) => {
           this.zone.run(() => {
-            const body = JSON.parse(message.body) as { connectionId: string };
+            const body = JSON.parse(message.body) as RoomResume;
+            this.admission.set(null);
+            this.heldEvents = null;
+            this.clearCatchUp();
             this.myConnectionId.set(body.connectionId);
+            this.replay(roomCode, body.missed ?? []);
+            if (body.playlist) this.playlistItems.set(body.playlist.items);
+            if (body.chatHistory) this.chatMessages.set(body.chatHistory);
+            this.roomState.set(body.roomState);
+            this.pruneCameraStates(body.roomState.participants);
+            this.saveResume(roomCode, { token: body.resumeToken, seq: Math.max(body.lastSeq, this.lastSeq) });
           });
         });
 
-        this.client!.publish({
-          destination: '/app/room.join',
-          body: JSON.stringify({ roomCode, nickname }),
+        this.client!.subscribe('/user/queue/room.admission', (message: IMessage) => {
+          this.zone.run(() => {
+            const body = JSON.parse(message.body) as Admission;
+            this.admission.set(body);
+            if (body.status === 'RETRY') {
+              this.clearJoinRetry();
+              this.joinRetryTimer = setTimeout(() => this.publishJoin(roomCode, nickname), body.estimatedWaitSeconds * 1000);
+            }
+          });
         });
+
+        this.publishJoin(roomCode, nickname);
+        this.startClockSync();
       },
+      onWebSocketClose: () => this.stopClockSync(),
       onDisconnect: () => this.connected.set(false),
       onStompError: () => this.connected.set(false),
     });
@@ -144,7 +243,277 @@ export class WebSocketService {
     this.client.activate();
   }
 
+  private applyRoomEvent(suffix: string, body: any): void {
+    switch (suffix) {
+      case '':
+        if (body.type === 'ROSTER_UPDATE') {
+          this.applyRosterUpdate(body as RosterUpdate);
+        } else if (body.participants) {
+          this.roomState.set(body as RoomState);
+          this.pruneCameraStates((body as RoomState).participants);
+        } else {
+          this.schedulePlayerState(body as PlayerState);
+        }
+        break;
+      case '.chat': {
+        const msg = body as ChatMessage;
+        this.chatMessages.update(messages => {
+          const idx = messages.findIndex(m => m.id === msg.id);
+          if (idx >= 0) {
+            const updated = [...messages];
+            updated[idx] = msg;
+            return updated;
+          }
+          return [...messages, msg];
+        });
+        break;
+      }
+      case '.playlist':
+        this.playlistItems.set((body as { items: PlaylistItem[] }).items);
+        break;
+      case '.camera-state': {
+        const state = body as { connectionId: string; enabled: boolean };
+        if (state.connectionId === this.myConnectionId()) return;
+        this.peerCameraStates.update(map => {
+          const next = new Map(map);
+          if (state.enabled) {
+            next.set(state.connectionId, true);
+          } else {
+            next.delete(state.connectionId);
+          }
+          return next;
+        });
+        break;
+      }
+    }
+  }
+
+  /**
+   * Applies a live room broadcast in sequence order. When one was skipped, later broadcasts are
+   * held back and the server is asked for everything after the last one applied.
+   */
+  private onRoomEvent(suffix: string, seq: number, body: unknown): void {
+    // Nothing to compare against before the welcome frame arrives
+    if (!Number.isFinite(seq) || this.lastSeq === 0) {
+      this.applyRoomEvent(suffix, body);
+      this.trackSeq(seq);
+      return;
+    }
+    if (this.heldEvents) {
+      this.heldEvents.push({ seq, suffix, body });
+      return;
+    }
+    if (seq <= this.lastSeq) return; // already applied from a replay
+    if (seq > this.lastSeq + 1) {
+      this.heldEvents = [{ seq, suffix, body }];
+      this.requestCatchUp();
+      return;
+    }
+    this.applyRoomEvent(suffix, body);
+    this.trackSeq(seq);
+  }
+
+  /**
+   * Asks for the broadcasts after the last one applied, and again if no answer comes in time
+   * (the request can be dropped by the rate limiter or fail on the server). Once the attempts are
+   * used up the room is resynced instead, so held broadcasts never freeze the UI.
+   */
+  private requestCatchUp(): void {
+    if (this.catchUpAttempts >= CATCH_UP_ATTEMPTS) {
+      this.resync();
+      return;
+    }
+    this.catchUpAttempts++;
+    this.client?.publish({
+      destination: CATCH_UP_DESTINATION,
+      body: JSON.stringify({ afterSeq: this.lastSeq }),
+    });
+    this.armCatchUpRetry();
+  }
+
+  private armCatchUpRetry(): void {
+    if (this.catchUpTimer) {
+      clearTimeout(this.catchUpTimer);
+    }
+    this.catchUpTimer = setTimeout(() => {
+      this.catchUpTimer = null;
+      this.zone.run(() => this.requestCatchUp());
+    }, CATCH_UP_TIMEOUT_MS * 2 ** (this.catchUpAttempts - 1));
+  }
+
+  private clearCatchUp(): void {
+    if (this.catchUpTimer) {
+      clearTimeout(this.catchUpTimer);
+      this.catchUpTimer = null;
+    }
+    this.catchUpAttempts = 0;
+  }
+
+  /**
+   * Gives up on the gap: applies the held broadcasts as they are and asks for the full room state.
+   * Sequence tracking restarts from the next broadcast, as it does before the welcome frame.
+   */
+  private resync(): void {
+    const held = (this.heldEvents ?? []).sort((a, b) => a.seq - b.seq);
+    this.heldEvents = null;
+    this.clearCatchUp();
+    for (const event of held) {
+      this.applyRoomEvent(event.suffix, event.body);
+    }
+    this.lastSeq = 0;
+    this.requestSync();
+  }
+
+  private replay(roomCode: string, events: RoomEvent[]): void {
+    const prefix = `/topic/room.${roomCode}`;
+    for (const event of events) {
+      if (event.seq > this.lastSeq) {
+        this.applyRoomEvent(event.destination.slice(prefix.length), event.payload);
+        this.trackSeq(event.seq);
+      }
+    }
+  }
+
+  private trackSeq(seq: number): void {
+    if (Number.isFinite(seq) && seq > this.lastSeq) {
+      this.lastSeq = seq;
+      const resume = this.loadResume(this.roomCode);
+      if (resume) this.saveResume(this.roomCode, { ...resume, seq });
+    }
+  }
+
+  private loadResume(roomCode: string): ResumeState | null {
+    const raw = sessionStorage.getItem(RESUME_KEY_PREFIX + roomCode);
+    return raw ? JSON.parse(raw) as ResumeState : null;
+  }
+
+  private saveResume(roomCode: string, state: ResumeState): void {
+    this.lastSeq = state.seq;
+    sessionStorage.setItem(RESUME_KEY_PREFIX + roomCode, JSON.stringify(state));
+  }
+
+  /**
+   * Applies a player action at its `executeAt` server time so that every client starts
+   * together. An action that arrives late is applied at once, advanced by how late it is.
+   */
+  private schedulePlayerState(ps: PlayerState): void {
+    this.cancelScheduledPlayerState();
+    const wait = ps.executeAt !== undefined ? ps.executeAt - this.serverNow() : 0;
+    if (wait > 0 && wait <= MAX_SCHEDULE_WAIT_MS) {
+      this.scheduledPlayerTimer = setTimeout(() => {
+        this.scheduledPlayerTimer = null;
+        this.zone.run(() => this.applyPlayerState(ps, 0));
+      }, wait);
+      return;
+    }
+    this.applyPlayerState(ps, wait < 0 && ps.isPlaying ? Math.min(-wait, MAX_SCHEDULE_WAIT_MS) / 1000 : 0);
+  }
+
+  private applyPlayerState(ps: PlayerState, lateSeconds: number): void {
+    const current = this.roomState();
+    if (current) {
+      this.roomState.set({
+        ...current,
+        currentVideoUrl: ps.videoUrl ?? current.currentVideoUrl,
+        currentTimeSeconds: ps.currentTimeSeconds + lateSeconds,
+        isPlaying: ps.isPlaying,
+      });
+    }
+  }
+
+  private cancelScheduledPlayerState(): void {
+    if (this.scheduledPlayerTimer !== null) {
+      clearTimeout(this.scheduledPlayerTimer);
+      this.scheduledPlayerTimer = null;
+    }
+  }
+
+  /** Current time on the server's clock, in epoch milliseconds. */
+  serverNow(): number {
+    return this.clock.serverNow();
+  }
+
+  private startClockSync(): void {
+    this.stopClockSync();
+    const ping = (remainingBurst: number) => {
+      this.client?.publish({
+        destination: '/app/time.ping',
+        body: JSON.stringify({
+          clientSendTime: localNow(),
+          // The server smooths these per session to account for network delay in drift checks
+          lastRttMs: this.lastClockSample?.rttMs ?? null,
+          lastOffsetMs: this.lastClockSample?.offsetMs ?? null,
+        }),
+      });
+      const delay = remainingBurst > 0 ? CLOCK_BURST_INTERVAL_MS : CLOCK_INTERVAL_MS;
+      this.clockTimer = setTimeout(() => ping(Math.max(0, remainingBurst - 1)), delay);
+    };
+    ping(CLOCK_BURST_PINGS - 1);
+  }
+
+  private stopClockSync(): void {
+    if (this.clockTimer !== null) {
+      clearTimeout(this.clockTimer);
+      this.clockTimer = null;
+    }
+  }
+
+  private publishJoin(roomCode: string, nickname: string): void {
+    this.joinRetryTimer = null;
+    this.client?.publish({
+      destination: '/app/room.join',
+      body: JSON.stringify({ roomCode, nickname }),
+    });
+  }
+
+  private clearJoinRetry(): void {
+    if (this.joinRetryTimer !== null) {
+      clearTimeout(this.joinRetryTimer);
+      this.joinRetryTimer = null;
+    }
+  }
+
+  private applyRosterUpdate(update: RosterUpdate): void {
+    const current = this.roomState();
+    // Our own join arrives before the welcome frame, which carries the full roster anyway
+    if (!current) return;
+    const left = new Set(update.left);
+    const joinedIds = new Set(update.joined.map(p => p.connectionId));
+    const participants = [
+      ...current.participants.filter(p => !left.has(p.connectionId) && !joinedIds.has(p.connectionId)),
+      ...update.joined,
+    ].map(p => ({ ...p, isHost: p.connectionId === update.hostConnectionId }));
+    this.roomState.set({ ...current, participants });
+    this.pruneCameraStates(participants);
+  }
+
+  /** Drops camera states of participants who are no longer in the room. */
+  private pruneCameraStates(participants: Participant[]): void {
+    const activeIds = new Set(participants.map(p => p.connectionId));
+    this.peerCameraStates.update(map => {
+      let changed = false;
+      const next = new Map(map);
+      for (const id of next.keys()) {
+        if (!activeIds.has(id)) {
+          next.delete(id);
+          changed = true;
+        }
+      }
+      return changed ? next : map;
+    });
+  }
+
   disconnect(): void {
+    this.clearJoinRetry();
+    // Leaving on purpose: the seat is given up, so there is nothing to resume
+    sessionStorage.removeItem(RESUME_KEY_PREFIX + this.roomCode);
+    this.lastSeq = 0;
+    this.heldEvents = null;
+    this.clearCatchUp();
+    this.stopClockSync();
+    this.cancelScheduledPlayerState();
+    this.clock.reset();
+    this.lastClockSample = null;
     if (this.client?.active) {
       this.client.publish({ destination: '/app/room.leave', body: '' });
       this.client.deactivate();
@@ -154,9 +523,11 @@ export class WebSocketService {
     this.chatMessages.set([]);
     this.playlistItems.set([]);
     this.syncCorrection.set(null);
+    this.reportIntervalMs.set(DEFAULT_REPORT_INTERVAL_MS);
     this.webRtcSignal.set([]);
     this.myConnectionId.set(null);
     this.peerCameraStates.set(new Map());
+    this.admission.set(null);
   }
 
   sendPlayerAction(action: PlayerState): void {
@@ -243,6 +614,15 @@ export class WebSocketService {
     }
   }
 
+  setSyncStrategy(strategy: SyncStrategy): void {
+    if (this.client?.active) {
+      this.client.publish({
+        destination: '/app/room.sync.strategy',
+        body: JSON.stringify({ strategy }),
+      });
+    }
+  }
+
   reorderPlaylist(itemId: string, newPosition: number): void {
     if (this.client?.active) {
       this.client.publish({
@@ -256,7 +636,8 @@ export class WebSocketService {
     if (this.client?.active) {
       this.client.publish({
         destination: '/app/room.position.report',
-        body: JSON.stringify({ currentTimeSeconds }),
+        headers: { 'content-type': SYNC_CODEC_CONTENT_TYPE },
+        body: encodePositionReport(currentTimeSeconds),
       });
     }
   }
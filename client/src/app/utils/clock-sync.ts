@@ -0,0 +1,46 @@
+import { TimePong } from '../models/room.model';
+
+/** Samples kept; the estimate comes from the fastest of them. */
+const WINDOW = 8;
+
+export interface ClockSample {
+  rttMs: number;
+  /** Server clock minus client clock. */
+  offsetMs: number;
+}
+
+/** Local clock in epoch milliseconds, with sub-millisecond precision and immune to system clock steps. */
+export function localNow(): number {
+  return performance.timeOrigin + performance.now();
+}
+
+/**
+ * Estimates the offset between this client's clock and the server's from NTP-style ping/pong
+ * exchanges. The offset is taken from the lowest-RTT recent sample, since queuing delay on either
+ * leg skews a sample's offset by up to half its extra delay.
+ */
+export class ClockEstimator {
+  private samples: ClockSample[] = [];
+
+  /** Turns a pong into a sample, records it and returns it. */
+  record(pong: TimePong, receivedAt: number = localNow()): ClockSample {
+    const rttMs = (receivedAt - pong.clientSendTime) - (pong.serverSendTime - pong.serverReceiveTime);
+    const offsetMs = ((pong.serverReceiveTime - pong.clientSendTime) + (pong.serverSendTime - receivedAt)) / 2;
+    const sample = { rttMs: Math.max(0, rttMs), offsetMs };
+    this.samples = [...this.samples.slice(-(WINDOW - 1)), sample];
+    return sample;
+  }
+
+  best(): ClockSample | null {
+    return this.samples.reduce<ClockSample | null>((best, s) => (!best || s.rttMs < best.rttMs ? s : best), null);
+  }
+
+  /** Current server time in epoch milliseconds, or the local time until a sample exists. */
+  serverNow(): number {
+    return localNow() + (this.best()?.offsetMs ?? 0);
+  }
+
+  reset(): void {
+    this.samples = [];
+  }
+}
@@ -0,0 +1,42 @@
+import { SyncCorrection, SyncCorrectionType } from '../models/room.model';
+
+/** Content type of frames encoded with the compact sync codec (see server SyncMessageConverter). */
+export const SYNC_CODEC_CONTENT_TYPE = 'application/vnd.watchparty.sync+base64';
+/** CONNECT header advertising codec support to the server. */
+export const SYNC_CODEC_HEADER = 'x-sync-codec';
+export const SYNC_CODEC_VERSION = 'v1';
+
+const TAG_POSITION_REPORT = 1;
+const TAG_SYNC_CORRECTION = 2;
+const CORRECTION_TYPES: SyncCorrectionType[] = ['RATE_ADJUST', 'SEEK', 'RATE_RESET'];
+
+export function encodePositionReport(currentTimeSeconds: number): string {
+  const view = new DataView(new ArrayBuffer(9));
+  view.setUint8(0, TAG_POSITION_REPORT);
+  view.setFloat64(1, currentTimeSeconds);
+  return toBase64(new Uint8Array(view.buffer));
+}
+
+export function decodeSyncCorrection(body: string): SyncCorrection {
+  const bytes = fromBase64(body);
+  const view = new DataView(bytes.buffer);
+  if (view.getUint8(0) !== TAG_SYNC_CORRECTION) {
+    throw new Error('Unexpected sync codec tag');
+  }
+  const correctionType = CORRECTION_TYPES[view.getUint8(1)];
+  const targetTimeSeconds = view.getFloat64(2);
+  let permille = 0;
+  for (let i = 10, shift = 0; i < bytes.length; i++, shift += 7) {
+    permille |= (bytes[i] & 0x7f) << shift;
+    if ((bytes[i] & 0x80) === 0) break;
+  }
+  return { targetTimeSeconds, playbackRate: permille / 1000, correctionType };
+}
+
+function toBase64(bytes: Uint8Array): string {
+  return btoa(String.fromCharCode(...bytes));
+}
+
+function fromBase64(text: string): Uint8Array {
+  return Uint8Array.from(atob(text), c => c.charCodeAt(0));
+}
@@ -10,6 +10,7 @@ import {
   ElementRef,
   OnDestroy,
   HostListener,
+  untracked,
 } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
 import { toObservable, takeUntilDestroyed } from '@angular/core/rxjs-interop';
@@ -60,6 +61,7 @@ export class WatchRoomComponent implements OnDestroy {
   readonly roomCode = input.required<string>();
   readonly roomState = this.ws.roomState;
   readonly participants = this.ws.participants;
+  readonly admission = this.ws.admission;
 
   readonly videoUrlInput = signal('');
   readonly linkCopied = signal(false);
@@ -113,6 +115,15 @@ export class WatchRoomComponent implements OnDestroy {
       }
     });
 
+    // Follow the report interval the server picks from this client's drift history
+    effect(() => {
+      this.ws.reportIntervalMs();
+      if (this.positionReportInterval) {
+        this.stopPositionReporting(false);
+        this.startPositionReporting();
+      }
+    });
+
     // Handle sync corrections from server
     effect(() => {
       const correction = this.ws.syncCorrection();
@@ -274,15 +285,17 @@ export class WatchRoomComponent implements OnDestroy {
       if (player) {
         this.ws.reportPosition(player.getCurrentTime());
       }
-    }, 5000);
+    }, untracked(() => this.ws.reportIntervalMs()));
   }
 
-  private stopPositionReporting(): void {
+  private stopPositionReporting(resetRate = true): void {
     if (this.positionReportInterval) {
       clearInterval(this.positionReportInterval);
       this.positionReportInterval = null;
     }
-    this.playbackRate.set(1.0);
+    if (resetRate) {
+      this.playbackRate.set(1.0);
+    }
   }
 
   // Local override for immediate UI feedback; null = use server state
@@ -464,7 +477,11 @@ export class WatchRoomComponent implements OnDestroy {
     const time = player?.getCurrentTime() ?? 0;
     const newIsPlaying = !this.isPlaying;
 
-    this.localIsPlaying.set(newIsPlaying);
+    // Pausing takes effect locally at once; playing waits for the server's scheduled start so
+    // this client begins at the same moment as everyone else
+    if (!newIsPlaying) {
+      this.localIsPlaying.set(false);
+    }
 
     if (newIsPlaying) {
       player?.seekTo(time);
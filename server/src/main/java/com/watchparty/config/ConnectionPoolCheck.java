@@ -0,0 +1,75 @@
+package com.watchparty.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Warns at startup when the database pool has fewer connections than there are threads handling
+ * inbound STOMP frames. Most room handlers are transactional, so under load the surplus threads
+ * queue on the pool instead of doing work, and a burst of joins can time out waiting for a
+ * connection. Size {@code spring.datasource.hikari.maximum-pool-size} (DB_POOL_SIZE) to at least
+ * {@code websocket.inbound.pool-size}, as the {@code perf} profile does.
+ */
+@Component
+public class ConnectionPoolCheck {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionPoolCheck.class);
+
+    private final ObjectProvider<DataSource> dataSource;
+    private final ObjectProvider<ThreadPoolTaskExecutor> inboundExecutor;
+
+    public ConnectionPoolCheck(ObjectProvider<DataSource> dataSource,
+                               @Qualifier("clientInboundChannelExecutor")
+                               ObjectProvider<ThreadPoolTaskExecutor> inboundExecutor) {
+        this.dataSource = dataSource;
+        this.inboundExecutor = inboundExecutor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() {
+        if (isUndersized()) {
+            int connections = poolSize();
+            int threads = inboundThreads();
+            log.warn("Database pool allows {} connection(s) but {} thread(s) handle inbound WebSocket frames; "
+                    + "raise DB_POOL_SIZE to at least {} or lower WS_INBOUND_POOL_SIZE", connections, threads, threads);
+        }
+    }
+
+    boolean isUndersized() {
+        int connections = poolSize();
+        return connections > 0 && connections < inboundThreads();
+    }
+
+    /**
+     * @return the maximum number of pooled (primary) connections, or 0 if the pool is not Hikari
+     */
+    int poolSize() {
+        DataSource pool = dataSource.getIfAvailable();
+        try {
+            return pool != null && pool.isWrapperFor(HikariDataSource.class)
+                    ? pool.unwrap(HikariDataSource.class).getMaximumPoolSize()
+                    : 0;
+        } catch (SQLException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * @return how many threads can handle inbound frames at once. The executor's queue is
+     *         unbounded, so that is its core size.
+     */
+    int inboundThreads() {
+        ThreadPoolTaskExecutor executor = inboundExecutor.getIfAvailable();
+        return executor != null ? executor.getCorePoolSize() : 0;
+    }
+}
@@ -1,5 +1,6 @@
 package com.watchparty.config;
 
+import com.watchparty.security.JwtAuthenticationFilter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -21,6 +22,7 @@ public class CorsConfig {
         configuration.setAllowedOriginPatterns(List.of(allowedOrigins.split(",")));
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("*"));
+        configuration.setExposedHeaders(List.of(JwtAuthenticationFilter.REFRESH_IN_HEADER));
         configuration.setAllowCredentials(true);
 
         var source = new UrlBasedCorsConfigurationSource();
@@ -1,54 +1,58 @@
 package com.watchparty.config;
 
+import com.watchparty.ratelimit.RateLimitProperties;
+import com.watchparty.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.time.Instant;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Simple sliding-window rate limiter for API requests.
- * Limits each IP to {@value MAX_REQUESTS_PER_WINDOW} requests per {@value WINDOW_SECONDS}s window.
+ * Per-client rate limiting for API requests, with a policy per route (see {@link RateLimitProperties}):
+ * the first policy whose path prefix matches applies, and requests no policy covers pass freely.
+ * Rejected requests get 429 with a {@code Retry-After} of when the next one would be admitted.
  * <p>
  * Uses {@code request.getRemoteAddr()} which is correctly resolved by Tomcat's
  * {@code ForwardedHeaderFilter} when {@code server.forward-headers-strategy=native} is set.
  */
 @Component
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class RateLimitingFilter implements Filter {
 
-    private static final int MAX_REQUESTS_PER_WINDOW = 100;
-    private static final int WINDOW_SECONDS = 60;
+    private final RateLimiter limiter;
 
-    private final Map<String, RateWindow> clients = new ConcurrentHashMap<>();
+    public RateLimitingFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.limiter = new RateLimiter(properties.policies(), properties.expiryTick(), meterRegistry, "http");
+    }
 
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
 
         HttpServletRequest httpRequest = (HttpServletRequest) request;
-        String path = httpRequest.getRequestURI();
+        int policy = limiter.policyFor(httpRequest.getRequestURI());
 
-        // Only rate-limit API endpoints
-        if (!path.startsWith("/api/")) {
+        if (policy < 0) {
             chain.doFilter(request, response);
             return;
         }
 
-        String clientIp = httpRequest.getRemoteAddr();
-        RateWindow window = clients.computeIfAbsent(clientIp, k -> new RateWindow());
-
-        if (window.isAllowed()) {
+        long waitNanos = limiter.acquire(policy, httpRequest.getRemoteAddr());
+        if (waitNanos == RateLimiter.ADMITTED) {
             chain.doFilter(request, response);
         } else {
             HttpServletResponse httpResponse = (HttpServletResponse) response;
             httpResponse.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            httpResponse.setHeader(HttpHeaders.RETRY_AFTER,
+                    String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
             httpResponse.setContentType("application/problem+json");
             httpResponse.getWriter().write("""
                     {"type":"about:blank","title":"Too Many Requests","status":429,"detail":"Rate limit exceeded. Try again later."}""");
@@ -56,29 +60,10 @@ public class RateLimitingFilter implements Filter {
     }
 
     /**
-     * Evicts expired rate-limiting entries every 5 minutes to prevent unbounded memory growth.
+     * Drops clients that have been idle long enough to be back at a full allowance.
      */
-    @Scheduled(fixedRate = 300_000)
+    @Scheduled(fixedDelayString = "${rate-limit.expiry-tick:1s}")
     void evictExpiredEntries() {
-        long now = Instant.now().getEpochSecond();
-        clients.entrySet().removeIf(entry -> now - entry.getValue().windowStart >= WINDOW_SECONDS * 2L);
-    }
-
-    private static class RateWindow {
-        private final AtomicInteger count = new AtomicInteger(0);
-        private volatile long windowStart = Instant.now().getEpochSecond();
-
-        boolean isAllowed() {
-            long now = Instant.now().getEpochSecond();
-            if (now - windowStart >= WINDOW_SECONDS) {
-                synchronized (this) {
-                    if (now - windowStart >= WINDOW_SECONDS) {
-                        windowStart = now;
-                        count.set(0);
-                    }
-                }
-            }
-            return count.incrementAndGet() <= MAX_REQUESTS_PER_WINDOW;
-        }
+        limiter.expire();
     }
 }
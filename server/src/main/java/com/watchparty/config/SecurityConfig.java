@@ -1,6 +1,8 @@
 package com.watchparty.config;
 
+import com.watchparty.security.AdminAccess;
 import com.watchparty.security.JwtAuthenticationFilter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -20,9 +22,11 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final AdminAccess adminAccess;
 
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter) {
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter, AdminAccess adminAccess) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.adminAccess = adminAccess;
     }
 
     @Bean
@@ -50,8 +54,13 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.GET, "/api/videos/**").permitAll()
                 // Health check
                 .requestMatchers("/api/health").permitAll()
-                // Actuator (used by Docker/Portainer health checks)
-                .requestMatchers("/actuator/**").permitAll()
+                // Actuator health/info (used by Docker/Portainer health checks)
+                .requestMatchers("/actuator/health/**", "/actuator/info").permitAll()
+                // Metrics reveal server internals, and per-room sync quality is keyed by room code
+                // (the join credential): admins only
+                .requestMatchers("/actuator/metrics", "/actuator/metrics/**").access(adminAccess)
+                .requestMatchers("/actuator/syncquality", "/actuator/syncquality/**").access(adminAccess)
+                .requestMatchers("/actuator/**").authenticated()
                 // WebSocket endpoint (auth handled by STOMP interceptor)
                 .requestMatchers("/ws/**").permitAll()
                 // API docs (dev only in practice, but accessible)
@@ -73,8 +82,12 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * Raising the strength takes effect for existing users as they log in: their stored hash is
+     * recognised as weaker and re-encoded (see {@link com.watchparty.security.PasswordHasher#needsRehash}).
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 }
@@ -1,33 +1,92 @@
 package com.watchparty.config;
 
+import com.watchparty.websocket.SerializedPayloadMessageConverter;
+import com.watchparty.websocket.SessionLivenessTracker;
+import com.watchparty.websocket.SessionResumptionInterceptor;
+import com.watchparty.websocket.StompRateLimitInterceptor;
+import com.watchparty.websocket.SyncCodecInterceptor;
+import com.watchparty.websocket.SyncMessageConverter;
 import com.watchparty.websocket.WebSocketAuthChannelInterceptor;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
+import org.springframework.messaging.converter.MessageConverter;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
+import java.util.List;
+
 @Configuration
 @EnableWebSocketMessageBroker
-public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer, DisposableBean {
 
     private final WebSocketAuthChannelInterceptor webSocketAuthChannelInterceptor;
+    private final SyncCodecInterceptor syncCodecInterceptor;
+    private final SessionResumptionInterceptor sessionResumptionInterceptor;
+    private final SessionLivenessTracker sessionLivenessTracker;
+    private final StompRateLimitInterceptor stompRateLimitInterceptor;
     private final String[] allowedOrigins;
+    private final long serverHeartbeatMs;
+    private final long clientHeartbeatMs;
+    private final int inboundPoolSize;
+    private final ThreadPoolTaskScheduler brokerHeartbeatScheduler;
 
     public WebSocketConfig(WebSocketAuthChannelInterceptor webSocketAuthChannelInterceptor,
-                           @Value("${cors.allowed-origins:http://localhost:*}") String allowedOrigins) {
+                           SyncCodecInterceptor syncCodecInterceptor,
+                           SessionResumptionInterceptor sessionResumptionInterceptor,
+                           SessionLivenessTracker sessionLivenessTracker,
+                           StompRateLimitInterceptor stompRateLimitInterceptor,
+                           @Value("${cors.allowed-origins:http://localhost:*}") String allowedOrigins,
+                           @Value("${websocket.heartbeat.server-ms:10000}") long serverHeartbeatMs,
+                           @Value("${websocket.heartbeat.client-ms:10000}") long clientHeartbeatMs,
+                           @Value("${websocket.heartbeat.pool-size:1}") int heartbeatPoolSize,
+                           @Value("${websocket.inbound.pool-size:0}") int inboundPoolSize) {
         this.webSocketAuthChannelInterceptor = webSocketAuthChannelInterceptor;
+        this.syncCodecInterceptor = syncCodecInterceptor;
+        this.sessionResumptionInterceptor = sessionResumptionInterceptor;
+        this.sessionLivenessTracker = sessionLivenessTracker;
+        this.stompRateLimitInterceptor = stompRateLimitInterceptor;
         this.allowedOrigins = allowedOrigins.split(",");
+        this.serverHeartbeatMs = serverHeartbeatMs;
+        this.clientHeartbeatMs = clientHeartbeatMs;
+        this.inboundPoolSize = inboundPoolSize;
+        this.brokerHeartbeatScheduler = heartbeatScheduler(heartbeatPoolSize);
+    }
+
+    /**
+     * Runs the simple broker's heartbeat task on its own threads, so heartbeats keep going out
+     * on time even while the shared broker scheduler is busy with roster flushes. Deliberately not
+     * a bean: a second TaskScheduler bean would leave @Scheduled without a unique scheduler to use.
+     */
+    private static ThreadPoolTaskScheduler heartbeatScheduler(int poolSize) {
+        var scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("stomp-heartbeat-");
+        scheduler.setDaemon(true);
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    @Override
+    public void destroy() {
+        brokerHeartbeatScheduler.shutdown();
     }
 
     @Override
     public void configureMessageBroker(@NonNull MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");
+        config.enableSimpleBroker("/topic", "/queue")
+                .setHeartbeatValue(new long[] {serverHeartbeatMs, clientHeartbeatMs})
+                .setTaskScheduler(brokerHeartbeatScheduler);
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
+        // Deliver each session's frames in publish order, so room event sequence numbers arrive
+        // gap-free unless something was actually missed
+        config.setPreservePublishOrder(true);
     }
 
     @Override
@@ -39,6 +98,22 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     @Override
     public void configureClientInboundChannel(@NonNull ChannelRegistration registration) {
-        registration.interceptors(webSocketAuthChannelInterceptor);
+        registration.interceptors(webSocketAuthChannelInterceptor, syncCodecInterceptor, sessionResumptionInterceptor,
+                sessionLivenessTracker, stompRateLimitInterceptor);
+        // Inbound frames are handled on this pool; with its unbounded queue no threads beyond the
+        // core size are ever started, so core and max are kept equal. 0 keeps Spring's default.
+        if (inboundPoolSize > 0) {
+            registration.taskExecutor()
+                    .corePoolSize(inboundPoolSize)
+                    .maxPoolSize(inboundPoolSize);
+        }
+    }
+
+    @Override
+    public boolean configureMessageConverters(@NonNull List<MessageConverter> messageConverters) {
+        // Strict content-type match: only frames tagged with the sync codec MIME type use it
+        messageConverters.add(new SyncMessageConverter());
+        messageConverters.add(new SerializedPayloadMessageConverter());
+        return true;
     }
 }
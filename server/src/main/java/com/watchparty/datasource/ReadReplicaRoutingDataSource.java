@@ -0,0 +1,92 @@
+package com.watchparty.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the primary.
+ * <p>
+ * The target is picked when a transaction first touches the database, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}; otherwise the
+ * connection is fetched before the transaction is flagged read-only. Reads that must see data
+ * just written elsewhere can be pinned to the primary with {@link #onPrimary(Supplier)}. If the
+ * replica can't hand out a connection, reads fall back to the primary for {@code retryAfter}
+ * before the replica is tried again.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadReplicaRoutingDataSource.class);
+
+    enum Target { PRIMARY, REPLICA }
+
+    private static final ThreadLocal<Boolean> primaryPinned = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long retryAfterNanos;
+    private final Counter fallbacks;
+    private volatile long replicaRetryAt = System.nanoTime();
+
+    public ReadReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration retryAfter,
+                                        MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.retryAfterNanos = retryAfter.toNanos();
+        this.fallbacks = Counter.builder("watchparty.datasource.replica.fallbacks")
+                .description("Read-only transactions sent to the primary because the replica was unavailable")
+                .register(meterRegistry);
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Runs {@code read} with any transaction it starts going to the primary, even a read-only one.
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        if (primaryPinned.get() != null) {
+            return read.get();
+        }
+        primaryPinned.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            primaryPinned.remove();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean replicaEligible = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && primaryPinned.get() == null
+                && System.nanoTime() - replicaRetryAt >= 0;
+        return replicaEligible ? Target.REPLICA : Target.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() == Target.PRIMARY) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            replicaRetryAt = System.nanoTime() + retryAfterNanos;
+            fallbacks.increment();
+            log.warn("Replica unavailable, reading from the primary for the next {} ms: {}",
+                    retryAfterNanos / 1_000_000, e.getMessage());
+            return primary.getConnection();
+        }
+    }
+}
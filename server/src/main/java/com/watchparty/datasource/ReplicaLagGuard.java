@@ -0,0 +1,104 @@
+package com.watchparty.datasource;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Keeps reads of a room on the primary while a replica may not have caught up with its last write.
+ * <p>
+ * Writers record each committed change to a room's data; for {@code spring.datasource.replica.max-lag}
+ * afterwards, reads of that room go through {@link ReadReplicaRoutingDataSource#onPrimary(Supplier)}.
+ * This matters most for snapshots rebuilt right after an invalidation, which would otherwise cache
+ * the replica's older copy under the new version. Lookups by room code or owner cannot be matched
+ * to a room id before they run, so writes they can observe (creating, renaming, deleting a room)
+ * are recorded under the code and owner as well. Does nothing unless a replica is configured.
+ */
+@Component
+public class ReplicaLagGuard {
+
+    private final boolean enabled;
+    private final long maxLagNanos;
+    private final Map<Object, Long> lastWrites = new ConcurrentHashMap<>();
+
+    private record CodeKey(String code) {}
+
+    private record OwnerKey(UUID ownerId) {}
+
+    public ReplicaLagGuard(@Value("${spring.datasource.replica.url:}") String replicaUrl,
+                           @Value("${spring.datasource.replica.max-lag:2s}") Duration maxLag) {
+        this.enabled = !replicaUrl.isBlank();
+        this.maxLagNanos = maxLag.toNanos();
+    }
+
+    /**
+     * Records that a change to the room's data has just committed.
+     */
+    public void recordWrite(UUID roomId) {
+        stamp(roomId);
+    }
+
+    /**
+     * Records a change to a room that reads by its code or its owner's room list can observe.
+     */
+    public void recordWrite(UUID roomId, String code, @Nullable UUID ownerId) {
+        stamp(roomId);
+        stamp(new CodeKey(code));
+        if (ownerId != null) {
+            stamp(new OwnerKey(ownerId));
+        }
+    }
+
+    private void stamp(Object key) {
+        if (enabled) {
+            lastWrites.put(key, System.nanoTime());
+        }
+    }
+
+    /**
+     * Runs a read of the room's data, on the primary if the room was written to within the lag window.
+     */
+    public <T> T read(UUID roomId, Supplier<T> read) {
+        return readFor(roomId, read);
+    }
+
+    /**
+     * Runs a lookup of a room by code, on the primary if a room with that code was written to
+     * within the lag window.
+     */
+    public <T> T readByCode(String code, Supplier<T> read) {
+        return readFor(new CodeKey(code), read);
+    }
+
+    /**
+     * Runs a lookup of a user's rooms, on the primary if one of them was written to within the lag window.
+     */
+    public <T> T readByOwner(UUID ownerId, Supplier<T> read) {
+        return readFor(new OwnerKey(ownerId), read);
+    }
+
+    private <T> T readFor(Object key, Supplier<T> read) {
+        return isRecentlyWritten(key) ? ReadReplicaRoutingDataSource.onPrimary(read) : read.get();
+    }
+
+    boolean isRecentlyWritten(Object key) {
+        Long writtenAt = lastWrites.get(key);
+        return writtenAt != null && System.nanoTime() - writtenAt < maxLagNanos;
+    }
+
+    @Scheduled(fixedDelayString = "${spring.datasource.replica.max-lag:2s}")
+    public void expire() {
+        if (lastWrites.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        lastWrites.values().removeIf(writtenAt -> now - writtenAt >= maxLagNanos);
+    }
+}
@@ -0,0 +1,18 @@
+package com.watchparty.dto;
+
+/**
+ * Sent to {@code /user/queue/room.admission} when a join cannot be served right away.
+ * {@code QUEUED}: the room is full and the join will be completed automatically once a
+ * slot frees up. {@code RETRY}: the server is saturated and the client should resend the
+ * join after {@code estimatedWaitSeconds}.
+ */
+public record AdmissionMessage(String status, int position, long estimatedWaitSeconds) {
+
+    public static AdmissionMessage queued(int position, long estimatedWaitSeconds) {
+        return new AdmissionMessage("QUEUED", position, estimatedWaitSeconds);
+    }
+
+    public static AdmissionMessage retry(long estimatedWaitSeconds) {
+        return new AdmissionMessage("RETRY", 0, estimatedWaitSeconds);
+    }
+}
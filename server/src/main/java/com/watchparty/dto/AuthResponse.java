@@ -7,5 +7,6 @@ public record AuthResponse(
     String refreshToken,
     UUID userId,
     String email,
-    String displayName
+    String displayName,
+    long refreshInSeconds
 ) {}
@@ -1,6 +1,7 @@
 package com.watchparty.dto;
 
 import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import java.util.List;
 
-public record BulkAddPlaylistRequest(@NotEmpty List<String> videoUrls) {}
+public record BulkAddPlaylistRequest(@NotEmpty @Size(max = 200) List<String> videoUrls) {}
@@ -0,0 +1,7 @@
+package com.watchparty.dto;
+
+/**
+ * Asks for every room broadcast after {@code afterSeq}, the last sequence number the client applied.
+ */
+public record CatchUpRequest(long afterSeq) {
+}
@@ -4,9 +4,28 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import org.jspecify.annotations.Nullable;
 
+/**
+ * A playback action. {@code executeAt} is set by the server only: on PLAY, SEEK and CHANGE_VIDEO
+ * broadcasts it is the server time (epoch milliseconds) at which every client should apply the
+ * action, so that they all start together instead of whenever the frame arrives. Any value a
+ * client sends is discarded.
+ */
 public record PlayerStateMessage(
         @NotBlank @Pattern(regexp = "PLAY|PAUSE|SEEK|CHANGE_VIDEO|SYNC") String action,
         @Nullable String videoUrl,
         double currentTimeSeconds,
-        boolean isPlaying) {
+        boolean isPlaying,
+        @Nullable Double executeAt) {
+
+    public PlayerStateMessage(String action, @Nullable String videoUrl, double currentTimeSeconds, boolean isPlaying) {
+        this(action, videoUrl, currentTimeSeconds, isPlaying, null);
+    }
+
+    public PlayerStateMessage scheduledAt(double executeAt) {
+        return new PlayerStateMessage(action, videoUrl, currentTimeSeconds, isPlaying, executeAt);
+    }
+
+    public PlayerStateMessage unscheduled() {
+        return executeAt == null ? this : new PlayerStateMessage(action, videoUrl, currentTimeSeconds, isPlaying);
+    }
 }
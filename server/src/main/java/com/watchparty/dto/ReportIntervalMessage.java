@@ -0,0 +1,7 @@
+package com.watchparty.dto;
+
+/**
+ * Tells a client how often to send {@link PositionReportMessage}s while playing.
+ */
+public record ReportIntervalMessage(long intervalMs) {
+}
@@ -0,0 +1,20 @@
+package com.watchparty.dto;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Reply on {@code /user/queue/room.catchup} to a {@link CatchUpRequest}.
+ * <p>
+ * Normally only {@code missed} is set and the client replays it in order. When the requested
+ * events have been dropped from the room's event log, {@code missed} is null and the room
+ * state, playlist and chat snapshots are sent instead.
+ */
+public record RoomCatchUpMessage(
+        long lastSeq,
+        @Nullable List<RoomEvent> missed,
+        @Nullable RoomStateMessage roomState,
+        @Nullable SerializedPayload playlist,
+        @Nullable SerializedPayload chatHistory) {
+}
@@ -0,0 +1,8 @@
+package com.watchparty.dto;
+
+/**
+ * A room-topic broadcast as recorded in the room's event log, replayed to clients that
+ * resume after missing it. {@code destination} is the topic it was originally sent to.
+ */
+public record RoomEvent(long seq, String destination, SerializedPayload payload) {
+}
@@ -0,0 +1,23 @@
+package com.watchparty.dto;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Reply on {@code /user/queue/room.resume} when a session reattaches to its previous seat.
+ * <p>
+ * {@code missed} holds the room events broadcast after the client's last seen sequence
+ * number. When they are no longer in the log, it is null and the playlist and chat
+ * snapshots are sent instead. {@code roomState} is always current and should be applied
+ * after replaying {@code missed}.
+ */
+public record RoomResumeMessage(
+        String connectionId,
+        String resumeToken,
+        long lastSeq,
+        RoomStateMessage roomState,
+        @Nullable List<RoomEvent> missed,
+        @Nullable SerializedPayload playlist,
+        @Nullable SerializedPayload chatHistory) {
+}
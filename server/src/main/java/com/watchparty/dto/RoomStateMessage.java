@@ -10,5 +10,6 @@ public record RoomStateMessage(
         double currentTimeSeconds,
         boolean isPlaying,
         String playbackMode,
+        String syncStrategy,
         List<ParticipantMessage> participants) {
 }
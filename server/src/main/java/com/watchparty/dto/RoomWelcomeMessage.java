@@ -0,0 +1,18 @@
+package com.watchparty.dto;
+
+/**
+ * Everything a newly joined client needs, delivered as a single frame to
+ * {@code /user/queue/room.welcome}: its own connection ID, the room state including the
+ * roster, and the cached playlist and chat history snapshots.
+ * <p>
+ * {@code resumeToken} lets the client reattach to this seat after a reconnect, replaying
+ * room events after {@code lastSeq} (see {@link RoomResumeMessage}).
+ */
+public record RoomWelcomeMessage(
+        String connectionId,
+        String resumeToken,
+        long lastSeq,
+        RoomStateMessage roomState,
+        SerializedPayload playlist,
+        SerializedPayload chatHistory) {
+}
@@ -0,0 +1,27 @@
+package com.watchparty.dto;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Incremental roster change broadcast on {@code /topic/room.{code}} instead of a full
+ * {@link RoomStateMessage}. The {@code type} discriminator lets clients tell it apart from
+ * room state and player messages on the same topic.
+ */
+public record RosterUpdateMessage(
+        String type,
+        List<ParticipantMessage> joined,
+        List<String> left,
+        @Nullable String hostConnectionId) {
+
+    public static final String TYPE = "ROSTER_UPDATE";
+
+    public static RosterUpdateMessage joined(ParticipantMessage participant, @Nullable String hostConnectionId) {
+        return new RosterUpdateMessage(TYPE, List.of(participant), List.of(), hostConnectionId);
+    }
+
+    public static RosterUpdateMessage left(List<String> connectionIds, @Nullable String hostConnectionId) {
+        return new RosterUpdateMessage(TYPE, List.of(), connectionIds, hostConnectionId);
+    }
+}
@@ -0,0 +1,33 @@
+package com.watchparty.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * A message body that has already been encoded to JSON. Sent on its own it bypasses
+ * Jackson entirely (see {@code SerializedPayloadMessageConverter}); embedded in another
+ * message it is written verbatim as a raw JSON value.
+ */
+public record SerializedPayload(byte[] json) implements JsonSerializable {
+
+    public SerializedPayload {
+        Objects.requireNonNull(json, "json must not be null");
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeRawValue(new String(json, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+        serialize(gen, serializers);
+    }
+}
@@ -0,0 +1,14 @@
+package com.watchparty.dto;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Clock sync request. {@code clientSendTime} is the client's clock in epoch milliseconds;
+ * the client also reports the round-trip time and clock offset it measured from its previous
+ * ping, which is how the server learns the session's network delay.
+ */
+public record TimePingMessage(
+        double clientSendTime,
+        @Nullable Double lastRttMs,
+        @Nullable Double lastOffsetMs) {
+}
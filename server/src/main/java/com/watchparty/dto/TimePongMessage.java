@@ -0,0 +1,13 @@
+package com.watchparty.dto;
+
+/**
+ * Clock sync reply on {@code /user/queue/time.pong}. With its own receive time {@code t3}, the
+ * client computes {@code rtt = (t3 - clientSendTime) - (serverSendTime - serverReceiveTime)} and
+ * {@code offset = ((serverReceiveTime - clientSendTime) + (serverSendTime - t3)) / 2}.
+ * All times are epoch milliseconds.
+ */
+public record TimePongMessage(
+        double clientSendTime,
+        double serverReceiveTime,
+        double serverSendTime) {
+}
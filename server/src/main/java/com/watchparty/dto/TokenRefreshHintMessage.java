@@ -0,0 +1,7 @@
+package com.watchparty.dto;
+
+/**
+ * Tells an authenticated client how many seconds it has before it should refresh its access token.
+ */
+public record TokenRefreshHintMessage(long refreshInSeconds) {
+}
@@ -0,0 +1,63 @@
+package com.watchparty.entity;
+
+import jakarta.persistence.*;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One join or leave, recorded for analytics when the presence audit log is enabled.
+ * Deliberately not linked to {@code rooms}: the history outlives the rooms it describes.
+ */
+@Entity
+@Table(name = "participant_events")
+public class ParticipantEvent {
+
+    public enum Type { JOIN, LEAVE }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "room_id", nullable = false, updatable = false)
+    private UUID roomId;
+
+    @Column(name = "connection_id", nullable = false, updatable = false)
+    private String connectionId;
+
+    @Column(name = "user_id", updatable = false)
+    private @Nullable UUID userId;
+
+    @Column(name = "nickname", nullable = false, updatable = false)
+    private String nickname;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, updatable = false, length = 16)
+    private Type type;
+
+    @Column(name = "occurred_at", nullable = false, updatable = false)
+    private Instant occurredAt;
+
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+
+    public UUID getRoomId() { return roomId; }
+    public void setRoomId(UUID roomId) { this.roomId = roomId; }
+
+    public String getConnectionId() { return connectionId; }
+    public void setConnectionId(String connectionId) { this.connectionId = connectionId; }
+
+    public @Nullable UUID getUserId() { return userId; }
+    public void setUserId(@Nullable UUID userId) { this.userId = userId; }
+
+    public String getNickname() { return nickname; }
+    public void setNickname(String nickname) { this.nickname = nickname; }
+
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+
+    public Instant getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(Instant occurredAt) { this.occurredAt = occurredAt; }
+}
@@ -1,6 +1,7 @@
 package com.watchparty.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import org.jspecify.annotations.Nullable;
 
 import java.time.Instant;
@@ -10,6 +11,8 @@ import java.time.temporal.ChronoUnit;
 
 @Entity
 @Table(name = "rooms")
+// Writes only the changed columns, so concurrent writers of different fields don't overwrite each other
+@DynamicUpdate
 public class Room {
 
     private static final SecureRandom RANDOM = new SecureRandom();
@@ -61,6 +64,14 @@ public class Room {
     @Column(name = "playback_mode", nullable = false)
     private PlaybackMode playbackMode = PlaybackMode.ORDERED;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "sync_strategy", nullable = false)
+    private SyncStrategy syncStrategy = SyncStrategy.SERVER_CLOCK;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @PrePersist
     void prePersist() {
         this.createdAt = Instant.now();
@@ -176,4 +187,9 @@ public class Room {
 
     public PlaybackMode getPlaybackMode() { return playbackMode; }
     public void setPlaybackMode(PlaybackMode playbackMode) { this.playbackMode = playbackMode; }
+
+    public SyncStrategy getSyncStrategy() { return syncStrategy; }
+    public void setSyncStrategy(SyncStrategy syncStrategy) { this.syncStrategy = syncStrategy; }
+
+    public long getVersion() { return version; }
 }
@@ -0,0 +1,13 @@
+package com.watchparty.entity;
+
+/**
+ * What a room's clients are kept in sync with.
+ */
+public enum SyncStrategy {
+    /** The stored position extrapolated with the server's wall clock. */
+    SERVER_CLOCK,
+    /** The host's reported position; the host itself is never corrected. */
+    HOST,
+    /** The median of recent reports from all clients, once enough of them report. */
+    QUORUM_MEDIAN
+}
@@ -0,0 +1,18 @@
+package com.watchparty.exception;
+
+/**
+ * Thrown when a bounded resource is saturated and the request should be retried later.
+ */
+public class ServerBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServerBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,43 +1,23 @@
-package com.watchparty.entity;
+package com.watchparty.presence;
 
-import jakarta.persistence.*;
 import org.jspecify.annotations.Nullable;
 
 import java.time.Instant;
 import java.util.UUID;
 
-@Entity
-@Table(name = "participants")
+/**
+ * A session currently present in a room. Held only in the {@link PresenceRegistry}; nothing about
+ * presence survives a restart, since every client reconnects and joins again anyway.
+ */
 public class Participant {
 
-    @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
-    @Column(name = "id", updatable = false, nullable = false)
     private UUID id;
-
-    @Column(name = "nickname", nullable = false)
     private String nickname;
-
-    @Column(name = "connection_id", nullable = false)
     private String connectionId;
-
-    @Column(name = "is_host", nullable = false)
-    private boolean isHost;
-
-    @Column(name = "user_id")
+    private volatile boolean isHost;
     private @Nullable UUID userId;
-
-    @Column(name = "joined_at", nullable = false, updatable = false)
     private Instant joinedAt;
-
-    @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "room_id", nullable = false)
-    private Room room;
-
-    @PrePersist
-    void prePersist() {
-        this.joinedAt = Instant.now();
-    }
+    private UUID roomId;
 
     public UUID getId() {
         return id;
@@ -79,12 +59,12 @@ public class Participant {
         this.joinedAt = joinedAt;
     }
 
-    public Room getRoom() {
-        return room;
+    public UUID getRoomId() {
+        return roomId;
     }
 
-    public void setRoom(Room room) {
-        this.room = room;
+    public void setRoomId(UUID roomId) {
+        this.roomId = roomId;
     }
 
     public @Nullable UUID getUserId() { return userId; }
@@ -0,0 +1,88 @@
+package com.watchparty.presence;
+
+import com.watchparty.entity.ParticipantEvent;
+import com.watchparty.repository.ParticipantEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optional join/leave history for analytics, enabled with {@code presence.audit.enabled}.
+ * <p>
+ * Events are only queued on the join/leave path and written in batches every
+ * {@code presence.audit.flush-interval-ms}, so the audit log never adds database latency to
+ * presence changes. If the database falls behind, events beyond {@code presence.audit.max-pending}
+ * are dropped rather than held in memory.
+ */
+@Component
+@ConditionalOnProperty(name = "presence.audit.enabled", havingValue = "true")
+public class PresenceAuditLog implements PresenceListener {
+
+    private static final Logger log = LoggerFactory.getLogger(PresenceAuditLog.class);
+
+    private final ParticipantEventRepository repository;
+    private final int maxPending;
+    private final Queue<ParticipantEvent> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicInteger dropped = new AtomicInteger();
+
+    public PresenceAuditLog(ParticipantEventRepository repository,
+                            @Value("${presence.audit.max-pending:10000}") int maxPending) {
+        this.repository = repository;
+        this.maxPending = maxPending;
+    }
+
+    @Override
+    public void joined(Participant participant) {
+        record(participant, ParticipantEvent.Type.JOIN);
+    }
+
+    @Override
+    public void left(Collection<Participant> participants) {
+        participants.forEach(p -> record(p, ParticipantEvent.Type.LEAVE));
+    }
+
+    @Scheduled(fixedDelayString = "${presence.audit.flush-interval-ms:5000}")
+    void flush() {
+        int lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            log.warn("Dropped {} presence audit event(s): too many pending", lost);
+        }
+        List<ParticipantEvent> batch = new ArrayList<>();
+        ParticipantEvent event;
+        while ((event = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            batch.add(event);
+        }
+        if (!batch.isEmpty()) {
+            repository.saveAll(batch);
+        }
+    }
+
+    private void record(Participant participant, ParticipantEvent.Type type) {
+        if (pendingCount.incrementAndGet() > maxPending) {
+            pendingCount.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+        var event = new ParticipantEvent();
+        event.setRoomId(participant.getRoomId());
+        event.setConnectionId(participant.getConnectionId());
+        event.setUserId(participant.getUserId());
+        event.setNickname(participant.getNickname());
+        event.setType(type);
+        event.setOccurredAt(Instant.now());
+        pending.add(event);
+    }
+}
@@ -0,0 +1,23 @@
+package com.watchparty.presence;
+
+import java.util.Collection;
+
+/**
+ * Observes changes to the {@link PresenceRegistry}. Listeners are called synchronously on the
+ * thread making the change, so anything slow (I/O, remote calls) has to be handed off.
+ * <p>
+ * This is the extension point for replicating presence to other nodes: a replicating listener
+ * publishes each change, and applies the changes it receives through the registry's
+ * {@code apply*} methods, which do not notify listeners again.
+ */
+public interface PresenceListener {
+
+    default void joined(Participant participant) {
+    }
+
+    default void left(Collection<Participant> participants) {
+    }
+
+    default void hostChanged(Participant newHost) {
+    }
+}
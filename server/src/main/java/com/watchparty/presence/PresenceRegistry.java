@@ -0,0 +1,150 @@
+package com.watchparty.presence;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory record of who is in which room, replacing the former {@code participants} table.
+ * <p>
+ * Presence changes on every join and leave and is read on nearly every room message, but is
+ * worthless after a restart, so keeping it in the database cost a write per join/leave and a
+ * query per broadcast for nothing. Each room's roster is an immutable list in join order that is
+ * replaced on change; reads are lock-free and changes to one room never block another.
+ */
+@Component
+public class PresenceRegistry {
+
+    public enum Outcome { HOST, MEMBER, FULL }
+
+    /**
+     * Result of {@link #tryAdd}: whether the participant got a seat, and the room's roster right
+     * after the claim (ending with the newcomer if it was admitted).
+     */
+    public record Claim(Outcome outcome, List<Participant> roster) {
+        public boolean admitted() {
+            return outcome != Outcome.FULL;
+        }
+    }
+
+    private final List<PresenceListener> listeners;
+    private final Map<UUID, List<Participant>> rooms = new ConcurrentHashMap<>();
+    private final Map<String, Participant> byConnectionId = new ConcurrentHashMap<>();
+
+    public PresenceRegistry(List<PresenceListener> listeners) {
+        this.listeners = List.copyOf(listeners);
+    }
+
+    /**
+     * Returns the room's participants in the order they joined.
+     */
+    public List<Participant> participants(UUID roomId) {
+        return rooms.getOrDefault(roomId, List.of());
+    }
+
+    public int count(UUID roomId) {
+        return participants(roomId).size();
+    }
+
+    public Optional<Participant> find(String connectionId) {
+        return Optional.ofNullable(byConnectionId.get(connectionId));
+    }
+
+    public List<Participant> findAll(Collection<String> connectionIds) {
+        return connectionIds.stream()
+                .map(byConnectionId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    public void add(Participant participant) {
+        apply(participant);
+        listeners.forEach(listener -> listener.joined(participant));
+    }
+
+    /**
+     * Seats a participant unless the room already has {@code maxParticipants}. Capacity and host
+     * are decided atomically with the insert, so concurrent joins can neither overfill a room nor
+     * both become host of an empty one.
+     */
+    public Claim tryAdd(Participant participant, int maxParticipants) {
+        prepare(participant);
+        Claim[] claim = new Claim[1];
+        rooms.compute(participant.getRoomId(), (roomId, roster) -> {
+            List<Participant> current = roster != null ? roster : List.of();
+            if (current.size() >= maxParticipants) {
+                claim[0] = new Claim(Outcome.FULL, current);
+                return roster;
+            }
+            participant.setHost(current.isEmpty());
+            List<Participant> updated = new ArrayList<>(current);
+            updated.add(participant);
+            List<Participant> seated = List.copyOf(updated);
+            claim[0] = new Claim(current.isEmpty() ? Outcome.HOST : Outcome.MEMBER, seated);
+            return seated;
+        });
+        if (claim[0].admitted()) {
+            byConnectionId.put(participant.getConnectionId(), participant);
+            listeners.forEach(listener -> listener.joined(participant));
+        }
+        return claim[0];
+    }
+
+    public void removeAll(Collection<Participant> participants) {
+        applyRemoval(participants);
+        listeners.forEach(listener -> listener.left(participants));
+    }
+
+    public void promoteToHost(Participant participant) {
+        participant.setHost(true);
+        listeners.forEach(listener -> listener.hostChanged(participant));
+    }
+
+    /**
+     * Adds a participant without notifying listeners, e.g. one replicated from another node.
+     */
+    public void apply(Participant participant) {
+        prepare(participant);
+        rooms.compute(participant.getRoomId(), (roomId, roster) -> {
+            List<Participant> updated = new ArrayList<>(roster != null ? roster : List.of());
+            updated.add(participant);
+            return List.copyOf(updated);
+        });
+        byConnectionId.put(participant.getConnectionId(), participant);
+    }
+
+    private static void prepare(Participant participant) {
+        if (participant.getId() == null) {
+            participant.setId(UUID.randomUUID());
+        }
+        if (participant.getJoinedAt() == null) {
+            participant.setJoinedAt(Instant.now());
+        }
+    }
+
+    /**
+     * Removes participants without notifying listeners, e.g. departures replicated from another node.
+     */
+    public void applyRemoval(Collection<Participant> participants) {
+        Map<UUID, Set<String>> leavingByRoom = participants.stream()
+                .collect(Collectors.groupingBy(Participant::getRoomId,
+                        Collectors.mapping(Participant::getConnectionId, Collectors.toSet())));
+        leavingByRoom.forEach((roomId, leaving) -> rooms.computeIfPresent(roomId, (id, roster) -> {
+            List<Participant> updated = roster.stream()
+                    .filter(p -> !leaving.contains(p.getConnectionId()))
+                    .toList();
+            return updated.isEmpty() ? null : updated;
+        }));
+        participants.forEach(p -> byConnectionId.remove(p.getConnectionId(), p));
+    }
+}
@@ -0,0 +1,17 @@
+package com.watchparty.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * Allows each client {@code limit} requests per {@code period} on paths starting with
+ * {@code pathPrefix}, spread evenly: after a burst of {@code limit}, one more request is admitted
+ * every {@code period / limit}.
+ */
+public record RateLimitPolicy(String name, String pathPrefix, int limit, Duration period) {
+
+    public RateLimitPolicy {
+        if (limit <= 0 || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Rate limit policy '" + name + "' needs a positive limit and period");
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.watchparty.ratelimit;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@code rate-limit.*}: the HTTP policies, matched in order by path prefix, and how often idle
+ * clients are expired. Unset values fall back to the defaults below.
+ */
+@ConfigurationProperties("rate-limit")
+public record RateLimitProperties(@Nullable List<RateLimitPolicy> policies, @Nullable Duration expiryTick) {
+
+    static final List<RateLimitPolicy> DEFAULT_POLICIES = List.of(
+            new RateLimitPolicy("auth", "/api/auth/", 20, Duration.ofMinutes(1)),
+            new RateLimitPolicy("videos", "/api/videos/", 60, Duration.ofMinutes(1)),
+            new RateLimitPolicy("api", "/api/", 100, Duration.ofMinutes(1)));
+
+    public RateLimitProperties {
+        policies = policies == null || policies.isEmpty() ? DEFAULT_POLICIES : List.copyOf(policies);
+        expiryTick = expiryTick == null ? Duration.ofSeconds(1) : expiryTick;
+    }
+
+    public static RateLimitProperties defaults() {
+        return new RateLimitProperties(null, null);
+    }
+}
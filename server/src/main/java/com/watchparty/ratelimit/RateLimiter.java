@@ -0,0 +1,192 @@
+package com.watchparty.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * GCRA (generic cell rate algorithm) rate limiter: each client key holds a single "theoretical
+ * arrival time" that moves forward by {@code period / limit} per admitted request. A request is
+ * admitted while that time stays within one period of now. The effect is a token bucket of
+ * {@code limit} that refills continuously, but the state is one long updated with a CAS. There
+ * are no windows to reset and no locks.
+ * <p>
+ * Clients whose arrival time has passed are indistinguishable from new ones, so they are dropped.
+ * Instead of scanning every key, each key sits in the slot of a time wheel for the moment it will
+ * become idle. Each {@link #expire()} only looks at the slots that have come due and either drops
+ * their keys or moves still-active ones to a later slot. A request to a known key allocates
+ * nothing; a request to a new key allocates one bucket.
+ * <p>
+ * Meters: {@code watchparty.ratelimit.requests} (tags scope, policy, outcome) and
+ * {@code watchparty.ratelimit.keys} (tags scope, policy).
+ */
+public final class RateLimiter {
+
+    /** Returned by {@link #acquire} when the request is admitted. */
+    public static final long ADMITTED = 0;
+
+    private static final int WHEEL_SLOTS = 256;
+    private static final AtomicLongFieldUpdater<Bucket> TAT =
+            AtomicLongFieldUpdater.newUpdater(Bucket.class, "tat");
+
+    static final class Bucket {
+        final Object key;
+        final Lane lane;
+        volatile long tat;
+
+        Bucket(Object key, Lane lane, long tat) {
+            this.key = key;
+            this.lane = lane;
+            this.tat = tat;
+        }
+    }
+
+    static final class Lane {
+        final RateLimitPolicy policy;
+        final long emissionNanos;
+        final long periodNanos;
+        final Map<Object, Bucket> buckets = new ConcurrentHashMap<>();
+        final Counter admitted;
+        final Counter rejected;
+
+        Lane(RateLimitPolicy policy, MeterRegistry registry, String scope) {
+            this.policy = policy;
+            this.periodNanos = policy.period().toNanos();
+            this.emissionNanos = Math.max(1, periodNanos / policy.limit());
+            this.admitted = counter(registry, scope, policy, "admitted");
+            this.rejected = counter(registry, scope, policy, "rejected");
+            Gauge.builder("watchparty.ratelimit.keys", buckets, Map::size)
+                    .description("Clients currently tracked by a rate-limit policy")
+                    .tags("scope", scope, "policy", policy.name())
+                    .register(registry);
+        }
+
+        private static Counter counter(MeterRegistry registry, String scope, RateLimitPolicy policy, String outcome) {
+            return Counter.builder("watchparty.ratelimit.requests")
+                    .description("Requests checked against a rate-limit policy")
+                    .tags("scope", scope, "policy", policy.name(), "outcome", outcome)
+                    .register(registry);
+        }
+    }
+
+    private final Lane[] lanes;
+    private final long tickNanos;
+    private final LongSupplier nanoClock;
+    private final List<Queue<Bucket>> wheel =
+            Stream.<Queue<Bucket>>generate(ConcurrentLinkedQueue::new).limit(WHEEL_SLOTS).toList();
+    private long expiredThroughTick = Long.MIN_VALUE;
+
+    public RateLimiter(List<RateLimitPolicy> policies, Duration expiryTick, MeterRegistry registry, String scope) {
+        this(policies, expiryTick, registry, scope, System::nanoTime);
+    }
+
+    RateLimiter(List<RateLimitPolicy> policies, Duration expiryTick, MeterRegistry registry, String scope,
+                LongSupplier nanoClock) {
+        this.lanes = policies.stream().map(policy -> new Lane(policy, registry, scope)).toArray(Lane[]::new);
+        this.tickNanos = Math.max(1, expiryTick.toNanos());
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Index of the first policy whose prefix matches, or -1 if none applies.
+     */
+    public int policyFor(String path) {
+        for (int i = 0; i < lanes.length; i++) {
+            if (path.startsWith(lanes[i].policy.pathPrefix())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public RateLimitPolicy policy(int index) {
+        return lanes[index].policy;
+    }
+
+    /**
+     * Admits or rejects one request from {@code key} (anything with value equality, e.g. an IP or
+     * a room id) under the given policy.
+     *
+     * @return {@link #ADMITTED}, or how many nanoseconds until the request would be admitted
+     */
+    public long acquire(int policyIndex, Object key) {
+        Lane lane = lanes[policyIndex];
+        long now = nanoClock.getAsLong();
+        Bucket bucket = lane.buckets.get(key);
+        if (bucket == null) {
+            bucket = lane.buckets.computeIfAbsent(key, k -> {
+                var created = new Bucket(k, lane, now);
+                schedule(created, now, now);
+                return created;
+            });
+        }
+        for (;;) {
+            long tat = bucket.tat;
+            long newTat = (tat - now > 0 ? tat : now) + lane.emissionNanos;
+            long wait = newTat - now - lane.periodNanos;
+            if (wait > 0) {
+                lane.rejected.increment();
+                return wait;
+            }
+            if (TAT.compareAndSet(bucket, tat, newTat)) {
+                lane.admitted.increment();
+                return ADMITTED;
+            }
+        }
+    }
+
+    /**
+     * Drops clients that have been idle long enough to have a full allowance again. Only the
+     * wheel slots that came due since the last call are visited.
+     */
+    public synchronized void expire() {
+        long now = nanoClock.getAsLong();
+        long nowTick = Math.floorDiv(now, tickNanos);
+        long from = expiredThroughTick == Long.MIN_VALUE
+                ? nowTick - WHEEL_SLOTS + 1
+                : Math.max(expiredThroughTick + 1, nowTick - WHEEL_SLOTS + 1);
+        for (long tick = from; tick <= nowTick; tick++) {
+            // Drained in place: acquire() may be adding to this very queue, and a swapped-out
+            // queue could lose that bucket. Only what was queued on entry is visited, so buckets
+            // rescheduled into the same slot (it is also nowTick + 1 after a full rotation) wait
+            Queue<Bucket> due = wheel.get(slot(tick));
+            for (int remaining = due.size(); remaining > 0; remaining--) {
+                Bucket bucket = due.poll();
+                if (bucket == null) {
+                    break;
+                }
+                long tat = bucket.tat;
+                if (tat - now <= 0) {
+                    bucket.lane.buckets.remove(bucket.key, bucket);
+                } else {
+                    schedule(bucket, tat, now);
+                }
+            }
+        }
+        expiredThroughTick = nowTick;
+    }
+
+    private void schedule(Bucket bucket, long idleAt, long now) {
+        // Never into the slot being drained right now, or the key would wait a full rotation
+        long tick = Math.max(Math.floorDiv(idleAt, tickNanos), Math.floorDiv(now, tickNanos) + 1);
+        wheel.get(slot(tick)).add(bucket);
+    }
+
+    private static int slot(long tick) {
+        return (int) Math.floorMod(tick, WHEEL_SLOTS);
+    }
+
+    int trackedKeys(int policyIndex) {
+        return lanes[policyIndex].buckets.size();
+    }
+}
@@ -0,0 +1,49 @@
+package com.watchparty.ratelimit;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@code websocket.rate-limit.*}: budgets for inbound STOMP frames, matched in order by destination
+ * prefix. {@code session} budgets apply to each WebSocket session, {@code room} budgets to all
+ * participants of a room together. Frames to {@code silent} destinations are dropped without an
+ * error, since their senders retry on their own schedule anyway. Unset values fall back to the
+ * defaults below.
+ */
+@ConfigurationProperties("websocket.rate-limit")
+public record StompRateLimitProperties(@Nullable List<RateLimitPolicy> session,
+                                       @Nullable List<RateLimitPolicy> room,
+                                       @Nullable Set<String> silent,
+                                       @Nullable Duration expiryTick) {
+
+    static final List<RateLimitPolicy> DEFAULT_SESSION_POLICIES = List.of(
+            new RateLimitPolicy("position-report", "/app/room.position.report", 5, Duration.ofSeconds(5)),
+            new RateLimitPolicy("time-ping", "/app/time.ping", 10, Duration.ofSeconds(10)),
+            new RateLimitPolicy("player", "/app/room.player", 10, Duration.ofSeconds(10)),
+            new RateLimitPolicy("playlist-bulk", "/app/room.playlist.add-bulk", 3, Duration.ofMinutes(1)),
+            new RateLimitPolicy("chat", "/app/room.chat", 10, Duration.ofSeconds(10)),
+            new RateLimitPolicy("webrtc", "/app/room.webrtc", 200, Duration.ofSeconds(10)),
+            new RateLimitPolicy("default", "/app/", 60, Duration.ofSeconds(10)));
+
+    static final List<RateLimitPolicy> DEFAULT_ROOM_POLICIES = List.of(
+            new RateLimitPolicy("player", "/app/room.player", 20, Duration.ofSeconds(10)),
+            new RateLimitPolicy("playlist", "/app/room.playlist", 60, Duration.ofMinutes(1)),
+            new RateLimitPolicy("chat", "/app/room.chat", 60, Duration.ofSeconds(10)));
+
+    static final Set<String> DEFAULT_SILENT = Set.of("/app/room.position.report", "/app/time.ping");
+
+    public StompRateLimitProperties {
+        session = session == null || session.isEmpty() ? DEFAULT_SESSION_POLICIES : List.copyOf(session);
+        room = room == null ? DEFAULT_ROOM_POLICIES : List.copyOf(room);
+        silent = silent == null ? DEFAULT_SILENT : Set.copyOf(silent);
+        expiryTick = expiryTick == null ? Duration.ofSeconds(1) : expiryTick;
+    }
+
+    public static StompRateLimitProperties defaults() {
+        return new StompRateLimitProperties(null, null, null, null);
+    }
+}
@@ -2,16 +2,23 @@ package com.watchparty.repository;
 
 import com.watchparty.entity.ChatMessage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, UUID> {
 
-    List<ChatMessage> findTop200ByRoomIdOrderBySentAtDesc(UUID roomId);
+    List<ChatMessage> findTop200ByRoomIdAndSentAtAfterOrderBySentAtDesc(UUID roomId, Instant after);
 
     long countByRoomIdAndNicknameAndSentAtAfter(UUID roomId, String nickname, Instant after);
 
     void deleteByRoomId(UUID roomId);
+
+    @Modifying
+    @Query("DELETE FROM ChatMessage m WHERE m.room.id IN :roomIds")
+    int deleteAllByRoomIdIn(Collection<UUID> roomIds);
 }
@@ -0,0 +1,9 @@
+package com.watchparty.repository;
+
+import com.watchparty.entity.ParticipantEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+public interface ParticipantEventRepository extends JpaRepository<ParticipantEvent, UUID> {
+}
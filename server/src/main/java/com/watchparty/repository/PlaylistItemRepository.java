@@ -2,7 +2,10 @@ package com.watchparty.repository;
 
 import com.watchparty.entity.PlaylistItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -15,6 +18,10 @@ public interface PlaylistItemRepository extends JpaRepository<PlaylistItem, UUID
 
     void deleteByRoomId(UUID roomId);
 
+    @Modifying
+    @Query("DELETE FROM PlaylistItem p WHERE p.room.id IN :roomIds")
+    int deleteAllByRoomIdIn(Collection<UUID> roomIds);
+
     int countByRoomId(UUID roomId);
 
     Optional<PlaylistItem> findFirstByRoomIdAndVideoUrlOrderByPositionDesc(UUID roomId, String videoUrl);
@@ -4,6 +4,7 @@ import com.watchparty.entity.RefreshToken;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.Optional;
@@ -17,9 +18,22 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID
     @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.familyId = :familyId")
     void revokeFamily(UUID familyId);
 
+    /**
+     * Marks a token spent, unless it already was.
+     *
+     * @return 1 if this call spent the token, 0 if it was already revoked or doesn't exist
+     */
     @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.expiresAt < :cutoff")
-    void deleteExpired(Instant cutoff);
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.tokenHash = :tokenHash AND rt.revoked = false")
+    int revokeToken(String tokenHash);
+
+    @Query("SELECT MIN(rt.expiresAt) FROM RefreshToken rt")
+    Instant findEarliestExpiry();
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshToken rt WHERE rt.expiresAt >= :from AND rt.expiresAt < :to")
+    int deleteExpiredBetween(Instant from, Instant to);
 
     void deleteByUserId(UUID userId);
 }
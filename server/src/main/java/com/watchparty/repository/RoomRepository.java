@@ -1,9 +1,13 @@
 package com.watchparty.repository;
 
 import com.watchparty.entity.Room;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,7 +20,18 @@ public interface RoomRepository extends JpaRepository<Room, UUID> {
 
     List<Room> findByOwnerId(UUID ownerId);
 
-    List<Room> findByExpiresAtBeforeAndIsPermanentFalse(Instant cutoff);
+    @Query("SELECT r.isPermanent FROM Room r WHERE r.id = :id")
+    Optional<Boolean> findPermanentById(UUID id);
+
+    @Query("SELECT r.id FROM Room r WHERE r.expiresAt < :cutoff AND r.isPermanent = false ORDER BY r.expiresAt")
+    List<UUID> findExpiredIds(Instant cutoff, Limit limit);
+
+    @Query("SELECT COUNT(r) FROM Room r WHERE r.expiresAt < :cutoff AND r.isPermanent = false")
+    long countExpired(Instant cutoff);
+
+    @Modifying
+    @Query("DELETE FROM Room r WHERE r.id IN :ids")
+    int deleteAllByIdIn(Collection<UUID> ids);
 
     void deleteByOwnerId(UUID ownerId);
 }
@@ -2,6 +2,8 @@ package com.watchparty.repository;
 
 import com.watchparty.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -10,4 +12,13 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
     boolean existsByEmailAndIdNot(String email, UUID id);
+
+    /**
+     * Swaps a user's password hash, but only if it is still {@code expectedHash}.
+     *
+     * @return 1 if the hash was replaced, 0 if it had changed in the meantime
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.passwordHash = :newHash WHERE u.id = :id AND u.passwordHash = :expectedHash")
+    int updatePasswordHash(UUID id, String expectedHash, String newHash);
 }
@@ -0,0 +1,38 @@
+package com.watchparty.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Admits only the accounts listed in {@code security.admin-user-ids}. Guards operational
+ * endpoints that expose room codes, which double as join credentials and must not be readable
+ * by any self-registered user. With no ids configured nobody is admitted.
+ */
+@Component
+public class AdminAccess implements AuthorizationManager<RequestAuthorizationContext> {
+
+    private final Set<UUID> adminUserIds;
+
+    public AdminAccess(@Value("${security.admin-user-ids:}") Set<UUID> adminUserIds) {
+        this.adminUserIds = Set.copyOf(adminUserIds);
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        return new AuthorizationDecision(isAdmin(authentication.get()));
+    }
+
+    boolean isAdmin(Authentication authentication) {
+        return authentication != null
+                && authentication.getPrincipal() instanceof AuthenticatedUser user
+                && adminUserIds.contains(user.userId());
+    }
+}
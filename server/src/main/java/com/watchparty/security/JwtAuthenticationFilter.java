@@ -20,6 +20,13 @@ import java.util.UUID;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    /**
+     * Seconds until the client should refresh the access token it authenticated with (see
+     * {@link JwtService#refreshInSeconds(Claims)}), so it can refresh ahead of expiry instead of
+     * waiting for a 401.
+     */
+    public static final String REFRESH_IN_HEADER = "X-Token-Refresh-In";
+
     private final JwtService jwtService;
 
     public JwtAuthenticationFilter(JwtService jwtService) {
@@ -40,6 +47,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     var principal = new AuthenticatedUser(userId, email);
                     var auth = new UsernamePasswordAuthenticationToken(principal, null, List.of());
                     SecurityContextHolder.getContext().setAuthentication(auth);
+                    response.setHeader(REFRESH_IN_HEADER, String.valueOf(jwtService.refreshInSeconds(claims)));
                 }
             } catch (JwtException ignored) {
                 // Invalid token – request proceeds unauthenticated
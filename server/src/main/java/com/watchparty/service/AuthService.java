@@ -7,56 +7,97 @@ import com.watchparty.dto.RegisterRequest;
 import com.watchparty.dto.UpdateProfileRequest;
 import com.watchparty.entity.RefreshToken;
 import com.watchparty.entity.User;
+import com.watchparty.exception.ServerBusyException;
 import com.watchparty.repository.RefreshTokenRepository;
 import com.watchparty.repository.RoomRepository;
 import com.watchparty.repository.UserRepository;
+import com.watchparty.security.PasswordHasher;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.HexFormat;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Supplier;
 
+/**
+ * Registration, login, token refresh and account management.
+ * <p>
+ * Password hashing can queue behind other requests on {@link PasswordHasher}'s pool, so the
+ * methods that hash never hold a transaction (and with it a pooled connection) while they wait:
+ * they read what they need, hash with no transaction open, then write in a short transaction of
+ * their own. Otherwise a burst of logins would drain the connection pool and stall room traffic.
+ */
 @Service
 public class AuthService {
 
     private static final Logger log = LoggerFactory.getLogger(AuthService.class);
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtService jwtService;
     private final RoomRepository roomRepository;
     private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenCache refreshTokenCache;
+    private final TransactionTemplate transactionTemplate;
     private final long refreshExpirationMs;
+    private final Duration cleanupSlice;
+    private final Counter refreshesRotated;
+    private final Counter refreshesReplayed;
+    private final Counter refreshesExpired;
+    private final Counter refreshesRejected;
 
     public AuthService(UserRepository userRepository,
-                       PasswordEncoder passwordEncoder,
+                       PasswordHasher passwordHasher,
                        JwtService jwtService,
                        RoomRepository roomRepository,
                        RefreshTokenRepository refreshTokenRepository,
-                       @Value("${jwt.refresh-expiration-ms}") long refreshExpirationMs) {
+                       RefreshTokenCache refreshTokenCache,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${jwt.refresh-expiration-ms}") long refreshExpirationMs,
+                       @Value("${jwt.refresh-cache.slice-ms:3600000}") long cleanupSliceMs) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.jwtService = jwtService;
         this.roomRepository = roomRepository;
         this.refreshTokenRepository = refreshTokenRepository;
+        this.refreshTokenCache = refreshTokenCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.refreshExpirationMs = refreshExpirationMs;
+        this.cleanupSlice = Duration.ofMillis(cleanupSliceMs);
+        this.refreshesRotated = refreshCounter(meterRegistry, "rotated");
+        this.refreshesReplayed = refreshCounter(meterRegistry, "replayed");
+        this.refreshesExpired = refreshCounter(meterRegistry, "expired");
+        this.refreshesRejected = refreshCounter(meterRegistry, "rejected");
+    }
+
+    private static Counter refreshCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("watchparty.auth.refreshes")
+                .description("Refresh token rotations by outcome")
+                .tag("outcome", outcome)
+                .register(registry);
     }
 
-    @Transactional
     public AuthResponse register(RegisterRequest request) {
         if (userRepository.existsByEmail(request.email())) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Email already registered");
@@ -64,59 +105,132 @@ public class AuthService {
         User user = new User();
         user.setEmail(request.email());
         user.setDisplayName(request.displayName());
-        user.setPasswordHash(passwordEncoder.encode(request.password()));
-        userRepository.save(user);
-        return buildAuthResponse(user, UUID.randomUUID());
+        user.setPasswordHash(passwordHasher.encode(request.password()));
+        return inTransaction(() -> {
+            userRepository.save(user);
+            return buildAuthResponse(user, UUID.randomUUID());
+        });
     }
 
-    @Transactional
     public AuthResponse login(LoginRequest request) {
         User user = userRepository.findByEmail(request.email())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials"));
-        if (!passwordEncoder.matches(request.password(), user.getPasswordHash())) {
+        String storedHash = user.getPasswordHash();
+        if (!passwordHasher.matches(request.password(), storedHash)) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials");
         }
-        return buildAuthResponse(user, UUID.randomUUID());
+        // The plaintext is only available here, so this is where hashes catch up with a raised cost
+        String upgradedHash = null;
+        if (passwordHasher.needsRehash(storedHash)) {
+            try {
+                upgradedHash = passwordHasher.encode(request.password());
+            } catch (ServerBusyException e) {
+                log.debug("Skipping password rehash for user {} while hashing is saturated", user.getId());
+            }
+        }
+        String rehashed = upgradedHash;
+        return inTransaction(() -> {
+            if (rehashed != null) {
+                // Only replaces the hash that was verified, not one a concurrent password change wrote
+                userRepository.updatePasswordHash(user.getId(), storedHash, rehashed);
+            }
+            return buildAuthResponse(user, UUID.randomUUID());
+        });
     }
 
-    @Transactional
+    /**
+     * Rotates a refresh token. Live families and their users are served from
+     * {@link RefreshTokenCache}, so a refresh normally costs one conditional update of the spent
+     * token and one insert of its successor. The conditional update also catches a token that
+     * was spent behind the cache's back, so the database still decides what counts as a replay.
+     */
+    @Transactional(noRollbackFor = ResponseStatusException.class)
     public AuthResponse refresh(String refreshToken) {
         try {
             Claims claims = jwtService.parseToken(refreshToken);
             if (!jwtService.isRefreshToken(claims)) {
+                refreshesRejected.increment();
                 throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid token type");
             }
 
             String tokenHash = hashToken(refreshToken);
-            RefreshToken storedToken = refreshTokenRepository.findByTokenHash(tokenHash)
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token not found"));
-
-            if (storedToken.isRevoked()) {
-                // Replay detected: revoke the entire token family
-                log.warn("Refresh token replay detected for user {} (family {}). Revoking entire family.",
-                        storedToken.getUserId(), storedToken.getFamilyId());
-                refreshTokenRepository.revokeFamily(storedToken.getFamilyId());
-                throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token has been revoked");
+            Instant now = Instant.now();
+            var lookup = refreshTokenCache.claim(tokenHash, now);
+            if (lookup.state() == RefreshTokenCache.State.UNKNOWN) {
+                lookup = loadToken(tokenHash, now);
             }
-
-            if (storedToken.getExpiresAt().isBefore(Instant.now())) {
-                throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token expired");
+            switch (lookup.state()) {
+                case SPENT, REVOKED -> throw replayDetected(lookup.userId(), lookup.familyId());
+                case EXPIRED -> {
+                    refreshesExpired.increment();
+                    throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token expired");
+                }
+                default -> { }
             }
 
-            // Revoke the used token
-            storedToken.setRevoked(true);
-            refreshTokenRepository.save(storedToken);
+            UUID familyId = lookup.familyId();
+            // If this transaction doesn't commit, the claim made above never happened in the database
+            evictFamilyOnRollback(familyId);
+            if (refreshTokenRepository.revokeToken(tokenHash) == 0) {
+                throw replayDetected(lookup.userId(), familyId);
+            }
 
-            User user = userRepository.findById(Objects.requireNonNull(UUID.fromString(claims.getSubject())))
+            refreshesRotated.increment();
+            UUID userId = Objects.requireNonNull(UUID.fromString(claims.getSubject()));
+            RefreshTokenCache.CachedUser cachedUser = refreshTokenCache.user(userId);
+            if (cachedUser != null) {
+                return buildAuthResponse(cachedUser, familyId);
+            }
+            User user = userRepository.findById(userId)
                     .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
 
             // Issue new tokens in the same family
-            return buildAuthResponse(user, storedToken.getFamilyId());
+            return buildAuthResponse(user, familyId);
         } catch (JwtException e) {
+            refreshesRejected.increment();
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid or expired refresh token");
         }
     }
 
+    private RefreshTokenCache.Lookup loadToken(String tokenHash, Instant now) {
+        RefreshToken storedToken = refreshTokenRepository.findByTokenHash(tokenHash).orElse(null);
+        if (storedToken == null) {
+            refreshesRejected.increment();
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token not found");
+        }
+        RefreshTokenCache.State state;
+        if (storedToken.isRevoked()) {
+            state = RefreshTokenCache.State.REVOKED;
+        } else if (storedToken.getExpiresAt().isBefore(now)) {
+            state = RefreshTokenCache.State.EXPIRED;
+        } else {
+            state = RefreshTokenCache.State.ACTIVE;
+        }
+        return new RefreshTokenCache.Lookup(state, storedToken.getFamilyId(), storedToken.getUserId());
+    }
+
+    private ResponseStatusException replayDetected(UUID userId, UUID familyId) {
+        // Replay detected: revoke the entire token family
+        refreshesReplayed.increment();
+        log.warn("Refresh token replay detected for user {} (family {}). Revoking entire family.", userId, familyId);
+        refreshTokenRepository.revokeFamily(familyId);
+        refreshTokenCache.revokeFamily(familyId);
+        return new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token has been revoked");
+    }
+
+    private void evictFamilyOnRollback(UUID familyId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        refreshTokenCache.evictFamily(familyId);
+                    }
+                }
+            });
+        }
+    }
+
     public AuthResponse updateProfile(UUID userId, UpdateProfileRequest request) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
@@ -136,56 +250,103 @@ public class AuthService {
     public void changePassword(UUID userId, ChangePasswordRequest request) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
-        if (!passwordEncoder.matches(request.currentPassword(), user.getPasswordHash())) {
+        if (!passwordHasher.matches(request.currentPassword(), user.getPasswordHash())) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Current password is incorrect");
         }
-        user.setPasswordHash(passwordEncoder.encode(request.newPassword()));
+        user.setPasswordHash(passwordHasher.encode(request.newPassword()));
         userRepository.save(user);
     }
 
-    @Transactional
     public void deleteAccount(UUID userId, String password) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
-        if (!passwordEncoder.matches(password, user.getPasswordHash())) {
+        if (!passwordHasher.matches(password, user.getPasswordHash())) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Password is incorrect");
         }
-        refreshTokenRepository.deleteByUserId(userId);
-        roomRepository.deleteByOwnerId(userId);
-        userRepository.delete(user);
+        inTransaction(() -> {
+            refreshTokenRepository.deleteByUserId(userId);
+            roomRepository.deleteByOwnerId(userId);
+            userRepository.delete(user);
+            return null;
+        });
+        refreshTokenCache.evictUser(userId);
     }
 
     /**
-     * Cleans up expired refresh tokens every hour.
+     * Cleans up expired refresh tokens every hour, one expiry slice at a time: each slice is
+     * deleted in its own short transaction, so a backlog of expired tokens never turns into one
+     * long delete holding locks on the table that refreshes write to.
      */
     @Scheduled(fixedRate = 3_600_000)
-    @Transactional
     public void cleanupExpiredTokens() {
-        refreshTokenRepository.deleteExpired(Instant.now());
+        Instant now = Instant.now();
+        refreshTokenCache.evictExpired(now);
+        Instant earliest = refreshTokenRepository.findEarliestExpiry();
+        if (earliest == null) {
+            return;
+        }
+        int deleted = 0;
+        for (Instant from = earliest; from.isBefore(now); ) {
+            Instant to = from.plus(cleanupSlice);
+            if (to.isAfter(now)) {
+                to = now;
+            }
+            deleted += refreshTokenRepository.deleteExpiredBetween(from, to);
+            from = to;
+        }
+        if (deleted > 0) {
+            log.info("Cleaned up {} expired refresh token(s)", deleted);
+        }
     }
 
     private AuthResponse buildAuthResponse(User user, UUID familyId) {
-        String accessToken = jwtService.generateAccessToken(user.getId(), user.getEmail());
-        String refreshToken = jwtService.generateRefreshToken(user.getId(), user.getEmail());
+        refreshTokenCache.putUser(user);
+        return buildAuthResponse(RefreshTokenCache.CachedUser.of(user), familyId);
+    }
 
-        // Store hashed refresh token for rotation/revocation
+    private AuthResponse buildAuthResponse(RefreshTokenCache.CachedUser user, UUID familyId) {
+        String accessToken = jwtService.generateAccessToken(user.id(), user.email(), user.displayName());
+        String refreshToken = jwtService.generateRefreshToken(user.id(), user.email());
+
+        // Store hashed refresh token for rotation/revocation, and cache it once that has committed
+        String tokenHash = hashToken(refreshToken);
+        Instant expiresAt = Instant.now().plusMillis(refreshExpirationMs);
         var storedToken = new RefreshToken();
-        storedToken.setTokenHash(hashToken(refreshToken));
-        storedToken.setUserId(user.getId());
+        storedToken.setTokenHash(tokenHash);
+        storedToken.setUserId(user.id());
         storedToken.setFamilyId(familyId);
-        storedToken.setExpiresAt(Instant.now().plusMillis(refreshExpirationMs));
+        storedToken.setExpiresAt(expiresAt);
         storedToken.setRevoked(false);
         refreshTokenRepository.save(storedToken);
+        afterCommit(() -> refreshTokenCache.issue(familyId, user.id(), tokenHash, expiresAt));
 
         return new AuthResponse(
                 accessToken,
                 refreshToken,
-                user.getId(),
-                user.getEmail(),
-                user.getDisplayName()
+                user.id(),
+                user.email(),
+                user.displayName(),
+                jwtService.refreshInSeconds(accessToken)
         );
     }
 
+    private <T> T inTransaction(Supplier<T> work) {
+        return transactionTemplate.execute(status -> work.get());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
     private static String hashToken(String token) {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
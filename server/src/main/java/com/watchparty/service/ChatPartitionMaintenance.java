@@ -0,0 +1,175 @@
+package com.watchparty.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps {@code chat_messages} within {@link ChatRetention#longest()}.
+ * <p>
+ * On PostgreSQL the table is range-partitioned by {@code sent_at} (see {@code V12}). Partitions of
+ * {@code chat.partition.width} are created {@code chat.partition.ahead} widths in advance, so
+ * inserts never land in the default partition, and expiry drops whole partitions once their upper
+ * bound is older than the longest retention: no row deletes, no vacuum debt. Partition names carry
+ * their bounds ({@code chat_messages_p<from>_<to>}, dates in UTC), so no catalog parsing is needed.
+ * <p>
+ * H2 (standalone mode) has no declarative partitioning; there expired rows are deleted in chunks,
+ * per room type.
+ */
+@Service
+public class ChatPartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatPartitionMaintenance.class);
+
+    private static final String PARTITION_PREFIX = "chat_messages_p";
+    private static final Pattern PARTITION_NAME = Pattern.compile(PARTITION_PREFIX + "(\\d{8})_(\\d{8})");
+    private static final DateTimeFormatter PARTITION_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private record Partition(String name, LocalDate from, LocalDate to) {}
+
+    private final JdbcTemplate jdbc;
+    private final ChatRetention retention;
+    private final Duration width;
+    private final int ahead;
+    private final int deleteBatchSize;
+    private final Counter partitionsCreated;
+    private final Counter partitionsDropped;
+    private final Counter rowsDeleted;
+    private final AtomicInteger partitionCount = new AtomicInteger();
+    private volatile Boolean partitioned;
+
+    public ChatPartitionMaintenance(JdbcTemplate jdbc,
+                                    ChatRetention retention,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${chat.partition.width:7d}") Duration width,
+                                    @Value("${chat.partition.ahead:2}") int ahead,
+                                    @Value("${chat.partition.delete-batch-size:1000}") int deleteBatchSize) {
+        this.jdbc = jdbc;
+        this.retention = retention;
+        this.width = width.toDays() < 1 ? Duration.ofDays(1) : width;
+        this.ahead = Math.max(1, ahead);
+        this.deleteBatchSize = deleteBatchSize;
+        this.partitionsCreated = retentionCounter(meterRegistry, "partitions_created");
+        this.partitionsDropped = retentionCounter(meterRegistry, "partitions_dropped");
+        this.rowsDeleted = retentionCounter(meterRegistry, "rows_deleted");
+        meterRegistry.gauge("watchparty.chat.partitions", partitionCount);
+    }
+
+    private static Counter retentionCounter(MeterRegistry registry, String action) {
+        return Counter.builder("watchparty.chat.retention")
+                .description("Chat storage maintenance actions")
+                .tag("action", action)
+                .register(registry);
+    }
+
+    @Scheduled(fixedRateString = "${chat.partition.maintenance-interval:1h}")
+    public void maintain() {
+        Instant now = Instant.now();
+        try {
+            if (isPartitioned()) {
+                List<Partition> partitions = partitions();
+                createAhead(partitions, now);
+                dropExpired(partitions, now);
+                partitionCount.set(partitions().size());
+            } else {
+                deleteExpiredRows(now);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Chat storage maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    private boolean isPartitioned() {
+        Boolean result = partitioned;
+        if (result == null) {
+            String product = jdbc.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            result = "PostgreSQL".equals(product) && Objects.requireNonNullElse(jdbc.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'chat_messages'::regclass)",
+                    Boolean.class), false);
+            partitioned = result;
+        }
+        return result;
+    }
+
+    private List<Partition> partitions() {
+        List<Partition> partitions = new ArrayList<>();
+        for (String name : jdbc.queryForList("""
+                SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'chat_messages'::regclass""", String.class)) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (matcher.matches()) {
+                partitions.add(new Partition(name, LocalDate.parse(matcher.group(1), PARTITION_DATE),
+                        LocalDate.parse(matcher.group(2), PARTITION_DATE)));
+            }
+        }
+        partitions.sort(Comparator.comparing(Partition::to));
+        return partitions;
+    }
+
+    private void createAhead(List<Partition> partitions, Instant now) {
+        LocalDate today = LocalDate.ofInstant(now, ZoneOffset.UTC);
+        LocalDate horizon = today.plusDays(width.toDays() * ahead);
+        LocalDate from = partitions.isEmpty() ? today : partitions.getLast().to();
+        if (from.isBefore(today)) {
+            from = today;
+        }
+        while (from.isBefore(horizon)) {
+            LocalDate to = from.plusDays(width.toDays());
+            String name = PARTITION_PREFIX + PARTITION_DATE.format(from) + "_" + PARTITION_DATE.format(to);
+            jdbc.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF chat_messages FOR VALUES FROM ('"
+                    + from + "') TO ('" + to + "')");
+            partitionsCreated.increment();
+            log.info("Created chat partition {}", name);
+            from = to;
+        }
+    }
+
+    private void dropExpired(List<Partition> partitions, Instant now) {
+        LocalDate cutoff = LocalDate.ofInstant(now.minus(retention.longest()), ZoneOffset.UTC);
+        for (Partition partition : partitions) {
+            if (partition.to().isAfter(cutoff)) {
+                break;
+            }
+            jdbc.execute("ALTER TABLE chat_messages DETACH PARTITION " + partition.name());
+            jdbc.execute("DROP TABLE " + partition.name());
+            partitionsDropped.increment();
+            log.info("Dropped expired chat partition {}", partition.name());
+        }
+    }
+
+    private void deleteExpiredRows(Instant now) {
+        for (boolean permanent : new boolean[] {true, false}) {
+            Timestamp cutoff = Timestamp.from(now.minus(retention.forRoom(permanent)));
+            int deleted;
+            do {
+                deleted = jdbc.update("""
+                        DELETE FROM chat_messages WHERE id IN (
+                            SELECT m.id FROM chat_messages m JOIN rooms r ON r.id = m.room_id
+                            WHERE r.is_permanent = ? AND m.sent_at < ? LIMIT ?)""",
+                        permanent, cutoff, deleteBatchSize);
+                rowsDeleted.increment(deleted);
+            } while (deleted == deleteBatchSize);
+        }
+    }
+}
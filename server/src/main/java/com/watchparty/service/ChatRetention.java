@@ -0,0 +1,32 @@
+package com.watchparty.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * How long chat history is kept, per room type. Messages past their room's retention are no
+ * longer served, and are physically removed once the longest retention has passed them too
+ * (see {@link ChatPartitionMaintenance}).
+ */
+@Component
+public class ChatRetention {
+
+    private final Duration permanentRooms;
+    private final Duration anonymousRooms;
+
+    public ChatRetention(@Value("${chat.retention.permanent-rooms:90d}") Duration permanentRooms,
+                         @Value("${chat.retention.anonymous-rooms:2d}") Duration anonymousRooms) {
+        this.permanentRooms = permanentRooms;
+        this.anonymousRooms = anonymousRooms;
+    }
+
+    public Duration forRoom(boolean permanent) {
+        return permanent ? permanentRooms : anonymousRooms;
+    }
+
+    public Duration longest() {
+        return permanentRooms.compareTo(anonymousRooms) >= 0 ? permanentRooms : anonymousRooms;
+    }
+}
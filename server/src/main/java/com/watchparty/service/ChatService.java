@@ -25,10 +25,13 @@ public class ChatService {
 
     private final ChatMessageRepository chatMessageRepository;
     private final RoomRepository roomRepository;
+    private final ChatRetention retention;
 
-    public ChatService(ChatMessageRepository chatMessageRepository, RoomRepository roomRepository) {
+    public ChatService(ChatMessageRepository chatMessageRepository, RoomRepository roomRepository,
+                       ChatRetention retention) {
         this.chatMessageRepository = chatMessageRepository;
         this.roomRepository = roomRepository;
+        this.retention = retention;
     }
 
     @Transactional
@@ -69,10 +72,16 @@ public class ChatService {
         return toResponse(message);
     }
 
+    /**
+     * The latest messages still within the room's retention. The lower bound on {@code sent_at}
+     * also lets PostgreSQL skip every partition older than that.
+     */
     @Transactional(readOnly = true)
     @NonNull
     public List<ChatMessageResponse> getChatHistory(UUID roomId) {
-        List<ChatMessage> messages = chatMessageRepository.findTop200ByRoomIdOrderBySentAtDesc(roomId);
+        boolean permanent = roomRepository.findPermanentById(Objects.requireNonNull(roomId)).orElse(false);
+        Instant since = Instant.now().minus(retention.forRoom(permanent));
+        List<ChatMessage> messages = chatMessageRepository.findTop200ByRoomIdAndSentAtAfterOrderBySentAtDesc(roomId, since);
         return Objects.requireNonNull(messages.reversed().stream()
                 .map(this::toResponse)
                 .toList());
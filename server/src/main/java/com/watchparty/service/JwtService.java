@@ -3,35 +3,77 @@ package com.watchparty.service;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Issues and verifies JWTs.
+ * <p>
+ * Every authenticated HTTP request and STOMP CONNECT presents the same access token many times
+ * over its lifetime, so verified tokens are remembered: later presentations skip the HMAC check and
+ * claim parsing until the token's {@code exp}. Entries are keyed by the token's SHA-256 so the
+ * cache never holds usable credentials. The cache is bounded by {@code jwt.verified-cache.max-entries};
+ * when full, expired entries are purged (at most once per second, as a purge scans the whole cache)
+ * and, if that frees nothing, new tokens are simply verified without being cached.
+ * <p>
+ * Access token lifetimes are jittered downwards by up to {@code jwt.expiration-jitter} of
+ * {@code jwt.expiration-ms}, so users who signed in together (e.g. right after a deploy) don't all
+ * come back to refresh in the same second. Clients are told when to refresh via
+ * {@link #refreshInSeconds(String)}, once {@code jwt.refresh-hint.lead} of a token's lifetime is left.
+ */
 @Service
 public class JwtService {
 
+    private record Verified(Claims claims, long expiresAtMillis) {}
+
     private static final Logger log = LoggerFactory.getLogger(JwtService.class);
     private static final int MINIMUM_SECRET_BYTES = 32;
+    private static final String NAME_CLAIM = "name";
+    private static final long PURGE_INTERVAL_MS = 1_000;
 
     private final String rawSecret;
     private final SecretKey signingKey;
     private final long accessExpirationMs;
+    private final double accessExpirationJitter;
+    private final double refreshHintLead;
     private final long refreshExpirationMs;
+    private final JwtParser parser;
+    private final int verifiedCacheMaxEntries;
+    private final Map<ByteBuffer, Verified> verified = new ConcurrentHashMap<>();
+    private final AtomicLong lastPurgeMillis = new AtomicLong();
 
     public JwtService(
             @Value("${jwt.secret}") String secret,
             @Value("${jwt.expiration-ms}") long accessExpirationMs,
-            @Value("${jwt.refresh-expiration-ms}") long refreshExpirationMs) {
+            @Value("${jwt.refresh-expiration-ms}") long refreshExpirationMs,
+            @Value("${jwt.verified-cache.max-entries:10000}") int verifiedCacheMaxEntries,
+            @Value("${jwt.expiration-jitter:0.1}") double accessExpirationJitter,
+            @Value("${jwt.refresh-hint.lead:0.2}") double refreshHintLead) {
         this.rawSecret = secret;
         this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.accessExpirationMs = accessExpirationMs;
+        this.accessExpirationJitter = Math.clamp(accessExpirationJitter, 0.0, 1.0);
+        this.refreshHintLead = Math.clamp(refreshHintLead, 0.0, 1.0);
         this.refreshExpirationMs = refreshExpirationMs;
+        // JwtParser is immutable and thread-safe, so one instance serves every request
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.verifiedCacheMaxEntries = verifiedCacheMaxEntries;
     }
 
     @PostConstruct
@@ -50,20 +92,92 @@ public class JwtService {
         log.info("JWT secret validated ({} bytes)", secretBytes.length);
     }
 
-    public String generateAccessToken(UUID userId, String email) {
-        return buildToken(userId.toString(), email, accessExpirationMs, "access");
+    /**
+     * Access tokens also carry the display name so that WebSocket joins can label the
+     * participant without a user lookup.
+     */
+    public String generateAccessToken(UUID userId, String email, String displayName) {
+        long jitterMs = (long) (ThreadLocalRandom.current().nextDouble() * accessExpirationJitter * accessExpirationMs);
+        return buildToken(userId.toString(), email, displayName, accessExpirationMs - jitterMs, "access");
+    }
+
+    /**
+     * Seconds until the holder of an access token should refresh it, or 0 if that is already due
+     * (including when the token is invalid).
+     */
+    public long refreshInSeconds(String accessToken) {
+        try {
+            return refreshInSeconds(parseToken(accessToken));
+        } catch (JwtException e) {
+            return 0;
+        }
+    }
+
+    public long refreshInSeconds(Claims claims) {
+        return Math.max(0, TimeUnit.MILLISECONDS.toSeconds(refreshAtMillis(claims) - System.currentTimeMillis()));
+    }
+
+    /**
+     * When (epoch millis) the holder of a token should refresh it; 0 for tokens without a lifetime.
+     */
+    public long refreshAtMillis(Claims claims) {
+        Date issuedAt = claims.getIssuedAt();
+        Date expiration = claims.getExpiration();
+        if (issuedAt == null || expiration == null) {
+            return 0;
+        }
+        long lifetimeMs = expiration.getTime() - issuedAt.getTime();
+        return expiration.getTime() - (long) (lifetimeMs * refreshHintLead);
     }
 
     public String generateRefreshToken(UUID userId, String email) {
-        return buildToken(userId.toString(), email, refreshExpirationMs, "refresh");
+        return buildToken(userId.toString(), email, null, refreshExpirationMs, "refresh");
     }
 
+    /**
+     * Verifies a token and returns its claims.
+     *
+     * @throws JwtException if the token is malformed, forged or expired
+     */
     public Claims parseToken(String token) {
-        return Jwts.parser()
-                .verifyWith(signingKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        ByteBuffer key = ByteBuffer.wrap(sha256(token));
+        long now = System.currentTimeMillis();
+        Verified cached = verified.get(key);
+        if (cached != null) {
+            if (now < cached.expiresAtMillis()) {
+                return cached.claims();
+            }
+            verified.remove(key, cached);
+        }
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        Date expiration = claims.getExpiration();
+        if (expiration != null && (verified.size() < verifiedCacheMaxEntries || purgeExpired(now))) {
+            verified.put(key, new Verified(claims, expiration.getTime()));
+        }
+        return claims;
+    }
+
+    private boolean purgeExpired(long now) {
+        long last = lastPurgeMillis.get();
+        // A full cache of live tokens would otherwise be rescanned by every uncached verification
+        if (now - last < PURGE_INTERVAL_MS || !lastPurgeMillis.compareAndSet(last, now)) {
+            return false;
+        }
+        verified.values().removeIf(entry -> now >= entry.expiresAtMillis());
+        return verified.size() < verifiedCacheMaxEntries;
+    }
+
+    int cachedTokens() {
+        return verified.size();
+    }
+
+    private static byte[] sha256(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
     public boolean isAccessToken(Claims claims) {
@@ -74,12 +188,25 @@ public class JwtService {
         return "refresh".equals(claims.get("type", String.class));
     }
 
-    private String buildToken(String subject, String email, long expirationMs, String type) {
+    /**
+     * Returns the display name claim, absent on refresh tokens and on access tokens
+     * issued before the claim was introduced.
+     */
+    public @Nullable String getDisplayName(Claims claims) {
+        return claims.get(NAME_CLAIM, String.class);
+    }
+
+    private String buildToken(String subject, String email, @Nullable String displayName,
+                              long expirationMs, String type) {
         long now = System.currentTimeMillis();
-        return Jwts.builder()
+        var builder = Jwts.builder()
                 .subject(subject)
                 .claim("email", email)
-                .claim("type", type)
+                .claim("type", type);
+        if (displayName != null) {
+            builder.claim(NAME_CLAIM, displayName);
+        }
+        return builder
                 .issuedAt(new Date(now))
                 .expiration(new Date(now + expirationMs))
                 .signWith(signingKey)
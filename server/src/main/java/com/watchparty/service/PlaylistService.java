@@ -9,8 +9,11 @@ import com.watchparty.repository.RoomRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -23,12 +26,14 @@ public class PlaylistService {
     private final PlaylistItemRepository playlistItemRepository;
     private final RoomRepository roomRepository;
     private final YouTubeService youTubeService;
+    private final TransactionTemplate transactionTemplate;
 
     public PlaylistService(PlaylistItemRepository playlistItemRepository, RoomRepository roomRepository,
-                           YouTubeService youTubeService) {
+                           YouTubeService youTubeService, PlatformTransactionManager transactionManager) {
         this.playlistItemRepository = playlistItemRepository;
         this.roomRepository = roomRepository;
         this.youTubeService = youTubeService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Transactional
@@ -41,20 +46,41 @@ public class PlaylistService {
 
         int nextPosition = playlistItemRepository.countByRoomId(roomId) + 1;
 
-        PlaylistItem item = new PlaylistItem();
+        PlaylistItem item = newItem(videoUrl, addedBy);
         item.setRoom(room);
-        item.setVideoUrl(videoUrl);
-        item.setAddedBy(addedBy);
         item.setPosition(nextPosition);
+        return toResponse(playlistItemRepository.save(item));
+    }
 
-        youTubeService.fetchMetadata(videoUrl).ifPresent(metadata -> {
-            item.setTitle(metadata.title());
-            item.setThumbnailUrl(metadata.thumbnailUrl());
-            item.setDurationSeconds(metadata.durationSeconds());
-        });
+    /**
+     * Appends several videos with one room lookup and one position count, and saves them
+     * together so the inserts can go out as a JDBC batch. Their metadata is fetched from
+     * YouTube before the transaction starts, so no connection is held while waiting on it.
+     */
+    public List<PlaylistItemResponse> addItems(UUID roomId, List<String> videoUrls, String addedBy) {
+        Objects.requireNonNull(roomId, "roomId must not be null");
+        Objects.requireNonNull(addedBy, "addedBy must not be null");
+
+        List<PlaylistItem> items = new ArrayList<>(videoUrls.size());
+        for (String videoUrl : videoUrls) {
+            Objects.requireNonNull(videoUrl, "videoUrl must not be null");
+            items.add(newItem(videoUrl, addedBy));
+        }
+
+        return transactionTemplate.execute(status -> {
+            Room room = roomRepository.findById(roomId)
+                    .orElseThrow(() -> new EntityNotFoundException("Room not found: " + roomId));
 
-        PlaylistItem saved = playlistItemRepository.save(item);
-        return toResponse(saved);
+            int nextPosition = playlistItemRepository.countByRoomId(roomId) + 1;
+            for (PlaylistItem item : items) {
+                item.setRoom(room);
+                item.setPosition(nextPosition++);
+            }
+
+            return playlistItemRepository.saveAll(items).stream()
+                    .map(this::toResponse)
+                    .toList();
+        });
     }
 
     @Transactional
@@ -125,6 +151,19 @@ public class PlaylistService {
         playlistItemRepository.saveAll(items);
     }
 
+    private PlaylistItem newItem(String videoUrl, String addedBy) {
+        PlaylistItem item = new PlaylistItem();
+        item.setVideoUrl(videoUrl);
+        item.setAddedBy(addedBy);
+
+        youTubeService.fetchMetadata(videoUrl).ifPresent(metadata -> {
+            item.setTitle(metadata.title());
+            item.setThumbnailUrl(metadata.thumbnailUrl());
+            item.setDurationSeconds(metadata.durationSeconds());
+        });
+        return item;
+    }
+
     private PlaylistItemResponse toResponse(PlaylistItem item) {
         return new PlaylistItemResponse(
                 item.getId(),
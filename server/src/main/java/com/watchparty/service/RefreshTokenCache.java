@@ -0,0 +1,218 @@
+package com.watchparty.service;
+
+import com.watchparty.entity.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory mirror of live refresh-token families and the users they belong to, so that a
+ * refresh normally needs no reads at all.
+ * <p>
+ * Only each family's current (active) token hash is kept: a hash is dropped as soon as it is
+ * claimed or superseded, so the cache holds one entry per live family no matter how often it
+ * rotates. A spent hash presented again is therefore unknown here and looked up in the database,
+ * which stays authoritative and reports it as revoked. Callers write through to the database and
+ * only then update this cache. Families are indexed by user and by the time slice their token
+ * expires in, so evicting a user or the expired families never scans every entry.
+ */
+@Component
+public class RefreshTokenCache {
+
+    public record CachedUser(UUID id, String email, String displayName) {
+        static CachedUser of(User user) {
+            return new CachedUser(user.getId(), user.getEmail(), user.getDisplayName());
+        }
+    }
+
+    public enum State { UNKNOWN, ACTIVE, SPENT, REVOKED, EXPIRED }
+
+    /**
+     * What a presented hash turned out to be. {@code familyId} and {@code userId} are null when unknown.
+     */
+    public record Lookup(State state, UUID familyId, UUID userId) {}
+
+    private static final Lookup UNKNOWN = new Lookup(State.UNKNOWN, null, null);
+
+    private static final class Family {
+        final UUID id;
+        final UUID userId;
+        String activeHash;
+        Instant expiresAt;
+        boolean revoked;
+
+        Family(UUID id, UUID userId) {
+            this.id = id;
+            this.userId = userId;
+        }
+    }
+
+    private final Map<String, Family> familiesByHash = new ConcurrentHashMap<>();
+    private final Map<UUID, Family> families = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<Family>> familiesByUser = new ConcurrentHashMap<>();
+    private final Map<UUID, CachedUser> users = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, Set<Family>> familiesBySlice = new ConcurrentSkipListMap<>();
+    private final long sliceMs;
+    private final int maxEntries;
+
+    public RefreshTokenCache(@Value("${jwt.refresh-cache.slice-ms:3600000}") long sliceMs,
+                             @Value("${jwt.refresh-cache.max-entries:100000}") int maxEntries) {
+        this.sliceMs = sliceMs;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Looks up a token hash and, if it is its family's active token, marks it spent, so that of
+     * several concurrent refreshes with the same token only one sees {@link State#ACTIVE}.
+     */
+    public Lookup claim(String tokenHash, Instant now) {
+        Family family = familiesByHash.get(tokenHash);
+        if (family == null) {
+            return UNKNOWN;
+        }
+        synchronized (family) {
+            State state;
+            if (family.revoked) {
+                state = State.REVOKED;
+            } else if (!tokenHash.equals(family.activeHash)) {
+                state = State.SPENT;
+            } else if (family.expiresAt.isBefore(now)) {
+                state = State.EXPIRED;
+            } else {
+                family.activeHash = null;
+                familiesByHash.remove(tokenHash, family);
+                state = State.ACTIVE;
+            }
+            return new Lookup(state, family.id, family.userId);
+        }
+    }
+
+    /**
+     * Records a newly persisted token as its family's active one, replacing the previous one.
+     * New families are skipped once the cache holds {@code max-entries}; their tokens are simply
+     * looked up in the database when they are used.
+     */
+    public void issue(UUID familyId, UUID userId, String tokenHash, Instant expiresAt) {
+        if (!families.containsKey(familyId) && families.size() >= maxEntries) {
+            return;
+        }
+        Family family = families.computeIfAbsent(familyId, id -> new Family(id, userId));
+        familiesByUser.compute(userId, (id, owned) -> {
+            Set<Family> updated = owned != null ? owned : ConcurrentHashMap.newKeySet();
+            updated.add(family);
+            return updated;
+        });
+        synchronized (family) {
+            unindex(family);
+            family.activeHash = tokenHash;
+            family.expiresAt = expiresAt;
+            familiesByHash.put(tokenHash, family);
+            familiesBySlice.computeIfAbsent(slice(expiresAt), s -> ConcurrentHashMap.newKeySet()).add(family);
+        }
+    }
+
+    public void revokeFamily(UUID familyId) {
+        Family family = families.get(familyId);
+        if (family != null) {
+            synchronized (family) {
+                family.revoked = true;
+            }
+        }
+    }
+
+    /**
+     * Forgets a family, so its tokens are looked up in the database again, e.g. after a
+     * rotation of it failed to commit.
+     */
+    public void evictFamily(UUID familyId) {
+        Family family = families.get(familyId);
+        if (family != null) {
+            forget(family);
+        }
+    }
+
+    public CachedUser user(UUID userId) {
+        return users.get(userId);
+    }
+
+    public void putUser(User user) {
+        users.put(user.getId(), CachedUser.of(user));
+    }
+
+    /**
+     * Forgets a user and all their families, e.g. when the account is deleted.
+     */
+    public void evictUser(UUID userId) {
+        users.remove(userId);
+        Set<Family> owned = familiesByUser.get(userId);
+        if (owned != null) {
+            owned.forEach(this::forget);
+        }
+    }
+
+    /**
+     * Drops every family whose token expired in a slice that has fully passed, and users left without families.
+     */
+    public void evictExpired(Instant now) {
+        var due = familiesBySlice.headMap(slice(now));
+        for (Set<Family> expiring : due.values()) {
+            for (Family family : expiring) {
+                if (isExpired(family, now)) {
+                    forget(family);
+                }
+            }
+        }
+        due.clear();
+        users.keySet().retainAll(familiesByUser.keySet());
+    }
+
+    private void forget(Family family) {
+        families.remove(family.id, family);
+        familiesByUser.computeIfPresent(family.userId, (id, owned) -> {
+            owned.remove(family);
+            return owned.isEmpty() ? null : owned;
+        });
+        synchronized (family) {
+            unindex(family);
+        }
+    }
+
+    /**
+     * Removes a family's current hash and expiry slice from the indexes. Callers hold its lock.
+     */
+    private void unindex(Family family) {
+        if (family.activeHash != null) {
+            familiesByHash.remove(family.activeHash, family);
+        }
+        if (family.expiresAt != null) {
+            Set<Family> expiring = familiesBySlice.get(slice(family.expiresAt));
+            if (expiring != null) {
+                expiring.remove(family);
+            }
+        }
+    }
+
+    private static boolean isExpired(Family family, Instant now) {
+        synchronized (family) {
+            return family.expiresAt.isBefore(now);
+        }
+    }
+
+    int size() {
+        return familiesByHash.size();
+    }
+
+    int families() {
+        return families.size();
+    }
+
+    private long slice(Instant instant) {
+        return Math.floorDiv(instant.toEpochMilli(), sliceMs);
+    }
+}
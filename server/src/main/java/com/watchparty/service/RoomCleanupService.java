@@ -1,23 +1,35 @@
 package com.watchparty.service;
 
-import com.watchparty.entity.Room;
-import com.watchparty.repository.ParticipantRepository;
+import com.watchparty.repository.ChatMessageRepository;
+import com.watchparty.repository.PlaylistItemRepository;
 import com.watchparty.repository.RoomRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.boot.context.event.ApplicationReadyEvent;
-import org.springframework.context.event.EventListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Deletes anonymous rooms whose expiry timestamp has passed.
  * Runs every 10 minutes.
- * Also clears all stale participants on server startup.
+ * <p>
+ * Rooms are deleted by id in chunks of {@code room.cleanup.batch-size}, each chunk in its own
+ * transaction with set-based deletes of chat messages, then playlist items, then the rooms
+ * themselves, so no transaction holds locks on more than one chunk's rows. A run stops once it
+ * has used up {@code room.cleanup.time-budget}; whatever is left is picked up by the next run
+ * and reported by the {@code watchparty.cleanup.rooms.backlog} gauge.
  */
 @Service
 public class RoomCleanupService {
@@ -25,30 +37,80 @@ public class RoomCleanupService {
     private static final Logger log = LoggerFactory.getLogger(RoomCleanupService.class);
 
     private final RoomRepository roomRepository;
-    private final ParticipantRepository participantRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final PlaylistItemRepository playlistItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration timeBudget;
+    private final Counter roomsDeleted;
+    private final Counter chatMessagesDeleted;
+    private final Counter playlistItemsDeleted;
+    private final Timer chunkTimer;
+    private final AtomicLong backlog = new AtomicLong();
 
-    public RoomCleanupService(RoomRepository roomRepository, ParticipantRepository participantRepository) {
+    public RoomCleanupService(RoomRepository roomRepository,
+                              ChatMessageRepository chatMessageRepository,
+                              PlaylistItemRepository playlistItemRepository,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${room.cleanup.batch-size:500}") int batchSize,
+                              @Value("${room.cleanup.time-budget:30s}") Duration timeBudget) {
         this.roomRepository = roomRepository;
-        this.participantRepository = participantRepository;
+        this.chatMessageRepository = chatMessageRepository;
+        this.playlistItemRepository = playlistItemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.timeBudget = timeBudget;
+        this.roomsDeleted = deletedCounter(meterRegistry, "rooms");
+        this.chatMessagesDeleted = deletedCounter(meterRegistry, "chat_messages");
+        this.playlistItemsDeleted = deletedCounter(meterRegistry, "playlist_items");
+        this.chunkTimer = Timer.builder("watchparty.cleanup.rooms.chunk")
+                .description("Time to delete one chunk of expired rooms and their children")
+                .register(meterRegistry);
+        meterRegistry.gauge("watchparty.cleanup.rooms.backlog", backlog);
     }
 
-    @EventListener(ApplicationReadyEvent.class)
-    @Transactional
-    public void clearStaleParticipants() {
-        long count = participantRepository.count();
-        if (count > 0) {
-            participantRepository.deleteAll();
-            log.info("Cleared {} stale participant(s) from previous server session", count);
-        }
+    private static Counter deletedCounter(MeterRegistry registry, String table) {
+        return Counter.builder("watchparty.cleanup.rooms.deleted")
+                .description("Rows deleted by the expired-room cleanup")
+                .tag("table", table)
+                .register(registry);
     }
 
     @Scheduled(fixedRate = 10 * 60 * 1000)
-    @Transactional
     public void deleteExpiredRooms() {
-        List<Room> expired = roomRepository.findByExpiresAtBeforeAndIsPermanentFalse(Instant.now());
-        if (!expired.isEmpty()) {
-            roomRepository.deleteAll(expired);
-            log.info("Cleaned up {} expired anonymous room(s)", expired.size());
+        Instant cutoff = Instant.now();
+        long deadline = System.nanoTime() + timeBudget.toNanos();
+        int total = 0;
+        int chunk;
+        do {
+            chunk = deleteChunk(cutoff);
+            total += chunk;
+        } while (chunk == batchSize && System.nanoTime() < deadline);
+
+        backlog.set(chunk == batchSize ? roomRepository.countExpired(cutoff) : 0);
+        if (total > 0) {
+            log.info("Cleaned up {} expired anonymous room(s){}", total,
+                    backlog.get() > 0 ? ", " + backlog.get() + " left for the next run" : "");
         }
     }
+
+    /**
+     * Deletes up to one batch of expired rooms, children first, in one transaction.
+     *
+     * @return how many rooms were deleted
+     */
+    int deleteChunk(Instant cutoff) {
+        return chunkTimer.record(() -> transactionTemplate.execute(status -> {
+            List<UUID> ids = roomRepository.findExpiredIds(cutoff, Limit.of(batchSize));
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            chatMessagesDeleted.increment(chatMessageRepository.deleteAllByRoomIdIn(ids));
+            playlistItemsDeleted.increment(playlistItemRepository.deleteAllByRoomIdIn(ids));
+            int rooms = roomRepository.deleteAllByIdIn(ids);
+            roomsDeleted.increment(rooms);
+            return rooms;
+        }));
+    }
 }
@@ -1,10 +1,11 @@
 package com.watchparty.service;
 
+import com.watchparty.datasource.ReplicaLagGuard;
 import com.watchparty.dto.CreateRoomRequest;
 import com.watchparty.dto.RoomResponse;
 import com.watchparty.entity.Room;
 import com.watchparty.exception.RoomNotFoundException;
-import com.watchparty.repository.ParticipantRepository;
+import com.watchparty.presence.PresenceRegistry;
 import com.watchparty.repository.RoomRepository;
 import org.jspecify.annotations.Nullable;
 import org.springframework.http.HttpStatus;
@@ -19,11 +20,16 @@ import java.util.UUID;
 public class RoomService {
 
     private final RoomRepository roomRepository;
-    private final ParticipantRepository participantRepository;
+    private final PresenceRegistry presence;
+    private final RoomStateWriter roomStateWriter;
+    private final ReplicaLagGuard replicaLag;
 
-    public RoomService(RoomRepository roomRepository, ParticipantRepository participantRepository) {
+    public RoomService(RoomRepository roomRepository, PresenceRegistry presence, RoomStateWriter roomStateWriter,
+                       ReplicaLagGuard replicaLag) {
         this.roomRepository = roomRepository;
-        this.participantRepository = participantRepository;
+        this.presence = presence;
+        this.roomStateWriter = roomStateWriter;
+        this.replicaLag = replicaLag;
     }
 
     @Transactional
@@ -36,21 +42,23 @@ public class RoomService {
             room.setPermanent(true);
         }
         room = roomRepository.save(room);
+        // The creator usually opens the room by its code right away
+        replicaLag.recordWrite(room.getId(), room.getCode(), room.getOwnerId());
         return toResponse(room, 0);
     }
 
     @Transactional(readOnly = true)
     public RoomResponse findByCode(String code) {
-        Room room = roomRepository.findByCode(code)
+        Room room = replicaLag.readByCode(code, () -> roomRepository.findByCode(code))
                 .orElseThrow(() -> new RoomNotFoundException(code));
-        int participantCount = participantRepository.findByRoomId(room.getId()).size();
+        int participantCount = presence.count(room.getId());
         return toResponse(room, participantCount);
     }
 
     @Transactional(readOnly = true)
     public List<RoomResponse> findByOwner(UUID ownerId) {
-        return roomRepository.findByOwnerId(ownerId).stream()
-                .map(room -> toResponse(room, participantRepository.findByRoomId(room.getId()).size()))
+        return replicaLag.readByOwner(ownerId, () -> roomRepository.findByOwnerId(ownerId)).stream()
+                .map(room -> toResponse(room, presence.count(room.getId())))
                 .toList();
     }
 
@@ -60,16 +68,19 @@ public class RoomService {
                 .orElseThrow(() -> new RoomNotFoundException(code));
         verifyOwnership(room, requestingUserId);
         roomRepository.deleteByCode(code);
+        replicaLag.recordWrite(room.getId(), code, room.getOwnerId());
     }
 
-    @Transactional
+    /**
+     * Renames a room. Only the name column is written, so a rename racing a playback change
+     * leaves the playback state alone.
+     */
     public RoomResponse renameRoom(String code, String newName, UUID requestingUserId) {
         Room room = roomRepository.findByCode(code)
                 .orElseThrow(() -> new RoomNotFoundException(code));
         verifyOwnership(room, requestingUserId);
-        room.setName(newName);
-        room = roomRepository.save(room);
-        int participantCount = participantRepository.findByRoomId(room.getId()).size();
+        room = roomStateWriter.update(room.getId(), r -> r.setName(newName));
+        int participantCount = presence.count(room.getId());
         return toResponse(room, participantCount);
     }
 
@@ -0,0 +1,82 @@
+package com.watchparty.service;
+
+import com.watchparty.datasource.ReplicaLagGuard;
+import com.watchparty.entity.Room;
+import com.watchparty.repository.RoomRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Applies changes to a room row without pessimistic locks.
+ * <p>
+ * {@link Room} is versioned and updated field by field, so each write only touches the columns
+ * it changed and fails if the row moved on since it was read. On such a conflict the change is
+ * re-applied to a fresh copy of the row: the writer's own fields win, everything another writer
+ * changed in the meantime is kept. A rename therefore no longer resets playback, and two
+ * playback commands racing each other resolve to the later one instead of a mix of both.
+ * <p>
+ * Each attempt runs in its own transaction, suspending the caller's if there is one, so callers
+ * on hot paths should not hold a transaction (and with it a second pooled connection) around it.
+ */
+@Service
+public class RoomStateWriter {
+
+    private final RoomRepository roomRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReplicaLagGuard replicaLag;
+    private final int maxAttempts;
+    private final Counter conflicts;
+
+    public RoomStateWriter(RoomRepository roomRepository,
+                           PlatformTransactionManager transactionManager,
+                           ReplicaLagGuard replicaLag,
+                           MeterRegistry meterRegistry,
+                           @Value("${room.update.max-attempts:3}") int maxAttempts) {
+        this.roomRepository = roomRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.replicaLag = replicaLag;
+        this.maxAttempts = maxAttempts;
+        this.conflicts = Counter.builder("watchparty.room.update.conflicts")
+                .description("Room updates re-applied because another writer changed the row first")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reads the room, applies {@code change} and writes the changed fields back, retrying on
+     * conflicting writes up to {@code room.update.max-attempts} times.
+     *
+     * @return the room as committed
+     * @throws OptimisticLockingFailureException if every attempt conflicted
+     */
+    public Room update(UUID roomId, Consumer<Room> change) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Room updated = transactionTemplate.execute(status -> {
+                    Room room = roomRepository.findById(roomId)
+                            .orElseThrow(() -> new EntityNotFoundException("Room not found: " + roomId));
+                    change.accept(room);
+                    return roomRepository.saveAndFlush(room);
+                });
+                // Renames are visible to lookups by code and owner too
+                replicaLag.recordWrite(roomId, updated.getCode(), updated.getOwnerId());
+                return updated;
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                conflicts.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.watchparty.websocket;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Smoothed per-session estimate of round-trip time and clock offset, fed by the NTP-style
+ * {@code /app/time.ping} exchange.
+ * <p>
+ * Position reports reach the server half a round trip after the client sampled its player, and
+ * corrections reach the client half a round trip after they are computed. Knowing that delay lets
+ * drift be measured against where playback actually was at sampling time, which is what allows
+ * the rate-adjust tolerance to drop from {@code sync.drift.rate-adjust-seconds} to
+ * {@code sync.drift.synced-rate-adjust-seconds} once a session has an estimate.
+ * <p>
+ * The same estimates set how far ahead scheduled playback commands are stamped: far enough for
+ * the slowest session in the room to receive them, within {@code sync.schedule.*} bounds.
+ * <p>
+ * Samples that took longer than the current estimate were most likely queued somewhere on the way
+ * and carry a skewed offset, so they are weighted down in proportion to their extra delay.
+ */
+@Component
+public class ClockSync {
+
+    /** Round trips longer than this say nothing useful about the clock. */
+    private static final double MAX_RTT_MS = 5000;
+
+    public record Estimate(double offsetMs, double rttMs, double jitterMs, int samples) {
+
+        public double oneWayDelaySeconds() {
+            return rttMs / 2000.0;
+        }
+    }
+
+    private final double smoothing;
+    private final double rateAdjustSeconds;
+    private final double syncedRateAdjustSeconds;
+    private final long defaultLeadMs;
+    private final long minLeadMs;
+    private final long maxLeadMs;
+    private final Map<String, Estimate> estimates = new ConcurrentHashMap<>();
+
+    public ClockSync(@Value("${sync.clock.smoothing:0.2}") double smoothing,
+                     @Value("${sync.drift.rate-adjust-seconds:0.5}") double rateAdjustSeconds,
+                     @Value("${sync.drift.synced-rate-adjust-seconds:0.1}") double syncedRateAdjustSeconds,
+                     @Value("${sync.schedule.default-lead-ms:250}") long defaultLeadMs,
+                     @Value("${sync.schedule.min-lead-ms:50}") long minLeadMs,
+                     @Value("${sync.schedule.max-lead-ms:1000}") long maxLeadMs) {
+        this.smoothing = smoothing;
+        this.rateAdjustSeconds = rateAdjustSeconds;
+        this.syncedRateAdjustSeconds = syncedRateAdjustSeconds;
+        this.defaultLeadMs = defaultLeadMs;
+        this.minLeadMs = minLeadMs;
+        this.maxLeadMs = maxLeadMs;
+    }
+
+    /**
+     * Server clock in epoch milliseconds, with sub-millisecond precision where the platform has it.
+     */
+    public static double now() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1000.0 + now.getNano() / 1_000_000.0;
+    }
+
+    /**
+     * Folds a sample measured by the client into the session's estimate. Implausible samples are ignored.
+     */
+    public void record(String sessionId, double rttMs, double offsetMs) {
+        if (!(rttMs >= 0 && rttMs <= MAX_RTT_MS) || !Double.isFinite(offsetMs)) {
+            return;
+        }
+        estimates.merge(sessionId, new Estimate(offsetMs, rttMs, 0, 1), (current, sample) -> {
+            double offsetWeight = sample.rttMs() <= current.rttMs()
+                    ? smoothing
+                    : smoothing * current.rttMs() / sample.rttMs();
+            return new Estimate(
+                    current.offsetMs() + offsetWeight * (sample.offsetMs() - current.offsetMs()),
+                    current.rttMs() + smoothing * (sample.rttMs() - current.rttMs()),
+                    current.jitterMs() + smoothing * (Math.abs(sample.rttMs() - current.rttMs()) - current.jitterMs()),
+                    current.samples() + 1);
+        });
+    }
+
+    public Optional<Estimate> estimate(String sessionId) {
+        return Optional.ofNullable(estimates.get(sessionId));
+    }
+
+    /**
+     * Drift below this is left alone. Sessions with a clock estimate get the tight tolerance,
+     * widened only as far as their delay jitter makes the measurement uncertain.
+     */
+    public double rateAdjustThreshold(Optional<Estimate> estimate) {
+        return estimate
+                .map(e -> Math.max(syncedRateAdjustSeconds, 2 * e.jitterMs() / 1000.0))
+                .map(threshold -> Math.min(threshold, rateAdjustSeconds))
+                .orElse(rateAdjustSeconds);
+    }
+
+    /**
+     * How far in the future to schedule a playback command for these sessions: the largest round
+     * trip among them, which also covers most of their jitter. Sessions without an estimate yet
+     * are assumed to need {@code sync.schedule.default-lead-ms}.
+     */
+    public long scheduleLeadMs(Collection<String> sessionIds) {
+        double lead = sessionIds.stream()
+                .map(estimates::get)
+                .mapToDouble(estimate -> estimate != null ? estimate.rttMs() : defaultLeadMs)
+                .max()
+                .orElse(minLeadMs);
+        return Math.clamp(Math.round(lead), minLeadMs, maxLeadMs);
+    }
+
+    public void forget(String sessionId) {
+        estimates.remove(sessionId);
+    }
+}
@@ -0,0 +1,61 @@
+package com.watchparty.websocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Disconnects sessions that have missed {@code websocket.heartbeat.missed-limit} client heartbeats
+ * and releases their seats.
+ * <p>
+ * A half-open TCP connection otherwise keeps its participant in every roster broadcast until the
+ * operating system times the socket out, which can take many minutes. Dead sessions found in one
+ * pass are handed to the {@link DepartureBuffer} together and removed in the next departure batch.
+ */
+@Component
+public class DeadSessionReaper {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadSessionReaper.class);
+
+    private final SessionLivenessTracker liveness;
+    private final WatchPartyWebSocketHandler handler;
+    private final MessageChannel clientOutboundChannel;
+
+    public DeadSessionReaper(SessionLivenessTracker liveness,
+                             WatchPartyWebSocketHandler handler,
+                             @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel) {
+        this.liveness = liveness;
+        this.handler = handler;
+        this.clientOutboundChannel = clientOutboundChannel;
+    }
+
+    @Scheduled(fixedDelayString = "${websocket.heartbeat.reaper-interval-ms:5000}")
+    void reap() {
+        List<String> dead = liveness.drainExpired();
+        if (dead.isEmpty()) {
+            return;
+        }
+        log.info("Disconnecting {} sessions that stopped sending heartbeats", dead.size());
+        handler.handleDeadSessions(dead);
+        dead.forEach(this::close);
+    }
+
+    /**
+     * Asks the STOMP handler to send an ERROR frame and close the socket, the same way the broker
+     * ends sessions it considers gone.
+     */
+    private void close(String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.DISCONNECT_ACK);
+        accessor.setSessionId(sessionId);
+        accessor.setLeaveMutable(true);
+        clientOutboundChannel.send(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()));
+    }
+}
@@ -0,0 +1,78 @@
+package com.watchparty.websocket;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds departing sessions until they are due for processing.
+ * <p>
+ * Explicit leaves are due immediately; disconnects only after {@code room.leave.grace-period-ms},
+ * so a client that drops and reconnects within that time can take its place back instead of
+ * being removed and re-added. Due departures are drained together by
+ * {@link WebSocketEventListener#processDepartures()}, so a burst of disconnects is handled as one
+ * batch per room rather than one cascade per session.
+ */
+@Component
+public class DepartureBuffer {
+
+    private final long gracePeriodNanos;
+    private final Map<String, Long> deadlines = new ConcurrentHashMap<>();
+
+    public DepartureBuffer(@Value("${room.leave.grace-period-ms:5000}") long gracePeriodMs) {
+        this.gracePeriodNanos = TimeUnit.MILLISECONDS.toNanos(gracePeriodMs);
+    }
+
+    /**
+     * Schedules a session's departure. A session already pending keeps the earlier deadline.
+     */
+    public void schedule(String sessionId, boolean withGracePeriod) {
+        schedule(sessionId, withGracePeriod ? gracePeriodNanos : 0);
+    }
+
+    /**
+     * Schedules a departure after an explicit delay, e.g. the resume TTL for sessions holding a resume token.
+     */
+    public void schedule(String sessionId, Duration delay) {
+        schedule(sessionId, delay.toNanos());
+    }
+
+    private void schedule(String sessionId, long delayNanos) {
+        long deadline = System.nanoTime() + delayNanos;
+        deadlines.merge(sessionId, deadline, (current, requested) -> current - requested <= 0 ? current : requested);
+    }
+
+    public boolean isPending(String sessionId) {
+        return deadlines.containsKey(sessionId);
+    }
+
+    /**
+     * Withdraws a pending departure. Returns false if it was never scheduled or has already been drained.
+     */
+    public boolean cancel(String sessionId) {
+        return deadlines.remove(sessionId) != null;
+    }
+
+    /**
+     * Removes and returns every departure whose deadline has passed.
+     */
+    public List<String> drainDue() {
+        if (deadlines.isEmpty()) {
+            return List.of();
+        }
+        long now = System.nanoTime();
+        List<String> due = new ArrayList<>();
+        deadlines.forEach((sessionId, deadline) -> {
+            if (deadline - now <= 0 && deadlines.remove(sessionId, deadline)) {
+                due.add(sessionId);
+            }
+        });
+        return due;
+    }
+}
@@ -0,0 +1,208 @@
+package com.watchparty.websocket;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control for {@code /app/room.join}.
+ * <p>
+ * Two limits apply: a per-room participant cap, beyond which joins wait in a FIFO queue
+ * and are completed as soon as someone leaves, and a node-wide cap on joins being processed
+ * concurrently, beyond which clients are told to retry later. Wait estimates are derived from
+ * the observed interval between departures and the observed join processing time.
+ */
+@Component
+public class JoinAdmissionService {
+
+    /** A join parked until its room has a free slot. */
+    public record PendingJoin(String sessionId, String nickname, @Nullable UUID userId) {}
+
+    static final long DEFAULT_SLOT_WAIT_SECONDS = 60;
+    private static final double SMOOTHING = 0.2;
+
+    private final int maxParticipants;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong avgJoinNanos = new AtomicLong(TimeUnit.MILLISECONDS.toNanos(50));
+    private final Map<UUID, RoomQueue> queues = new ConcurrentHashMap<>();
+    private final Map<String, UUID> queuedSessions = new ConcurrentHashMap<>();
+
+    public JoinAdmissionService(@Value("${room.max-participants:50}") int maxParticipants,
+                                @Value("${room.join.max-in-flight:64}") int maxInFlight) {
+        this.maxParticipants = maxParticipants;
+        this.maxInFlight = maxInFlight;
+    }
+
+    public int maxParticipants() {
+        return maxParticipants;
+    }
+
+    /**
+     * Reserves a node-wide join slot. Returns false when the node is saturated.
+     * Every successful call must be paired with {@link #endJoin(long)}.
+     */
+    public boolean tryBeginJoin() {
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public void endJoin(long startedNanos) {
+        inFlight.decrementAndGet();
+        long elapsed = System.nanoTime() - startedNanos;
+        avgJoinNanos.updateAndGet(avg -> (long) (avg + SMOOTHING * (elapsed - avg)));
+    }
+
+    /**
+     * Seconds until enough in-flight joins have drained for a retry to get through.
+     */
+    public long estimatedRetrySeconds() {
+        double batches = Math.max(1.0, (double) inFlight.get() / maxInFlight);
+        return Math.max(1, (long) Math.ceil(batches * avgJoinNanos.get() / 1e9));
+    }
+
+    /**
+     * Whether a room with the given number of participants can take one more without
+     * overtaking joins that are already waiting for it.
+     */
+    public boolean hasCapacity(UUID roomId, int participantCount) {
+        return participantCount < maxParticipants && !queues.containsKey(roomId);
+    }
+
+    /**
+     * Parks a join until the room has a free slot and returns its 1-based queue position.
+     * A session that is already queued keeps its place.
+     */
+    public int enqueue(UUID roomId, PendingJoin join) {
+        while (true) {
+            RoomQueue queue = queues.computeIfAbsent(roomId, id -> new RoomQueue());
+            synchronized (queue) {
+                if (queues.get(roomId) != queue) {
+                    continue; // drained and removed concurrently
+                }
+                int position = queue.positionOf(join.sessionId());
+                if (position > 0) {
+                    return position;
+                }
+                queue.waiting.addLast(join);
+                queuedSessions.put(join.sessionId(), roomId);
+                return queue.waiting.size();
+            }
+        }
+    }
+
+    /**
+     * Puts a join handed out by {@link #pollWaiting} back at the head of the queue, e.g. when the
+     * freed slot was taken by a concurrent join first.
+     */
+    public void requeueFirst(UUID roomId, PendingJoin join) {
+        while (true) {
+            RoomQueue queue = queues.computeIfAbsent(roomId, id -> new RoomQueue());
+            synchronized (queue) {
+                if (queues.get(roomId) != queue) {
+                    continue;
+                }
+                queue.waiting.addFirst(join);
+                queuedSessions.put(join.sessionId(), roomId);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Records that a slot was freed and hands back the next queued join, if any.
+     */
+    public @Nullable PendingJoin pollWaiting(UUID roomId) {
+        RoomQueue queue = queues.get(roomId);
+        if (queue == null) {
+            return null;
+        }
+        synchronized (queue) {
+            queue.recordDeparture();
+            PendingJoin next = queue.waiting.pollFirst();
+            if (next != null) {
+                queuedSessions.remove(next.sessionId());
+            }
+            if (queue.waiting.isEmpty()) {
+                queues.remove(roomId, queue);
+            }
+            return next;
+        }
+    }
+
+    /**
+     * Joins still waiting for the room, in admission order.
+     */
+    public List<PendingJoin> waiting(UUID roomId) {
+        RoomQueue queue = queues.get(roomId);
+        if (queue == null) {
+            return List.of();
+        }
+        synchronized (queue) {
+            return List.copyOf(queue.waiting);
+        }
+    }
+
+    /**
+     * Removes a session from whichever queue it is waiting in, e.g. when it disconnects.
+     */
+    public void cancel(String sessionId) {
+        UUID roomId = queuedSessions.remove(sessionId);
+        if (roomId == null) {
+            return;
+        }
+        RoomQueue queue = queues.get(roomId);
+        if (queue == null) {
+            return;
+        }
+        synchronized (queue) {
+            queue.waiting.removeIf(join -> join.sessionId().equals(sessionId));
+            if (queue.waiting.isEmpty()) {
+                queues.remove(roomId, queue);
+            }
+        }
+    }
+
+    public long estimatedWaitSeconds(UUID roomId, int position) {
+        RoomQueue queue = queues.get(roomId);
+        double interval = queue != null ? queue.avgDepartureIntervalSeconds : DEFAULT_SLOT_WAIT_SECONDS;
+        return Math.max(1, Math.round(position * interval));
+    }
+
+    private static final class RoomQueue {
+        private final Deque<PendingJoin> waiting = new ArrayDeque<>();
+        private long lastDepartureNanos = System.nanoTime();
+        private volatile double avgDepartureIntervalSeconds = DEFAULT_SLOT_WAIT_SECONDS;
+
+        int positionOf(String sessionId) {
+            int position = 1;
+            for (PendingJoin join : waiting) {
+                if (join.sessionId().equals(sessionId)) {
+                    return position;
+                }
+                position++;
+            }
+            return 0;
+        }
+
+        void recordDeparture() {
+            long now = System.nanoTime();
+            double interval = (now - lastDepartureNanos) / 1e9;
+            lastDepartureNanos = now;
+            avgDepartureIntervalSeconds += SMOOTHING * (interval - avgDepartureIntervalSeconds);
+        }
+    }
+}
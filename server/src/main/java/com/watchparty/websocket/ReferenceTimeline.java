@@ -0,0 +1,107 @@
+package com.watchparty.websocket;
+
+import com.watchparty.entity.SyncStrategy;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The playback timeline of rooms that sync to their clients rather than to the server clock
+ * (see {@link SyncStrategy}).
+ * <p>
+ * Every position report leaves an anchor: the position the client was at when the report reached
+ * the server, and when that was. A reference position is read by extrapolating anchors to now,
+ * either the host's alone or the median across participants. Anchors older than
+ * {@code sync.reference.stale-ms} are ignored, so a host that stopped reporting or a quorum that
+ * shrank below {@code sync.reference.quorum} falls back to the server clock instead of steering
+ * the room with outdated positions.
+ */
+@Component
+public class ReferenceTimeline {
+
+    private record Anchor(double positionSeconds, long atNanos) {
+
+        double at(long nowNanos) {
+            return positionSeconds + (nowNanos - atNanos) / 1e9;
+        }
+    }
+
+    private final long staleNanos;
+    private final int quorum;
+    private final Map<UUID, Map<String, Anchor>> rooms = new ConcurrentHashMap<>();
+
+    public ReferenceTimeline(@Value("${sync.reference.stale-ms:20000}") long staleMs,
+                             @Value("${sync.reference.quorum:3}") int quorum) {
+        this.staleNanos = TimeUnit.MILLISECONDS.toNanos(staleMs);
+        this.quorum = Math.max(1, quorum);
+    }
+
+    /**
+     * Records where a participant's player is now (its report adjusted for the network delay).
+     */
+    public void record(UUID roomId, String connectionId, double positionSeconds) {
+        record(roomId, connectionId, positionSeconds, System.nanoTime());
+    }
+
+    void record(UUID roomId, String connectionId, double positionSeconds, long nowNanos) {
+        rooms.computeIfAbsent(roomId, id -> new ConcurrentHashMap<>())
+                .put(connectionId, new Anchor(positionSeconds, nowNanos));
+    }
+
+    /**
+     * The room's reference position now, or empty when the strategy has no fresh enough data
+     * and the caller should fall back to the server clock.
+     */
+    public OptionalDouble position(UUID roomId, SyncStrategy strategy, @Nullable String hostConnectionId) {
+        return position(roomId, strategy, hostConnectionId, System.nanoTime());
+    }
+
+    OptionalDouble position(UUID roomId, SyncStrategy strategy, @Nullable String hostConnectionId, long nowNanos) {
+        Map<String, Anchor> anchors = rooms.get(roomId);
+        if (anchors == null || strategy == SyncStrategy.SERVER_CLOCK) {
+            return OptionalDouble.empty();
+        }
+        if (strategy == SyncStrategy.HOST) {
+            Anchor host = hostConnectionId != null ? anchors.get(hostConnectionId) : null;
+            return host != null && isFresh(host, nowNanos) ? OptionalDouble.of(host.at(nowNanos)) : OptionalDouble.empty();
+        }
+        double[] positions = anchors.values().stream()
+                .filter(anchor -> isFresh(anchor, nowNanos))
+                .mapToDouble(anchor -> anchor.at(nowNanos))
+                .toArray();
+        if (positions.length < quorum) {
+            return OptionalDouble.empty();
+        }
+        Arrays.sort(positions);
+        int mid = positions.length / 2;
+        return OptionalDouble.of(positions.length % 2 == 1
+                ? positions[mid]
+                : (positions[mid - 1] + positions[mid]) / 2);
+    }
+
+    private boolean isFresh(Anchor anchor, long nowNanos) {
+        return nowNanos - anchor.atNanos() <= staleNanos;
+    }
+
+    /**
+     * Discards a room's anchors after its playback was changed explicitly.
+     */
+    public void reset(UUID roomId) {
+        rooms.remove(roomId);
+    }
+
+    public void forget(UUID roomId, Collection<String> connectionIds) {
+        Map<String, Anchor> anchors = rooms.get(roomId);
+        if (anchors != null) {
+            connectionIds.forEach(anchors::remove);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.watchparty.websocket;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides per session how often its client should report its playback position.
+ * <p>
+ * Every session starts at {@code sync.report.initial-interval-ms}. A report that needs a correction
+ * drops the session to {@code min-interval-ms} so the correction can be checked quickly; each run of
+ * {@code stable-reports} in-sync reports doubles the interval, up to {@code max-interval-ms}. In a
+ * steady room almost every client ends up at the maximum, which is where most report traffic goes.
+ */
+@Component
+public class ReportCadence {
+
+    private record State(long intervalMs, int stableStreak) {}
+
+    private final long initialIntervalMs;
+    private final long minIntervalMs;
+    private final long maxIntervalMs;
+    private final int stableReports;
+    private final Map<String, State> states = new ConcurrentHashMap<>();
+
+    public ReportCadence(@Value("${sync.report.initial-interval-ms:5000}") long initialIntervalMs,
+                         @Value("${sync.report.min-interval-ms:1000}") long minIntervalMs,
+                         @Value("${sync.report.max-interval-ms:15000}") long maxIntervalMs,
+                         @Value("${sync.report.stable-reports:3}") int stableReports) {
+        this.initialIntervalMs = initialIntervalMs;
+        this.minIntervalMs = minIntervalMs;
+        this.maxIntervalMs = maxIntervalMs;
+        this.stableReports = Math.max(1, stableReports);
+    }
+
+    /**
+     * Records the outcome of one position report and returns the session's new interval if it
+     * changed, so the client only hears about it when there is something to adjust.
+     */
+    public OptionalLong observe(String sessionId, boolean inSync) {
+        long[] before = new long[1];
+        State next = states.compute(sessionId, (id, state) -> {
+            State current = state != null ? state : new State(initialIntervalMs, 0);
+            before[0] = current.intervalMs();
+            if (!inSync) {
+                return new State(minIntervalMs, 0);
+            }
+            int streak = current.stableStreak() + 1;
+            if (streak < stableReports) {
+                return new State(current.intervalMs(), streak);
+            }
+            return new State(Math.min(maxIntervalMs, current.intervalMs() * 2), 0);
+        });
+        return next.intervalMs() != before[0] ? OptionalLong.of(next.intervalMs()) : OptionalLong.empty();
+    }
+
+    /**
+     * Puts a session back on the minimum interval after playback jumped, since its earlier
+     * stability says nothing about how well it follows the new position. Returns the new
+     * interval if it changed.
+     */
+    public OptionalLong restart(String sessionId) {
+        State previous = states.put(sessionId, new State(minIntervalMs, 0));
+        long before = previous != null ? previous.intervalMs() : initialIntervalMs;
+        return before != minIntervalMs ? OptionalLong.of(minIntervalMs) : OptionalLong.empty();
+    }
+
+    public long intervalMs(String sessionId) {
+        State state = states.get(sessionId);
+        return state != null ? state.intervalMs() : initialIntervalMs;
+    }
+
+    public void forget(String sessionId) {
+        states.remove(sessionId);
+    }
+}
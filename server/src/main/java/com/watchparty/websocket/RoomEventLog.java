@@ -0,0 +1,126 @@
+package com.watchparty.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.watchparty.dto.RoomEvent;
+import com.watchparty.dto.SerializedPayload;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single path for broadcasts to a room's topics. Every broadcast gets the room's next
+ * sequence number, sent as the {@value #SEQ_HEADER} STOMP header, and is kept in a bounded
+ * per-room log so that a resuming or lagging client can be sent exactly what it missed.
+ * <p>
+ * Each log is bounded both by event count and by payload bytes, so a burst of large playlist
+ * broadcasts cannot pin unbounded memory; once the events a client needs are gone it falls
+ * back to snapshots. Payloads are serialized once when published; the log and the broadcast
+ * share the bytes.
+ */
+@Component
+public class RoomEventLog {
+
+    public static final String SEQ_HEADER = "seq";
+
+    private final ObjectMapper objectMapper;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final int capacity;
+    private final long maxBytes;
+    private final Map<String, Log> logs = new ConcurrentHashMap<>();
+
+    public RoomEventLog(ObjectMapper objectMapper,
+                        SimpMessagingTemplate messagingTemplate,
+                        @Value("${room.event-log.capacity:256}") int capacity,
+                        @Value("${room.event-log.max-bytes:262144}") long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.messagingTemplate = messagingTemplate;
+        this.capacity = capacity;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Broadcasts a payload to {@code /topic/room.{roomCode}{topicSuffix}} and records it.
+     *
+     * @return the sequence number assigned to the broadcast
+     */
+    public long publish(String roomCode, String topicSuffix, Object payload) {
+        String destination = "/topic/room." + roomCode + topicSuffix;
+        SerializedPayload serialized = serialize(payload);
+        Log log = logs.computeIfAbsent(roomCode, code -> new Log());
+        // Sequence assignment and send happen under one lock so subscribers see them in order
+        synchronized (log) {
+            long seq = ++log.lastSeq;
+            log.events.addLast(new RoomEvent(seq, destination, serialized));
+            log.bytes += serialized.json().length;
+            // Always keep the newest event, even if it alone exceeds the byte budget
+            while (log.events.size() > 1 && (log.events.size() > capacity || log.bytes > maxBytes)) {
+                log.bytes -= log.events.removeFirst().payload().json().length;
+            }
+            messagingTemplate.convertAndSend(destination, serialized, Map.of(SEQ_HEADER, Long.toString(seq)));
+            return seq;
+        }
+    }
+
+    public long lastSeq(String roomCode) {
+        Log log = logs.get(roomCode);
+        if (log == null) {
+            return 0;
+        }
+        synchronized (log) {
+            return log.lastSeq;
+        }
+    }
+
+    /**
+     * Returns the events broadcast after {@code seq}, or empty if some of them have already
+     * been dropped from the log and the caller has to fall back to snapshots.
+     */
+    public Optional<List<RoomEvent>> eventsAfter(String roomCode, long seq) {
+        Log log = logs.get(roomCode);
+        if (log == null) {
+            return seq == 0 ? Optional.of(List.of()) : Optional.empty();
+        }
+        synchronized (log) {
+            if (seq > log.lastSeq) {
+                return Optional.empty(); // from an earlier incarnation of the log
+            }
+            long oldest = log.events.isEmpty() ? log.lastSeq + 1 : log.events.getFirst().seq();
+            if (seq + 1 < oldest) {
+                return Optional.empty();
+            }
+            return Optional.of(log.events.stream().filter(e -> e.seq() > seq).toList());
+        }
+    }
+
+    /**
+     * Drops a room's log, e.g. when its last participant has left.
+     */
+    public void evict(String roomCode) {
+        logs.remove(roomCode);
+    }
+
+    private SerializedPayload serialize(Object payload) {
+        if (payload instanceof SerializedPayload serialized) {
+            return serialized;
+        }
+        try {
+            return new SerializedPayload(objectMapper.writeValueAsBytes(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize room event", e);
+        }
+    }
+
+    private static final class Log {
+        private final Deque<RoomEvent> events = new ArrayDeque<>();
+        private long lastSeq;
+        private long bytes;
+    }
+}
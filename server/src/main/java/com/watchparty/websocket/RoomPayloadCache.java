@@ -0,0 +1,127 @@
+package com.watchparty.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.watchparty.datasource.ReplicaLagGuard;
+import com.watchparty.dto.ChatMessageResponse;
+import com.watchparty.dto.PlaylistResponse;
+import com.watchparty.dto.SerializedPayload;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches room-level snapshots (playlist, chat history) as pre-serialized JSON so that
+ * every per-user send during joins reuses the same bytes instead of re-querying and
+ * re-encoding them per session.
+ * <p>
+ * Each (room, snapshot) pair carries a version. Mutations bump the version <em>after</em>
+ * their transaction commits, so a concurrent reader can never cache pre-commit data under
+ * the new version. Versions come from one global counter, so an in-flight load that started
+ * before an eviction can never be mistaken for a fresh entry.
+ * <p>
+ * Chat history also expires {@code chat.retention.cache-max-age} after it was loaded: retention
+ * is applied when loading, so without a reload an occupied room would keep serving messages that
+ * have aged out.
+ * <p>
+ * Room state is deliberately not cached here: its playback position is extrapolated from
+ * wall-clock time on every send, and topic broadcasts already serialize it only once.
+ */
+@Component
+public class RoomPayloadCache {
+
+    public enum Snapshot { PLAYLIST, CHAT_HISTORY }
+
+    private record Key(UUID roomId, Snapshot snapshot) {}
+
+    private record Entry(long version, SerializedPayload payload, long expiresAtNanos) {}
+
+    private final ObjectMapper objectMapper;
+    private final ReplicaLagGuard replicaLag;
+    private final long chatHistoryMaxAgeNanos;
+    private final AtomicLong versionSequence = new AtomicLong();
+    private final Map<Key, Long> versions = new ConcurrentHashMap<>();
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    public RoomPayloadCache(ObjectMapper objectMapper, ReplicaLagGuard replicaLag,
+                            @Value("${chat.retention.cache-max-age:5m}") Duration chatHistoryMaxAge) {
+        this.objectMapper = objectMapper;
+        this.replicaLag = replicaLag;
+        this.chatHistoryMaxAgeNanos = chatHistoryMaxAge.toNanos();
+    }
+
+    public SerializedPayload playlist(UUID roomId, Supplier<PlaylistResponse> loader) {
+        return get(new Key(roomId, Snapshot.PLAYLIST), loader, Long.MAX_VALUE);
+    }
+
+    public SerializedPayload chatHistory(UUID roomId, Supplier<List<ChatMessageResponse>> loader) {
+        return get(new Key(roomId, Snapshot.CHAT_HISTORY), loader, chatHistoryMaxAgeNanos);
+    }
+
+    /**
+     * Marks a snapshot stale once the current transaction commits (immediately if none is active).
+     */
+    public void invalidate(UUID roomId, Snapshot snapshot) {
+        var key = new Key(roomId, snapshot);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump(key);
+                }
+            });
+        } else {
+            bump(key);
+        }
+    }
+
+    /**
+     * Drops every snapshot of a room, e.g. when its last participant leaves.
+     */
+    public void evictRoom(UUID roomId) {
+        for (Snapshot snapshot : Snapshot.values()) {
+            var key = new Key(roomId, snapshot);
+            versions.remove(key);
+            entries.remove(key);
+        }
+    }
+
+    private SerializedPayload get(Key key, Supplier<?> loader, long maxAgeNanos) {
+        long version = versions.computeIfAbsent(key, k -> versionSequence.incrementAndGet());
+        Entry entry = entries.get(key);
+        long now = System.nanoTime();
+        if (entry != null && entry.version() == version && entry.expiresAtNanos() - now > 0) {
+            return entry.payload();
+        }
+        // Right after an invalidation a replica may still serve the old data; read it from the primary then
+        var payload = serialize(replicaLag.read(key.roomId(), loader));
+        // Stored under the version read before loading: if a mutation raced us, the
+        // version has moved on and the next reader reloads instead of serving stale bytes.
+        entries.merge(key, new Entry(version, payload, now + maxAgeNanos),
+                (current, loaded) -> current.version() > loaded.version() ? current : loaded);
+        return payload;
+    }
+
+    private void bump(Key key) {
+        replicaLag.recordWrite(key.roomId());
+        versions.put(key, versionSequence.incrementAndGet());
+        entries.remove(key);
+    }
+
+    private SerializedPayload serialize(Object value) {
+        try {
+            return new SerializedPayload(objectMapper.writeValueAsBytes(value));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize room snapshot", e);
+        }
+    }
+}
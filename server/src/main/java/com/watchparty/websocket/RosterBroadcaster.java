@@ -0,0 +1,108 @@
+package com.watchparty.websocket;
+
+import com.watchparty.dto.ParticipantMessage;
+import com.watchparty.dto.RosterUpdateMessage;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Coalesces roster changes (joins and departures) per room into one {@link RosterUpdateMessage} per batch window.
+ * <p>
+ * When a room link is shared, joins arrive in bursts; broadcasting each one to everyone
+ * already in the room makes broadcast volume quadratic in the burst size. Instead the first
+ * change in a room opens a window of {@code room.join.batch-window-ms}, and everything that
+ * happens within it goes out as a single frame. A window of 0 broadcasts immediately.
+ */
+@Component
+public class RosterBroadcaster {
+
+    private final RoomEventLog eventLog;
+    private final TaskScheduler taskScheduler;
+    private final Duration batchWindow;
+    private final Map<String, PendingRoster> pending = new ConcurrentHashMap<>();
+
+    public RosterBroadcaster(RoomEventLog eventLog,
+                             @Qualifier("messageBrokerTaskScheduler") TaskScheduler taskScheduler,
+                             @Value("${room.join.batch-window-ms:100}") long batchWindowMs) {
+        this.eventLog = eventLog;
+        this.taskScheduler = taskScheduler;
+        this.batchWindow = Duration.ofMillis(batchWindowMs);
+    }
+
+    public void participantJoined(String roomCode, ParticipantMessage participant, @Nullable String hostConnectionId) {
+        if (batchWindow.isZero()) {
+            send(roomCode, RosterUpdateMessage.joined(participant, hostConnectionId));
+            return;
+        }
+        append(roomCode, hostConnectionId, roster -> roster.joined.add(participant));
+    }
+
+    public void participantsLeft(String roomCode, List<String> connectionIds, @Nullable String hostConnectionId) {
+        if (batchWindow.isZero()) {
+            send(roomCode, RosterUpdateMessage.left(connectionIds, hostConnectionId));
+            return;
+        }
+        append(roomCode, hostConnectionId, roster -> {
+            // Someone who joins and leaves within one window is simply never announced
+            roster.joined.removeIf(p -> connectionIds.contains(p.connectionId()));
+            roster.left.addAll(connectionIds);
+        });
+    }
+
+    private void append(String roomCode, @Nullable String hostConnectionId, Consumer<PendingRoster> change) {
+        boolean opened;
+        while (true) {
+            PendingRoster roster = pending.computeIfAbsent(roomCode, code -> new PendingRoster());
+            synchronized (roster) {
+                if (roster.flushed) {
+                    continue; // lost a race with the flush, open a new window
+                }
+                opened = !roster.scheduled;
+                roster.scheduled = true;
+                change.accept(roster);
+                roster.hostConnectionId = hostConnectionId;
+            }
+            break;
+        }
+        if (opened) {
+            taskScheduler.schedule(() -> flush(roomCode), Instant.now().plus(batchWindow));
+        }
+    }
+
+    void flush(String roomCode) {
+        PendingRoster roster = pending.remove(roomCode);
+        if (roster == null) {
+            return;
+        }
+        RosterUpdateMessage update;
+        synchronized (roster) {
+            roster.flushed = true;
+            update = new RosterUpdateMessage(RosterUpdateMessage.TYPE,
+                    List.copyOf(roster.joined), List.copyOf(roster.left), roster.hostConnectionId);
+        }
+        send(roomCode, update);
+    }
+
+    private void send(String roomCode, RosterUpdateMessage update) {
+        eventLog.publish(roomCode, "", update);
+    }
+
+    private static final class PendingRoster {
+        private final List<ParticipantMessage> joined = new ArrayList<>();
+        private final List<String> left = new ArrayList<>();
+        private @Nullable String hostConnectionId;
+        private boolean scheduled;
+        private boolean flushed;
+    }
+}
@@ -0,0 +1,37 @@
+package com.watchparty.websocket;
+
+import com.watchparty.dto.SerializedPayload;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Writes {@link SerializedPayload} bodies as-is with a JSON content type, so a payload
+ * encoded once can be sent to any number of sessions without re-serialization.
+ * Outbound only; inbound frames are never decoded into a {@code SerializedPayload}.
+ */
+public class SerializedPayloadMessageConverter extends AbstractMessageConverter {
+
+    public SerializedPayloadMessageConverter() {
+        super(MimeTypeUtils.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(@NonNull Class<?> clazz) {
+        return clazz == SerializedPayload.class;
+    }
+
+    @Override
+    protected boolean canConvertFrom(@NonNull Message<?> message, @NonNull Class<?> targetClass) {
+        return false;
+    }
+
+    @Override
+    protected Object convertToInternal(@NonNull Object payload, @Nullable MessageHeaders headers,
+                                       @Nullable Object conversionHint) {
+        return ((SerializedPayload) payload).json();
+    }
+}
@@ -0,0 +1,94 @@
+package com.watchparty.websocket;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks when each STOMP session last sent anything, heartbeats included, so that
+ * {@link DeadSessionReaper} can drop half-open connections long before the OS notices them.
+ * <p>
+ * The heartbeat interval is negotiated per session on CONNECT: the larger of what the client
+ * offers to send and {@code websocket.heartbeat.client-ms}. Sessions that negotiated no client
+ * heartbeats are not tracked, since silence from them is legitimate.
+ */
+@Component
+public class SessionLivenessTracker implements ChannelInterceptor {
+
+    private record Liveness(long timeoutNanos, long lastSeenNanos) {}
+
+    private final long expectedClientMs;
+    private final int missedLimit;
+    private final Map<String, Liveness> sessions = new ConcurrentHashMap<>();
+
+    public SessionLivenessTracker(@Value("${websocket.heartbeat.client-ms:10000}") long expectedClientMs,
+                                  @Value("${websocket.heartbeat.missed-limit:2}") int missedLimit) {
+        this.expectedClientMs = expectedClientMs;
+        this.missedLimit = missedLimit;
+    }
+
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        String sessionId = accessor.getSessionId();
+        if (sessionId == null) {
+            return message;
+        }
+        StompCommand command = accessor.getCommand();
+        if (StompCommand.CONNECT.equals(command) || StompCommand.STOMP.equals(command)) {
+            long clientSendMs = accessor.getHeartbeat()[0];
+            if (expectedClientMs > 0 && clientSendMs > 0) {
+                long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(clientSendMs, expectedClientMs)) * missedLimit;
+                sessions.put(sessionId, new Liveness(timeoutNanos, System.nanoTime()));
+            }
+        } else if (StompCommand.DISCONNECT.equals(command)) {
+            sessions.remove(sessionId);
+        } else {
+            touch(sessionId, System.nanoTime());
+        }
+        return message;
+    }
+
+    void touch(String sessionId, long nowNanos) {
+        sessions.computeIfPresent(sessionId, (id, liveness) -> new Liveness(liveness.timeoutNanos(), nowNanos));
+    }
+
+    /**
+     * Stops tracking a session, e.g. once its socket has closed.
+     */
+    public void forget(String sessionId) {
+        sessions.remove(sessionId);
+    }
+
+    /**
+     * Removes and returns every session that has been silent for more than its allowed number
+     * of heartbeat intervals.
+     */
+    public List<String> drainExpired() {
+        return drainExpired(System.nanoTime());
+    }
+
+    List<String> drainExpired(long nowNanos) {
+        if (sessions.isEmpty()) {
+            return List.of();
+        }
+        List<String> expired = new ArrayList<>();
+        sessions.forEach((sessionId, liveness) -> {
+            if (nowNanos - liveness.lastSeenNanos() > liveness.timeoutNanos() && sessions.remove(sessionId, liveness)) {
+                expired.add(sessionId);
+            }
+        });
+        return expired;
+    }
+}
@@ -0,0 +1,133 @@
+package com.watchparty.websocket;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resume tokens and the session registry that lets a participant move to a new STOMP session.
+ * <p>
+ * A participant's {@code connectionId} is the ID of the session it joined with and is what the
+ * rest of the room knows it by. When a client reconnects and presents its resume token, the new
+ * session is registered as an alias of that connection ID instead of changing it, so nobody
+ * else needs a roster update. Tokens are single-use: every resume hands out a fresh one.
+ */
+@Component
+public class SessionResumption {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final SecureRandom random = new SecureRandom();
+    private final Duration ttl;
+    private final Map<String, String> tokens = new ConcurrentHashMap<>();
+    private final Map<String, String> tokenByConnection = new ConcurrentHashMap<>();
+    private final Map<String, String> connectionBySession = new ConcurrentHashMap<>();
+    private final Map<String, String> sessionByConnection = new ConcurrentHashMap<>();
+
+    public SessionResumption(@Value("${room.resume.ttl-ms:15000}") long ttlMs) {
+        this.ttl = Duration.ofMillis(ttlMs);
+    }
+
+    /**
+     * How long a disconnected participant holding a token keeps its seat.
+     */
+    public Duration ttl() {
+        return ttl;
+    }
+
+    /**
+     * Issues a new resume token for a participant, invalidating any previous one.
+     */
+    public String issue(String connectionId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        tokens.put(token, connectionId);
+        String previous = tokenByConnection.put(connectionId, token);
+        if (previous != null) {
+            tokens.remove(previous);
+        }
+        return token;
+    }
+
+    /**
+     * Consumes a token and returns the connection ID it resumes, or null if it is unknown.
+     */
+    public @Nullable String redeem(String token) {
+        String connectionId = tokens.remove(token);
+        if (connectionId != null) {
+            tokenByConnection.remove(connectionId, token);
+        }
+        return connectionId;
+    }
+
+    public boolean holdsToken(String connectionId) {
+        return tokenByConnection.containsKey(connectionId);
+    }
+
+    /**
+     * Routes a new session to an existing participant.
+     */
+    public void attach(String sessionId, String connectionId) {
+        String previous = sessionByConnection.put(connectionId, sessionId);
+        if (previous != null && !previous.equals(connectionId)) {
+            connectionBySession.remove(previous);
+        }
+        connectionBySession.put(sessionId, connectionId);
+    }
+
+    /**
+     * The participant connection ID a session acts as.
+     */
+    public String connectionIdFor(String sessionId) {
+        return connectionBySession.getOrDefault(sessionId, sessionId);
+    }
+
+    /**
+     * The session currently serving a participant connection ID.
+     */
+    public String sessionIdFor(String connectionId) {
+        return sessionByConnection.getOrDefault(connectionId, connectionId);
+    }
+
+    /**
+     * Whether a participant is currently served by a resumed session.
+     */
+    public boolean isAttached(String connectionId) {
+        return sessionByConnection.containsKey(connectionId);
+    }
+
+    /**
+     * Unregisters a closed session. Returns the connection ID it was serving, or null if
+     * another session has already taken that participant over.
+     */
+    public @Nullable String detach(String sessionId) {
+        String connectionId = connectionIdFor(sessionId);
+        if (!sessionIdFor(connectionId).equals(sessionId)) {
+            return null;
+        }
+        connectionBySession.remove(sessionId);
+        sessionByConnection.remove(connectionId);
+        return connectionId;
+    }
+
+    /**
+     * Drops the token and any session routing of a participant that has left for good.
+     */
+    public void forget(String connectionId) {
+        String token = tokenByConnection.remove(connectionId);
+        if (token != null) {
+            tokens.remove(token);
+        }
+        String sessionId = sessionByConnection.remove(connectionId);
+        if (sessionId != null) {
+            connectionBySession.remove(sessionId);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.watchparty.websocket;
+
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Picks up the {@value #RESUME_TOKEN_HEADER} and {@value #RESUME_SEQ_HEADER} CONNECT headers
+ * of a reconnecting client. The token is only redeemed on the following {@code /app/room.join},
+ * once the client has subscribed and can receive the replay.
+ */
+@Component
+public class SessionResumptionInterceptor implements ChannelInterceptor {
+
+    public static final String RESUME_TOKEN_HEADER = "x-resume-token";
+    public static final String RESUME_SEQ_HEADER = "x-resume-seq";
+
+    static final String RESUME_TOKEN_ATTR = "resumeToken";
+    static final String RESUME_SEQ_ATTR = "resumeSeq";
+
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            String token = accessor.getFirstNativeHeader(RESUME_TOKEN_HEADER);
+            Map<String, Object> sessionAttrs = accessor.getSessionAttributes();
+            if (sessionAttrs != null && token != null && !token.isBlank()) {
+                sessionAttrs.put(RESUME_TOKEN_ATTR, token);
+                parseSeq(accessor.getFirstNativeHeader(RESUME_SEQ_HEADER))
+                        .ifPresent(seq -> sessionAttrs.put(RESUME_SEQ_ATTR, seq));
+            }
+        }
+        return message;
+    }
+
+    private static Optional<Long> parseSeq(String value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        try {
+            long seq = Long.parseLong(value);
+            return seq >= 0 ? Optional.of(seq) : Optional.empty();
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+}
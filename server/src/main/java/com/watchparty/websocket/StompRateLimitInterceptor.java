@@ -0,0 +1,116 @@
+package com.watchparty.websocket;
+
+import com.watchparty.dto.ErrorMessage;
+import com.watchparty.presence.Participant;
+import com.watchparty.presence.PresenceRegistry;
+import com.watchparty.ratelimit.RateLimiter;
+import com.watchparty.ratelimit.StompRateLimitProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Drops inbound STOMP {@code SEND} frames that exceed their budget (see {@link StompRateLimitProperties})
+ * before they reach a {@code @MessageMapping} method.
+ * <p>
+ * Every frame is charged to its WebSocket session, and frames from room participants are also charged
+ * to the room, so a room full of clients can't flood its other members with player actions or chat.
+ * Frames that arrive before the sender has joined a room are only charged to the session. The sender
+ * is told about dropped frames on {@code /user/queue/errors}, except for destinations configured as
+ * silent, whose periodic senders are better served by simply losing a sample.
+ */
+@Component
+@EnableConfigurationProperties(StompRateLimitProperties.class)
+public class StompRateLimitInterceptor implements ChannelInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(StompRateLimitInterceptor.class);
+
+    private final RateLimiter sessionLimiter;
+    private final RateLimiter roomLimiter;
+    private final Set<String> silentDestinations;
+    private final SessionResumption resumption;
+    private final PresenceRegistry presence;
+    // The messaging template is built from the inbound channel this interceptor is registered on
+    private final ObjectProvider<SimpMessagingTemplate> messagingTemplate;
+
+    public StompRateLimitInterceptor(StompRateLimitProperties properties,
+                                     MeterRegistry meterRegistry,
+                                     SessionResumption resumption,
+                                     PresenceRegistry presence,
+                                     ObjectProvider<SimpMessagingTemplate> messagingTemplate) {
+        this.sessionLimiter = new RateLimiter(properties.session(), properties.expiryTick(), meterRegistry,
+                "stomp-session");
+        this.roomLimiter = new RateLimiter(properties.room(), properties.expiryTick(), meterRegistry,
+                "stomp-room");
+        this.silentDestinations = properties.silent();
+        this.resumption = resumption;
+        this.presence = presence;
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        String destination = accessor.getDestination();
+        String sessionId = accessor.getSessionId();
+        if (!StompCommand.SEND.equals(accessor.getCommand()) || destination == null || sessionId == null) {
+            return message;
+        }
+        if (admitted(sessionLimiter, destination, sessionId) && admittedForRoom(destination, sessionId)) {
+            return message;
+        }
+        log.debug("Dropped {} frame from session {}: rate limit exceeded", destination, sessionId);
+        if (!silentDestinations.contains(destination)) {
+            sendError(sessionId, destination);
+        }
+        return null;
+    }
+
+    /**
+     * Drops sessions and rooms that have been idle long enough to be back at a full allowance.
+     */
+    @Scheduled(fixedDelayString = "${websocket.rate-limit.expiry-tick:1s}")
+    void evictExpiredEntries() {
+        sessionLimiter.expire();
+        roomLimiter.expire();
+    }
+
+    private boolean admittedForRoom(String destination, String sessionId) {
+        if (roomLimiter.policyFor(destination) < 0) {
+            return true;
+        }
+        return presence.find(resumption.connectionIdFor(sessionId))
+                .map(Participant::getRoomId)
+                .map(roomId -> admitted(roomLimiter, destination, roomId))
+                .orElse(true);
+    }
+
+    private static boolean admitted(RateLimiter limiter, String destination, Object key) {
+        int policy = limiter.policyFor(destination);
+        return policy < 0 || limiter.acquire(policy, key) == RateLimiter.ADMITTED;
+    }
+
+    private void sendError(String sessionId, String destination) {
+        var headerAccessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headerAccessor.setSessionId(sessionId);
+        headerAccessor.setLeaveMutable(true);
+        messagingTemplate.getObject().convertAndSendToUser(sessionId, "/queue/errors",
+                new ErrorMessage("Rate limit exceeded for " + destination + ". Slow down and try again."),
+                headerAccessor.getMessageHeaders());
+    }
+}
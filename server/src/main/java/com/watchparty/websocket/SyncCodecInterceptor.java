@@ -0,0 +1,35 @@
+package com.watchparty.websocket;
+
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Records on CONNECT whether the client advertised support for the compact sync codec
+ * via the {@value SyncMessageConverter#CODEC_HEADER} header. Clients that don't send it
+ * keep receiving plain JSON.
+ */
+@Component
+public class SyncCodecInterceptor implements ChannelInterceptor {
+
+    static final String SYNC_CODEC_ATTR = "syncCodec";
+
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            String codec = accessor.getFirstNativeHeader(SyncMessageConverter.CODEC_HEADER);
+            Map<String, Object> sessionAttrs = accessor.getSessionAttributes();
+            if (sessionAttrs != null && SyncMessageConverter.CODEC_VERSION.equals(codec)) {
+                sessionAttrs.put(SYNC_CODEC_ATTR, Boolean.TRUE);
+            }
+        }
+        return message;
+    }
+}
@@ -0,0 +1,167 @@
+package com.watchparty.websocket;
+
+import com.watchparty.dto.PositionReportMessage;
+import com.watchparty.dto.SyncCorrectionMessage;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.util.MimeType;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Compact fixed-layout codec for the two highest-frequency sync messages,
+ * {@link PositionReportMessage} (client → server) and {@link SyncCorrectionMessage}
+ * (server → client).
+ * <p>
+ * Only used when the frame carries the {@link #MIME_TYPE} content type, which clients
+ * opt into with the {@value #CODEC_HEADER} CONNECT header (see {@link SyncCodecInterceptor}).
+ * Every other frame falls through to the default Jackson converter.
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ * POSITION_REPORT : tag(1) | currentTimeSeconds float64(8)
+ * SYNC_CORRECTION : tag(1) | correctionType(1) | targetTimeSeconds float64(8) | playbackRate permille varint(1-2)
+ * </pre>
+ * The bytes are sent base64-encoded because the SockJS transport only carries text frames;
+ * even so a correction is 16 characters on the wire instead of ~85 bytes of JSON.
+ */
+public class SyncMessageConverter extends AbstractMessageConverter {
+
+    public static final MimeType MIME_TYPE = MimeType.valueOf("application/vnd.watchparty.sync+base64");
+
+    /** STOMP CONNECT header a client sends to opt into this codec. */
+    public static final String CODEC_HEADER = "x-sync-codec";
+    public static final String CODEC_VERSION = "v1";
+
+    static final byte TAG_POSITION_REPORT = 1;
+    static final byte TAG_SYNC_CORRECTION = 2;
+
+    private static final String[] CORRECTION_TYPES = {"RATE_ADJUST", "SEEK", "RATE_RESET"};
+    private static final int POSITION_REPORT_LENGTH = 1 + Double.BYTES;
+    private static final int SYNC_CORRECTION_MAX_LENGTH = 2 + Double.BYTES + 5;
+
+    public SyncMessageConverter() {
+        super(MIME_TYPE);
+        // Never claim a frame unless it explicitly carries our content type
+        setStrictContentTypeMatch(true);
+    }
+
+    /**
+     * Returns whether the session negotiated the compact codec on CONNECT.
+     */
+    public static boolean isNegotiated(@Nullable Map<String, Object> sessionAttributes) {
+        return sessionAttributes != null
+                && Boolean.TRUE.equals(sessionAttributes.get(SyncCodecInterceptor.SYNC_CODEC_ATTR));
+    }
+
+    @Override
+    protected boolean supports(@NonNull Class<?> clazz) {
+        return clazz == PositionReportMessage.class || clazz == SyncCorrectionMessage.class;
+    }
+
+    @Override
+    protected Object convertFromInternal(@NonNull Message<?> message, @NonNull Class<?> targetClass,
+                                         @Nullable Object conversionHint) {
+        byte[] raw = switch (message.getPayload()) {
+            case byte[] bytes -> bytes;
+            case String text -> text.getBytes(StandardCharsets.US_ASCII);
+            default -> throw new MessageConversionException("Unsupported payload type for sync codec");
+        };
+        try {
+            return decode(Base64.getDecoder().decode(raw));
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            throw new MessageConversionException("Malformed sync codec payload", e);
+        }
+    }
+
+    @Override
+    protected Object convertToInternal(@NonNull Object payload, @Nullable MessageHeaders headers,
+                                       @Nullable Object conversionHint) {
+        return Base64.getEncoder().encode(encode(payload));
+    }
+
+    /**
+     * Encodes a supported message into its fixed binary layout (before base64).
+     */
+    static byte[] encode(Object payload) {
+        return switch (payload) {
+            case PositionReportMessage report -> ByteBuffer.allocate(POSITION_REPORT_LENGTH)
+                    .put(TAG_POSITION_REPORT)
+                    .putDouble(report.currentTimeSeconds())
+                    .array();
+            case SyncCorrectionMessage correction -> {
+                var buffer = ByteBuffer.allocate(SYNC_CORRECTION_MAX_LENGTH)
+                        .put(TAG_SYNC_CORRECTION)
+                        .put(correctionTypeCode(correction.correctionType()))
+                        .putDouble(correction.targetTimeSeconds());
+                writeVarint(buffer, (int) Math.round(correction.playbackRate() * 1000));
+                yield Arrays.copyOf(buffer.array(), buffer.position());
+            }
+            default -> throw new MessageConversionException(
+                    "Sync codec cannot encode " + payload.getClass().getSimpleName());
+        };
+    }
+
+    /**
+     * Decodes a fixed binary layout (after base64) back into its message record.
+     */
+    static Object decode(byte[] bytes) {
+        var buffer = ByteBuffer.wrap(bytes);
+        byte tag = buffer.get();
+        return switch (tag) {
+            case TAG_POSITION_REPORT -> new PositionReportMessage(buffer.getDouble());
+            case TAG_SYNC_CORRECTION -> {
+                String type = correctionTypeName(buffer.get());
+                double target = buffer.getDouble();
+                double rate = readVarint(buffer) / 1000.0;
+                yield new SyncCorrectionMessage(target, rate, type);
+            }
+            default -> throw new MessageConversionException("Unknown sync codec tag: " + tag);
+        };
+    }
+
+    private static byte correctionTypeCode(String correctionType) {
+        for (int i = 0; i < CORRECTION_TYPES.length; i++) {
+            if (CORRECTION_TYPES[i].equals(correctionType)) {
+                return (byte) i;
+            }
+        }
+        throw new MessageConversionException("Unknown correction type: " + correctionType);
+    }
+
+    private static String correctionTypeName(byte code) {
+        if (code < 0 || code >= CORRECTION_TYPES.length) {
+            throw new MessageConversionException("Unknown correction type code: " + code);
+        }
+        return CORRECTION_TYPES[code];
+    }
+
+    private static void writeVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int readVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new MessageConversionException("Varint too long");
+    }
+}
@@ -0,0 +1,34 @@
+package com.watchparty.websocket;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/syncquality} lists drift and correction statistics for every active room;
+ * {@code /actuator/syncquality/{code}} returns a single room's.
+ */
+@Component
+@Endpoint(id = "syncquality")
+public class SyncQualityEndpoint {
+
+    private final SyncQualityMetrics metrics;
+
+    public SyncQualityEndpoint(SyncQualityMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @ReadOperation
+    public Map<String, SyncQualityMetrics.RoomSyncStats> rooms() {
+        return metrics.rooms();
+    }
+
+    @ReadOperation
+    public SyncQualityMetrics.@Nullable RoomSyncStats room(@Selector String code) {
+        return metrics.room(code).orElse(null);
+    }
+}
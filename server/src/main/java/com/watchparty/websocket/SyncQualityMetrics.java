@@ -0,0 +1,146 @@
+package com.watchparty.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.jspecify.annotations.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sync quality as seen by the drift engine: how far position reports drift, which corrections
+ * that takes, and how long sessions need to converge after playback jumps.
+ * <p>
+ * Global figures go to Micrometer ({@code watchparty.sync.*}). Per-room figures would be one
+ * time series per room code there, so they are kept in memory instead, dropped when a room
+ * empties, and served by the {@code syncquality} actuator endpoint.
+ */
+@Component
+public class SyncQualityMetrics {
+
+    public record RoomSyncStats(long reports, long p50DriftMs, long p90DriftMs, long p99DriftMs,
+                                long seekCorrections, long rateAdjustCorrections,
+                                long convergences, long meanConvergenceMs, long maxConvergenceMs) {}
+
+    private static final class RoomStats {
+        final DriftHistogram drift = new DriftHistogram();
+        final LongAdder seeks = new LongAdder();
+        final LongAdder rateAdjusts = new LongAdder();
+        final LongAdder convergences = new LongAdder();
+        final LongAdder convergenceTotalMs = new LongAdder();
+        final LongAccumulator convergenceMaxMs = new LongAccumulator(Math::max, 0);
+    }
+
+    private record PendingConvergence(String roomCode, Instant since) {}
+
+    private final DistributionSummary drift;
+    private final Counter seeks;
+    private final Counter rateAdjusts;
+    private final Timer convergence;
+    private final AtomicLong trackedRooms = new AtomicLong();
+    private final Map<String, RoomStats> rooms = new ConcurrentHashMap<>();
+    private final Map<String, PendingConvergence> pending = new ConcurrentHashMap<>();
+
+    public SyncQualityMetrics(MeterRegistry registry) {
+        this.drift = DistributionSummary.builder("watchparty.sync.drift")
+                .description("Absolute drift of position reports from the room's position")
+                .baseUnit("milliseconds")
+                .publishPercentileHistogram()
+                .maximumExpectedValue((double) DriftHistogram.MAX_VALUE_MS)
+                .register(registry);
+        this.seeks = correctionCounter(registry, "SEEK");
+        this.rateAdjusts = correctionCounter(registry, "RATE_ADJUST");
+        this.convergence = Timer.builder("watchparty.sync.convergence")
+                .description("Time from a scheduled PLAY/SEEK/CHANGE_VIDEO to a session's first in-sync report")
+                .publishPercentileHistogram()
+                .register(registry);
+        registry.gauge("watchparty.sync.rooms", trackedRooms);
+    }
+
+    private static Counter correctionCounter(MeterRegistry registry, String type) {
+        return Counter.builder("watchparty.sync.corrections")
+                .description("Drift corrections sent to clients")
+                .tag("type", type)
+                .register(registry);
+    }
+
+    /**
+     * Records one position report. {@code correctionType} is the correction it triggered, if any.
+     */
+    public void recordReport(String roomCode, String sessionId, double driftSeconds,
+                             @Nullable String correctionType) {
+        long driftMs = Math.round(Math.abs(driftSeconds) * 1000);
+        RoomStats stats = rooms.computeIfAbsent(roomCode, code -> {
+            trackedRooms.incrementAndGet();
+            return new RoomStats();
+        });
+        drift.record(driftMs);
+        stats.drift.record(driftMs);
+
+        if ("SEEK".equals(correctionType)) {
+            seeks.increment();
+            stats.seeks.increment();
+        } else if ("RATE_ADJUST".equals(correctionType)) {
+            rateAdjusts.increment();
+            stats.rateAdjusts.increment();
+        } else if (correctionType == null) {
+            PendingConvergence converged = pending.remove(sessionId);
+            if (converged != null && converged.roomCode().equals(roomCode)) {
+                long ms = Math.max(0, Duration.between(converged.since(), Instant.now()).toMillis());
+                convergence.record(Duration.ofMillis(ms));
+                stats.convergences.increment();
+                stats.convergenceTotalMs.add(ms);
+                stats.convergenceMaxMs.accumulate(ms);
+            }
+        }
+    }
+
+    /**
+     * Starts timing a session's convergence to a playback jump that takes effect at {@code since}.
+     */
+    public void awaitConvergence(String roomCode, String sessionId, Instant since) {
+        pending.put(sessionId, new PendingConvergence(roomCode, since));
+    }
+
+    public Optional<RoomSyncStats> room(String roomCode) {
+        RoomStats stats = rooms.get(roomCode);
+        if (stats == null) {
+            return Optional.empty();
+        }
+        long convergences = stats.convergences.sum();
+        return Optional.of(new RoomSyncStats(
+                stats.drift.count(),
+                stats.drift.percentile(50), stats.drift.percentile(90), stats.drift.percentile(99),
+                stats.seeks.sum(), stats.rateAdjusts.sum(),
+                convergences,
+                convergences > 0 ? stats.convergenceTotalMs.sum() / convergences : 0,
+                stats.convergenceMaxMs.get()));
+    }
+
+    public Map<String, RoomSyncStats> rooms() {
+        Map<String, RoomSyncStats> snapshot = new TreeMap<>();
+        rooms.keySet().forEach(code -> room(code).ifPresent(stats -> snapshot.put(code, stats)));
+        return snapshot;
+    }
+
+    public void forgetSession(String sessionId) {
+        pending.remove(sessionId);
+    }
+
+    public void evictRoom(String roomCode) {
+        if (rooms.remove(roomCode) != null) {
+            trackedRooms.decrementAndGet();
+        }
+        pending.values().removeIf(p -> p.roomCode().equals(roomCode));
+    }
+}
@@ -0,0 +1,47 @@
+package com.watchparty.websocket;
+
+import com.watchparty.dto.TokenRefreshHintMessage;
+import org.springframework.context.ApplicationListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends an authenticated session the refresh hint for the access token it connected with as soon
+ * as it subscribes to {@value #DESTINATION}. Clients that spend a whole token lifetime in a room
+ * make no HTTP calls, so this is their only source of the {@code X-Token-Refresh-In} hint.
+ */
+@Component
+public class TokenRefreshAdvisor implements ApplicationListener<SessionSubscribeEvent> {
+
+    static final String DESTINATION = "/user/queue/token.refresh";
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    public TokenRefreshAdvisor(SimpMessagingTemplate messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    @Override
+    public void onApplicationEvent(@org.springframework.lang.NonNull SessionSubscribeEvent event) {
+        var accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        Map<String, Object> sessionAttrs = accessor.getSessionAttributes();
+        String sessionId = accessor.getSessionId();
+        if (!DESTINATION.equals(accessor.getDestination()) || sessionAttrs == null || sessionId == null
+                || !(sessionAttrs.get(WebSocketAuthChannelInterceptor.REFRESH_AT_ATTR) instanceof Long refreshAt)) {
+            return;
+        }
+        long refreshInSeconds = Math.max(0, TimeUnit.MILLISECONDS.toSeconds(refreshAt - System.currentTimeMillis()));
+
+        var headerAccessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headerAccessor.setSessionId(sessionId);
+        headerAccessor.setLeaveMutable(true);
+        messagingTemplate.convertAndSendToUser(sessionId, "/queue/token.refresh",
+                new TokenRefreshHintMessage(refreshInSeconds), headerAccessor.getMessageHeaders());
+    }
+}
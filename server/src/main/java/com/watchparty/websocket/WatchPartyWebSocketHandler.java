@@ -1,21 +1,26 @@
 package com.watchparty.websocket;
 
+import com.watchparty.datasource.ReplicaLagGuard;
 import com.watchparty.dto.*;
 import com.watchparty.entity.ControlMode;
-import com.watchparty.entity.Participant;
 import com.watchparty.entity.PlaybackMode;
 import com.watchparty.entity.Room;
+import com.watchparty.entity.SyncStrategy;
 import com.watchparty.exception.RoomNotFoundException;
-import com.watchparty.repository.ParticipantRepository;
+import com.watchparty.presence.Participant;
+import com.watchparty.presence.PresenceRegistry;
 import com.watchparty.repository.PlaylistItemRepository;
 import com.watchparty.repository.RoomRepository;
 import com.watchparty.repository.UserRepository;
 import com.watchparty.service.ChatService;
 import com.watchparty.service.PlaylistService;
+import com.watchparty.service.RefreshTokenCache;
+import com.watchparty.service.RoomStateWriter;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validator;
 import org.jsoup.Jsoup;
 import org.jsoup.safety.Safelist;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.lang.NonNull;
@@ -30,126 +35,346 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Controller
 public class WatchPartyWebSocketHandler {
 
     private static final Logger log = LoggerFactory.getLogger(WatchPartyWebSocketHandler.class);
 
+    private static final Set<String> PLAYER_ACTIONS = Set.of("PLAY", "PAUSE", "SEEK", "CHANGE_VIDEO", "SYNC");
+    private static final Set<String> SCHEDULED_ACTIONS = Set.of("PLAY", "SEEK", "CHANGE_VIDEO");
+
     private final RoomRepository roomRepository;
-    private final ParticipantRepository participantRepository;
+    private final PresenceRegistry presence;
     private final PlaylistItemRepository playlistItemRepository;
     private final UserRepository userRepository;
+    private final RefreshTokenCache refreshTokenCache;
     private final SimpMessagingTemplate messagingTemplate;
     private final ChatService chatService;
     private final PlaylistService playlistService;
+    private final RoomPayloadCache payloadCache;
+    private final JoinAdmissionService admission;
+    private final RosterBroadcaster rosterBroadcaster;
+    private final DepartureBuffer departures;
+    private final SessionResumption resumption;
+    private final RoomEventLog eventLog;
+    private final ClockSync clockSync;
+    private final ReportCadence reportCadence;
+    private final SyncQualityMetrics syncMetrics;
+    private final ReferenceTimeline timeline;
+    private final RoomStateWriter roomStateWriter;
+    private final ReplicaLagGuard replicaLag;
     private final Validator validator;
 
     public WatchPartyWebSocketHandler(RoomRepository roomRepository,
-                                       ParticipantRepository participantRepository,
+                                       PresenceRegistry presence,
                                        PlaylistItemRepository playlistItemRepository,
                                        UserRepository userRepository,
+                                       RefreshTokenCache refreshTokenCache,
                                        SimpMessagingTemplate messagingTemplate,
                                        ChatService chatService,
                                        PlaylistService playlistService,
+                                       RoomPayloadCache payloadCache,
+                                       JoinAdmissionService admission,
+                                       RosterBroadcaster rosterBroadcaster,
+                                       DepartureBuffer departures,
+                                       SessionResumption resumption,
+                                       RoomEventLog eventLog,
+                                       ClockSync clockSync,
+                                       ReportCadence reportCadence,
+                                       SyncQualityMetrics syncMetrics,
+                                       ReferenceTimeline timeline,
+                                       RoomStateWriter roomStateWriter,
+                                       ReplicaLagGuard replicaLag,
                                        Validator validator) {
         this.roomRepository = roomRepository;
-        this.participantRepository = participantRepository;
+        this.presence = presence;
         this.playlistItemRepository = playlistItemRepository;
         this.userRepository = userRepository;
+        this.refreshTokenCache = refreshTokenCache;
         this.messagingTemplate = messagingTemplate;
         this.chatService = chatService;
         this.playlistService = playlistService;
+        this.payloadCache = payloadCache;
+        this.admission = admission;
+        this.rosterBroadcaster = rosterBroadcaster;
+        this.departures = departures;
+        this.resumption = resumption;
+        this.eventLog = eventLog;
+        this.clockSync = clockSync;
+        this.reportCadence = reportCadence;
+        this.syncMetrics = syncMetrics;
+        this.timeline = timeline;
+        this.roomStateWriter = roomStateWriter;
+        this.replicaLag = replicaLag;
         this.validator = validator;
     }
 
     @MessageMapping("/room.join")
-    @Transactional
     public void joinRoom(@Payload JoinRoomMessage message, SimpMessageHeaderAccessor headerAccessor) {
         String sessionId = requireSessionId(headerAccessor);
         validatePayload(message, sessionId);
 
-        Room room = roomRepository.findByCode(message.roomCode())
-                .orElseThrow(() -> new RoomNotFoundException(message.roomCode()));
+        if (!admission.tryBeginJoin()) {
+            sendAdmission(sessionId, AdmissionMessage.retry(admission.estimatedRetrySeconds()));
+            return;
+        }
+        long startedNanos = System.nanoTime();
+        try {
+            Room room = roomRepository.findByCode(message.roomCode())
+                    .orElseThrow(() -> new RoomNotFoundException(message.roomCode()));
 
-        List<Participant> existingParticipants = participantRepository.findByRoomId(room.getId());
-        boolean isFirstParticipant = existingParticipants.isEmpty();
+            List<Participant> existingParticipants = presence.participants(room.getId());
 
-        UUID userId = getUserId(headerAccessor);
-        // Authenticated users: use display name from DB; guests: sanitize client-provided nickname
-        String nickname;
-        if (userId != null) {
-            nickname = userRepository.findById(userId)
-                    .map(user -> user.getDisplayName())
-                    .orElse(sanitizeText(message.nickname()));
-        } else {
-            nickname = sanitizeText(message.nickname());
+            UUID userId = getUserId(headerAccessor);
+
+            // Reconnect: take the old seat back, host status included, without anyone else noticing
+            Optional<Participant> previousSeat = claimPreviousSeat(headerAccessor, existingParticipants, userId);
+            if (previousSeat.isPresent()) {
+                resume(room, existingParticipants, previousSeat.get(), sessionId, getResumeSeq(headerAccessor));
+                return;
+            }
+
+            // Authenticated users: use their current display name, from the cache kept by logins and
+            // refreshes (and updated by profile changes) or else the DB. Not the one in the access
+            // token, which can be up to an hour old. Guests: sanitize client-provided nickname
+            String nickname;
+            if (userId != null) {
+                nickname = Optional.ofNullable(refreshTokenCache.user(userId))
+                        .map(RefreshTokenCache.CachedUser::displayName)
+                        .or(() -> userRepository.findById(userId).map(user -> user.getDisplayName()))
+                        .orElse(sanitizeText(message.nickname()));
+            } else {
+                nickname = sanitizeText(message.nickname());
+            }
+
+            var join = new JoinAdmissionService.PendingJoin(sessionId, nickname, userId);
+            // Cheap early check that also keeps joins from overtaking the queue; the seat itself
+            // is claimed atomically by admit, which may still find the room full
+            if (!admission.hasCapacity(room.getId(), existingParticipants.size()) || admit(room, join) == null) {
+                int position = admission.enqueue(room.getId(), join);
+                sendAdmission(sessionId,
+                        AdmissionMessage.queued(position, admission.estimatedWaitSeconds(room.getId(), position)));
+            }
+        } finally {
+            admission.endJoin(startedNanos);
         }
+    }
+
+    /**
+     * Seats a participant in the room, announces it to the others and sends the newcomer its welcome frame.
+     *
+     * @return the new participant, or null if the room filled up before the seat could be claimed
+     */
+    private @Nullable Participant admit(Room room, JoinAdmissionService.PendingJoin join) {
+        String sessionId = join.sessionId();
 
         var participant = new Participant();
-        participant.setNickname(nickname);
+        participant.setNickname(join.nickname());
         participant.setConnectionId(sessionId);
-        participant.setHost(isFirstParticipant);
-        participant.setRoom(room);
+        participant.setRoomId(room.getId());
 
-        if (userId != null) {
-            participant.setUserId(userId);
+        if (join.userId() != null) {
+            participant.setUserId(join.userId());
         }
 
-        participantRepository.save(participant);
+        PresenceRegistry.Claim claim = presence.tryAdd(participant, admission.maxParticipants());
+        if (!claim.admitted()) {
+            return null;
+        }
 
-        if (isFirstParticipant) {
+        if (claim.outcome() == PresenceRegistry.Outcome.HOST) {
+            // Kept on the local copy too, for the welcome frame and any joins admitted after this one
             room.setHostConnectionId(sessionId);
-            roomRepository.save(room);
+            roomStateWriter.update(room.getId(), r -> r.setHostConnectionId(sessionId));
         }
 
-        broadcastRoomState(room);
+        // Existing members only need the newcomer; bursts of joins are coalesced into one update
+        ParticipantMessage joined = toParticipantMessage(participant);
+        rosterBroadcaster.participantJoined(room.getCode(), joined, room.getHostConnectionId());
+
+        List<ParticipantMessage> roster = claim.roster().stream()
+                .map(WatchPartyWebSocketHandler::toParticipantMessage)
+                .toList();
+
+        sendWelcome(room, roster, sessionId);
+        return participant;
+    }
 
-        // Send the session ID back so the client knows its own connectionId for WebRTC
-        messagingTemplate.convertAndSendToUser(sessionId, "/queue/session.info",
-                Objects.requireNonNull(Map.of("connectionId", sessionId)),
+    /**
+     * Finds the seat a reconnecting session may take back: the one named by the resume token it
+     * presented on CONNECT or, for authenticated users, their own seat while it is in its grace period.
+     */
+    private Optional<Participant> claimPreviousSeat(SimpMessageHeaderAccessor headerAccessor,
+                                                    List<Participant> roster, UUID userId) {
+        Map<String, Object> sessionAttrs = headerAccessor.getSessionAttributes();
+        String token = sessionAttrs != null
+                ? (String) sessionAttrs.remove(SessionResumptionInterceptor.RESUME_TOKEN_ATTR)
+                : null;
+        if (token != null) {
+            String connectionId = resumption.redeem(token);
+            Optional<Participant> seat = roster.stream()
+                    .filter(p -> p.getConnectionId().equals(connectionId))
+                    .findFirst();
+            if (seat.isPresent()) {
+                // The old session may not even have been noticed as closed yet
+                departures.cancel(connectionId);
+                return seat;
+            }
+        }
+        if (userId != null) {
+            return roster.stream()
+                    .filter(p -> userId.equals(p.getUserId()) && departures.cancel(p.getConnectionId()))
+                    .findFirst();
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Reattaches a participant to a new session. The participant keeps its connection ID, so the
+     * rest of the room sees no change; the client gets what it missed since {@code resumeSeq}, or
+     * fresh snapshots when that is no longer in the event log.
+     */
+    private void resume(Room room, List<Participant> roster, Participant participant, String sessionId,
+                        Long resumeSeq) {
+        String connectionId = participant.getConnectionId();
+        resumption.attach(sessionId, connectionId);
+
+        String code = room.getCode();
+        long lastSeq = eventLog.lastSeq(code);
+        Optional<List<RoomEvent>> missed = resumeSeq != null ? eventLog.eventsAfter(code, resumeSeq) : Optional.empty();
+        if (missed.isPresent() && !missed.get().isEmpty()) {
+            lastSeq = Math.max(lastSeq, missed.get().getLast().seq());
+        }
+
+        UUID roomId = room.getId();
+        var message = new RoomResumeMessage(
+                connectionId,
+                resumption.issue(connectionId),
+                lastSeq,
+                toRoomState(room, roster.stream().map(WatchPartyWebSocketHandler::toParticipantMessage).toList()),
+                missed.orElse(null),
+                missed.isPresent() ? null : payloadCache.playlist(roomId, () -> playlistService.getPlaylist(roomId)),
+                missed.isPresent() ? null : payloadCache.chatHistory(roomId, () -> chatService.getChatHistory(roomId)));
+        messagingTemplate.convertAndSendToUser(sessionId, "/queue/room.resume", message,
                 createHeaders(sessionId));
+    }
 
-        PlaylistResponse playlist = playlistService.getPlaylist(room.getId());
-        messagingTemplate.convertAndSendToUser(sessionId, "/queue/playlist.history", playlist,
+    /**
+     * Sends the connection ID (needed for WebRTC), room state and snapshots in a single frame.
+     */
+    private void sendWelcome(Room room, List<ParticipantMessage> roster, String sessionId) {
+        UUID roomId = room.getId();
+        // Read before the snapshots, so a resume replays from no later than what they contain
+        long lastSeq = eventLog.lastSeq(room.getCode());
+        var welcome = new RoomWelcomeMessage(
+                sessionId,
+                resumption.issue(sessionId),
+                lastSeq,
+                toRoomState(room, roster),
+                payloadCache.playlist(roomId, () -> playlistService.getPlaylist(roomId)),
+                payloadCache.chatHistory(roomId, () -> chatService.getChatHistory(roomId)));
+        messagingTemplate.convertAndSendToUser(sessionId, "/queue/room.welcome", welcome,
                 createHeaders(sessionId));
+    }
 
-        List<ChatMessageResponse> chatHistory = chatService.getChatHistory(room.getId());
-        messagingTemplate.convertAndSendToUser(sessionId, "/queue/chat.history", chatHistory,
+    /**
+     * Hands the slots freed by departures to queued joins and tells the rest of the queue
+     * where they now stand.
+     */
+    private void admitWaiting(Room room, int freedSlots) {
+        int admitted = 0;
+        while (admitted < freedSlots) {
+            JoinAdmissionService.PendingJoin next = admission.pollWaiting(room.getId());
+            if (next == null) {
+                return;
+            }
+            if (admit(room, next) == null) {
+                // A concurrent join took the slot; keep this one first in line
+                admission.requeueFirst(room.getId(), next);
+                break;
+            }
+            admitted++;
+        }
+
+        List<JoinAdmissionService.PendingJoin> waiting = admission.waiting(room.getId());
+        for (int i = 0; i < waiting.size(); i++) {
+            int position = i + 1;
+            sendAdmission(waiting.get(i).sessionId(),
+                    AdmissionMessage.queued(position, admission.estimatedWaitSeconds(room.getId(), position)));
+        }
+    }
+
+    private void sendAdmission(String sessionId, AdmissionMessage message) {
+        messagingTemplate.convertAndSendToUser(sessionId, "/queue/room.admission", message,
                 createHeaders(sessionId));
     }
 
     @MessageMapping("/room.leave")
-    @Transactional
     public void leaveRoom(SimpMessageHeaderAccessor headerAccessor) {
         String sessionId = requireSessionId(headerAccessor);
-        handleParticipantLeave(sessionId);
+        forgetSession(sessionId);
+        String connectionId = resumption.detach(sessionId);
+        if (connectionId != null) {
+            departures.schedule(connectionId, false);
+        }
     }
 
     @MessageMapping("/room.player")
-    @Transactional
     public void playerAction(@Payload PlayerStateMessage message, SimpMessageHeaderAccessor headerAccessor) {
         String sessionId = requireSessionId(headerAccessor);
         validatePayload(message, sessionId);
 
-        Participant participant = participantRepository.findByConnectionId(sessionId)
-                .orElseThrow(() -> new IllegalStateException("Participant not found for session: " + sessionId));
+        Participant participant = requireParticipant(sessionId);
 
-        Room room = participant.getRoom();
+        Room room = requireRoom(participant);
 
         if (room.getControlMode() == ControlMode.HOST_ONLY && !participant.isHost()) {
-            messagingTemplate.convertAndSend(
-                    "/topic/room." + room.getCode(),
-                    new ErrorMessage("Only the host can control playback in HOST_ONLY mode"));
+            eventLog.publish(room.getCode(), "", new ErrorMessage("Only the host can control playback in HOST_ONLY mode"));
             return;
         }
+        if (!PLAYER_ACTIONS.contains(message.action())) {
+            throw new IllegalArgumentException("Unknown player action: " + message.action());
+        }
+
+        // Starts are scheduled slightly ahead so every client applies them at the same moment;
+        // the room's position only starts advancing from then on. Other actions apply on arrival,
+        // whatever executeAt the client may have sent.
+        Instant effectiveAt = Instant.now();
+        PlayerStateMessage broadcast = message.unscheduled();
+        if (SCHEDULED_ACTIONS.contains(message.action())) {
+            // Seats in their grace period have no session to schedule for or converge
+            List<String> sessionIds = presence.participants(room.getId()).stream()
+                    .filter(p -> !departures.isPending(p.getConnectionId()))
+                    .map(p -> resumption.sessionIdFor(p.getConnectionId()))
+                    .toList();
+            effectiveAt = effectiveAt.plusMillis(clockSync.scheduleLeadMs(sessionIds));
+            broadcast = message.scheduledAt(effectiveAt.toEpochMilli());
+            for (String id : sessionIds) {
+                reportCadence.restart(id).ifPresent(interval -> sendReportInterval(id, interval));
+                syncMetrics.awaitConvergence(room.getCode(), id, effectiveAt);
+            }
+        }
 
+        Instant stateUpdatedAt = effectiveAt;
+        roomStateWriter.update(room.getId(), r -> {
+            applyPlayerAction(r, message);
+            r.setStateUpdatedAt(stateUpdatedAt);
+        });
+        timeline.reset(room.getId());
+
+        eventLog.publish(room.getCode(), "", broadcast);
+    }
+
+    private static void applyPlayerAction(Room room, PlayerStateMessage message) {
         switch (message.action()) {
             case "PLAY" -> {
                 room.setPlaying(true);
@@ -169,13 +394,7 @@ public class WatchPartyWebSocketHandler {
                 room.setCurrentTimeSeconds(message.currentTimeSeconds());
                 room.setPlaying(message.isPlaying());
             }
-            default -> throw new IllegalArgumentException("Unknown player action: " + message.action());
         }
-
-        room.setStateUpdatedAt(Instant.now());
-        roomRepository.save(room);
-
-        messagingTemplate.convertAndSend("/topic/room." + room.getCode(), message);
     }
 
     @MessageMapping("/room.sync")
@@ -183,48 +402,131 @@ public class WatchPartyWebSocketHandler {
     public void syncState(SimpMessageHeaderAccessor headerAccessor) {
         String sessionId = requireSessionId(headerAccessor);
 
-        Participant participant = participantRepository.findByConnectionId(sessionId)
-                .orElseThrow(() -> new IllegalStateException("Participant not found for session: " + sessionId));
+        Participant participant = requireParticipant(sessionId);
 
-        Room room = participant.getRoom();
+        Room room = requireRoom(participant);
         broadcastRoomState(room);
     }
 
+    /**
+     * Sends a client the room broadcasts it missed after {@code afterSeq}, e.g. when it notices a
+     * gap in the sequence numbers. Only falls back to full snapshots once those events have been
+     * dropped from the event log.
+     */
+    @MessageMapping("/room.catchup")
+    @Transactional(readOnly = true)
+    public void catchUp(@Payload CatchUpRequest request, SimpMessageHeaderAccessor headerAccessor) {
+        String sessionId = requireSessionId(headerAccessor);
+
+        Participant participant = requireParticipant(sessionId);
+
+        Room room = requireRoom(participant);
+        String code = room.getCode();
+        long lastSeq = eventLog.lastSeq(code);
+        Optional<List<RoomEvent>> missed = eventLog.eventsAfter(code, request.afterSeq());
+        RoomCatchUpMessage message;
+        if (missed.isPresent()) {
+            if (!missed.get().isEmpty()) {
+                lastSeq = Math.max(lastSeq, missed.get().getLast().seq());
+            }
+            message = new RoomCatchUpMessage(lastSeq, missed.get(), null, null, null);
+        } else {
+            UUID roomId = room.getId();
+            List<ParticipantMessage> roster = presence.participants(roomId).stream()
+                    .map(WatchPartyWebSocketHandler::toParticipantMessage)
+                    .toList();
+            message = new RoomCatchUpMessage(lastSeq, null, toRoomState(room, roster),
+                    payloadCache.playlist(roomId, () -> playlistService.getPlaylist(roomId)),
+                    payloadCache.chatHistory(roomId, () -> chatService.getChatHistory(roomId)));
+        }
+        messagingTemplate.convertAndSendToUser(sessionId, "/queue/room.catchup", message,
+                createHeaders(sessionId));
+    }
+
     @MessageMapping("/room.position.report")
     @Transactional(readOnly = true)
     public void reportPosition(@Payload PositionReportMessage report, SimpMessageHeaderAccessor headerAccessor) {
         String sessionId = requireSessionId(headerAccessor);
 
-        Participant participant = participantRepository.findByConnectionId(sessionId)
-                .orElseThrow(() -> new IllegalStateException("Participant not found for session: " + sessionId));
+        Participant participant = requireParticipant(sessionId);
 
-        Room room = participant.getRoom();
+        Room room = requireRoom(participant);
 
         if (!room.isPlaying() || room.getCurrentVideoUrl() == null) {
             return;
         }
 
-        double expectedPosition = calculateExpectedPosition(room);
-        double drift = report.currentTimeSeconds() - expectedPosition;
+        // The report was sampled one network delay ago and a correction lands one delay from
+        // now, so compare against where playback was then and aim for where it will be
+        Optional<ClockSync.Estimate> clock = clockSync.estimate(sessionId);
+        double oneWayDelay = clock.map(ClockSync.Estimate::oneWayDelaySeconds).orElse(0.0);
+        if (room.getSyncStrategy() != SyncStrategy.SERVER_CLOCK) {
+            timeline.record(room.getId(), participant.getConnectionId(), report.currentTimeSeconds() + oneWayDelay);
+            if (room.getSyncStrategy() == SyncStrategy.HOST && participant.isHost()) {
+                // The host defines the timeline, so it is never corrected and keeps reporting often
+                reportCadence.restart(sessionId).ifPresent(interval -> sendReportInterval(sessionId, interval));
+                return;
+            }
+        }
+        double expectedPosition = expectedPosition(room);
+        double drift = report.currentTimeSeconds() - (expectedPosition - oneWayDelay);
         double absDrift = Math.abs(drift);
+        double target = expectedPosition + oneWayDelay;
 
         SyncCorrectionMessage correction = null;
 
         if (absDrift >= 5.0) {
-            correction = SyncCorrectionMessage.seek(expectedPosition);
+            correction = SyncCorrectionMessage.seek(target);
         } else if (absDrift >= 2.0) {
-            correction = SyncCorrectionMessage.seek(expectedPosition);
-        } else if (absDrift >= 0.5) {
+            correction = SyncCorrectionMessage.seek(target);
+        } else if (absDrift >= clockSync.rateAdjustThreshold(clock)) {
             // Behind → speed up, ahead → slow down
             double rate = drift < 0 ? 1.05 : 0.95;
-            correction = SyncCorrectionMessage.rateAdjust(expectedPosition, rate);
+            correction = SyncCorrectionMessage.rateAdjust(target, rate);
         }
 
         if (correction != null) {
             messagingTemplate.convertAndSendToUser(
                     sessionId, "/queue/sync.correction", correction,
-                    createHeaders(sessionId));
+                    createSyncHeaders(sessionId, headerAccessor));
+        }
+        syncMetrics.recordReport(room.getCode(), sessionId, drift,
+                correction != null ? correction.correctionType() : null);
+        reportCadence.observe(sessionId, correction == null)
+                .ifPresent(interval -> sendReportInterval(sessionId, interval));
+    }
+
+    private void sendReportInterval(String sessionId, long intervalMs) {
+        messagingTemplate.convertAndSendToUser(sessionId, "/queue/sync.interval",
+                new ReportIntervalMessage(intervalMs), createHeaders(sessionId));
+    }
+
+    /**
+     * NTP-style clock sync: echoes the client's send time with the server's receive and send
+     * times, and folds in the round trip the client measured from its previous ping.
+     */
+    @MessageMapping("/time.ping")
+    public void timePing(@Payload TimePingMessage ping, SimpMessageHeaderAccessor headerAccessor) {
+        double receivedAt = ClockSync.now();
+        String sessionId = requireSessionId(headerAccessor);
+
+        if (ping.lastRttMs() != null && ping.lastOffsetMs() != null) {
+            clockSync.record(sessionId, ping.lastRttMs(), ping.lastOffsetMs());
         }
+        messagingTemplate.convertAndSendToUser(sessionId, "/queue/time.pong",
+                new TimePongMessage(ping.clientSendTime(), receivedAt, ClockSync.now()),
+                createHeaders(sessionId));
+    }
+
+    /**
+     * Where the room's playback is now according to its {@link SyncStrategy}.
+     */
+    private double expectedPosition(Room room) {
+        if (!room.isPlaying()) {
+            return room.getCurrentTimeSeconds();
+        }
+        return timeline.position(room.getId(), room.getSyncStrategy(), room.getHostConnectionId())
+                .orElseGet(() -> calculateExpectedPosition(room));
     }
 
     double calculateExpectedPosition(Room room) {
@@ -239,47 +541,106 @@ public class WatchPartyWebSocketHandler {
         return room.getCurrentTimeSeconds() + Math.max(0, elapsed);
     }
 
-    public void handleParticipantLeave(String sessionId) {
-        Optional<Participant> participantOpt = participantRepository.findByConnectionId(sessionId);
-        if (participantOpt.isEmpty()) {
-            return;
+    /**
+     * Called when a session's connection drops. The participant stays in the room for the
+     * grace period (the resume TTL if it holds a resume token) so a reconnect can take its seat back.
+     */
+    public void handleDisconnect(String sessionId) {
+        admission.cancel(sessionId);
+        forgetSession(sessionId);
+        String connectionId = resumption.detach(sessionId);
+        if (connectionId == null) {
+            return; // a newer session has already resumed this participant
+        }
+        if (resumption.holdsToken(connectionId)) {
+            departures.schedule(connectionId, resumption.ttl());
+        } else {
+            departures.schedule(connectionId, true);
         }
+    }
 
-        Participant participant = participantOpt.get();
-        UUID roomId = Objects.requireNonNull(participant.getRoom().getId());
-        Optional<Room> roomOpt = roomRepository.findById(roomId);
-        if (roomOpt.isEmpty()) return;
+    /**
+     * Releases the seats of sessions that stopped sending heartbeats. They have been silent for
+     * longer than a reconnecting client would take, so no grace period applies.
+     */
+    public void handleDeadSessions(Collection<String> sessionIds) {
+        for (String sessionId : sessionIds) {
+            admission.cancel(sessionId);
+            forgetSession(sessionId);
+            String connectionId = resumption.detach(sessionId);
+            if (connectionId != null) {
+                departures.schedule(connectionId, false);
+            }
+        }
+    }
 
-        Room room = roomOpt.get();
+    /**
+     * Removes a batch of departed sessions, handling each affected room once: one delete,
+     * at most one host election and a single roster update. A room that fails is logged and
+     * its seats are released anyway, so neither they nor the other rooms in the batch are left behind.
+     */
+    public void handleParticipantLeaves(Collection<String> connectionIds) {
+        Map<UUID, List<Participant>> leavingByRoom = presence.findAll(connectionIds).stream()
+                // Resumed after being drained for removal: the seat is taken again
+                .filter(p -> !resumption.isAttached(p.getConnectionId()))
+                .collect(Collectors.groupingBy(Participant::getRoomId));
+
+        leavingByRoom.forEach((roomId, leaving) -> {
+            try {
+                roomRepository.findById(roomId).ifPresent(room -> removeParticipants(room, leaving));
+            } catch (RuntimeException ex) {
+                log.error("Failed to remove {} departed participants from room {}", leaving.size(), roomId, ex);
+                presence.removeAll(leaving);
+            }
+        });
+    }
 
-        boolean wasHost = participant.isHost();
+    /**
+     * Drops the clock, report cadence and convergence state kept for a session.
+     */
+    private void forgetSession(String sessionId) {
+        clockSync.forget(sessionId);
+        reportCadence.forget(sessionId);
+        syncMetrics.forgetSession(sessionId);
+    }
 
-        participantRepository.delete(participant);
+    private void removeParticipants(Room room, List<Participant> leaving) {
+        presence.removeAll(leaving);
+        List<String> left = leaving.stream().map(Participant::getConnectionId).toList();
+        left.forEach(connectionId -> {
+            forgetSession(resumption.sessionIdFor(connectionId));
+            resumption.forget(connectionId);
+        });
+        timeline.forget(room.getId(), left);
 
-        List<Participant> remaining = participantRepository.findByRoomId(room.getId());
+        List<Participant> remaining = presence.participants(room.getId());
 
         if (remaining.isEmpty()) {
             room.setHostConnectionId(null);
-            roomRepository.save(room);
+            roomStateWriter.update(room.getId(), r -> r.setHostConnectionId(null));
+            payloadCache.evictRoom(room.getId());
+            eventLog.evict(room.getCode());
+            syncMetrics.evictRoom(room.getCode());
+            timeline.reset(room.getId());
+            admitWaiting(room, leaving.size());
             return;
         }
 
-        if (wasHost) {
-            Participant newHost = remaining.getFirst();
-            newHost.setHost(true);
-            participantRepository.save(newHost);
+        if (leaving.stream().anyMatch(Participant::isHost)) {
+            // Prefer someone connected over a seat still in its disconnect grace period
+            Participant newHost = remaining.stream()
+                    .filter(p -> !departures.isPending(p.getConnectionId()))
+                    .findFirst()
+                    .orElse(remaining.getFirst());
+            presence.promoteToHost(newHost);
             room.setHostConnectionId(newHost.getConnectionId());
-            roomRepository.save(room);
+            roomStateWriter.update(room.getId(), r -> r.setHostConnectionId(newHost.getConnectionId()));
         }
 
-        // Notify all clients that the leaving participant's camera is off.
-        // Without this, other clients keep a stale camera-state entry and
-        // may display a frozen video frame (especially on Safari).
-        messagingTemplate.convertAndSend(
-                "/topic/room." + room.getCode() + ".camera-state",
-                new CameraStateMessage(sessionId, false));
-
-        broadcastRoomState(room);
+        // Clients drop the camera state of everyone listed as left, so no separate
+        // camera-state message is needed to avoid frozen frames
+        rosterBroadcaster.participantsLeft(room.getCode(), left, room.getHostConnectionId());
+        admitWaiting(room, leaving.size());
     }
 
     @MessageMapping("/room.chat")
@@ -287,12 +648,12 @@ public class WatchPartyWebSocketHandler {
     public void chatMessage(@Payload ChatMessageRequest message, SimpMessageHeaderAccessor headerAccessor) {
         String sessionId = requireSessionId(headerAccessor);
 
-        Participant participant = participantRepository.findByConnectionId(sessionId)
-                .orElseThrow(() -> new IllegalStateException("Participant not found for session: " + sessionId));
+        Participant participant = requireParticipant(sessionId);
 
-        Room room = participant.getRoom();
+        Room room = requireRoom(participant);
         ChatMessageResponse response = chatService.sendMessage(room.getId(), participant.getNickname(), message.content());
-        messagingTemplate.convertAndSend("/topic/room." + room.getCode() + ".chat", response);
+        payloadCache.invalidate(room.getId(), RoomPayloadCache.Snapshot.CHAT_HISTORY);
+        eventLog.publish(room.getCode(), ".chat", response);
     }
 
     @MessageMapping("/room.chat.reaction")
@@ -301,12 +662,12 @@ public class WatchPartyWebSocketHandler {
         String sessionId = requireSessionId(headerAccessor);
         validatePayload(request, sessionId);
 
-        Participant participant = participantRepository.findByConnectionId(sessionId)
-                .orElseThrow(() -> new IllegalStateException("Participant not found for session: " + sessionId));
+        Participant participant = requireParticipant(sessionId);
 
-        Room room = participant.getRoom();
+        Room room = requireRoom(participant);
         ChatMessageResponse response = chatService.addReaction(request.messageId(), request.emoji());
-        messagingTemplate.convertAndSend("/topic/room." + room.getCode() + ".chat", response);
+        payloadCache.invalidate(room.getId(), RoomPayloadCache.Snapshot.CHAT_HISTORY);
+        eventLog.publish(room.getCode(), ".chat", response);
     }
 
     @MessageMapping("/room.chat.history")
@@ -314,12 +675,11 @@ public class WatchPartyWebSocketHandler {
     public void chatHistory(SimpMessageHeaderAccessor headerAccessor) {
         String sessionId = requireSessionId(headerAccessor);
 
-        Participant participant = participantRepository.findByConnectionId(sessionId)
-                .orElseThrow(() -> new IllegalStateException("Participant not found for session: " + sessionId));
+        Participant participant = requireParticipant(sessionId);
 
-        Room room = participant.getRoom();
-        List<ChatMessageResponse> history = chatService.getChatHistory(room.getId());
-        messagingTemplate.convertAndSendToUser(sessionId, "/queue/chat.history", history,
+        UUID roomId = participant.getRoomId();
+        messagingTemplate.convertAndSendToUser(sessionId, "/queue/chat.history",
+                payloadCache.chatHistory(roomId, () -> chatService.getChatHistory(roomId)),
                 createHeaders(sessionId));
     }
 
@@ -335,65 +695,79 @@ public class WatchPartyWebSocketHandler {
         return headerAccessor.getMessageHeaders();
     }
 
+    /**
+     * Like {@link #createHeaders(String)}, but tags the message with the compact sync codec
+     * content type when the receiving session negotiated it on CONNECT.
+     */
+    private org.springframework.messaging.MessageHeaders createSyncHeaders(String sessionId,
+                                                                         SimpMessageHeaderAccessor inbound) {
+        var headerAccessor = SimpMessageHeaderAccessor.create(org.springframework.messaging.simp.SimpMessageType.MESSAGE);
+        headerAccessor.setSessionId(sessionId);
+        if (SyncMessageConverter.isNegotiated(inbound.getSessionAttributes())) {
+            headerAccessor.setContentType(SyncMessageConverter.MIME_TYPE);
+        }
+        headerAccessor.setLeaveMutable(true);
+        return headerAccessor.getMessageHeaders();
+    }
+
     @MessageMapping("/room.playlist.add")
     @Transactional
     public void addPlaylistItem(@Payload AddPlaylistItemRequest request, SimpMessageHeaderAccessor headerAccessor) {
         String sessionId = requireSessionId(headerAccessor);
 
-        Participant participant = participantRepository.findByConnectionId(sessionId)
-                .orElseThrow(() -> new IllegalStateException("Participant not found for session: " + sessionId));
+        Participant participant = requireParticipant(sessionId);
 
-        Room room = participant.getRoom();
+        Room room = requireRoom(participant);
         playlistService.addItem(room.getId(), request.videoUrl(), participant.getNickname());
+        payloadCache.invalidate(room.getId(), RoomPayloadCache.Snapshot.PLAYLIST);
 
         PlaylistResponse playlist = playlistService.getPlaylist(room.getId());
-        messagingTemplate.convertAndSend("/topic/room." + room.getCode() + ".playlist", playlist);
+        eventLog.publish(room.getCode(), ".playlist", playlist);
     }
 
+    /**
+     * Not transactional: the playlist service fetches video metadata before it opens its own transaction.
+     */
     @MessageMapping("/room.playlist.add-bulk")
-    @Transactional
     public void addBulkPlaylistItems(@Payload BulkAddPlaylistRequest request, SimpMessageHeaderAccessor headerAccessor) {
         String sessionId = requireSessionId(headerAccessor);
+        validatePayload(request, sessionId);
 
-        Participant participant = participantRepository.findByConnectionId(sessionId)
-                .orElseThrow(() -> new IllegalStateException("Participant not found for session: " + sessionId));
+        Participant participant = requireParticipant(sessionId);
 
-        Room room = participant.getRoom();
-        for (String videoUrl : request.videoUrls()) {
-            playlistService.addItem(room.getId(), videoUrl, participant.getNickname());
-        }
+        Room room = requireRoom(participant);
+        playlistService.addItems(room.getId(), request.videoUrls(), participant.getNickname());
+        payloadCache.invalidate(room.getId(), RoomPayloadCache.Snapshot.PLAYLIST);
 
         PlaylistResponse playlist = playlistService.getPlaylist(room.getId());
-        messagingTemplate.convertAndSend("/topic/room." + room.getCode() + ".playlist", playlist);
+        eventLog.publish(room.getCode(), ".playlist", playlist);
     }
 
     @MessageMapping("/room.playlist.playNow")
-    @Transactional
     public void playNow(@Payload AddPlaylistItemRequest request, SimpMessageHeaderAccessor headerAccessor) {
         String sessionId = requireSessionId(headerAccessor);
 
-        Participant participant = participantRepository.findByConnectionId(sessionId)
-                .orElseThrow(() -> new IllegalStateException("Participant not found for session: " + sessionId));
+        Participant participant = requireParticipant(sessionId);
 
-        Room room = participant.getRoom();
+        Room room = requireRoom(participant);
 
         boolean alreadyInPlaylist = playlistItemRepository
                 .findFirstByRoomIdAndVideoUrlOrderByPositionDesc(room.getId(), request.videoUrl())
                 .isPresent();
         if (!alreadyInPlaylist) {
             playlistService.addItem(room.getId(), request.videoUrl(), participant.getNickname());
+            payloadCache.invalidate(room.getId(), RoomPayloadCache.Snapshot.PLAYLIST);
         }
 
-        room.setCurrentVideoUrl(request.videoUrl());
-        room.setCurrentTimeSeconds(0);
-        room.setPlaying(true);
-        room.setStateUpdatedAt(Instant.now());
-        roomRepository.save(room);
+        Instant startedAt = Instant.now();
+        room = roomStateWriter.update(room.getId(), r -> startVideo(r, request.videoUrl(), startedAt));
+        // Anchors reported for the previous video would otherwise pull the new one to their position
+        timeline.reset(room.getId());
 
         broadcastRoomState(room);
 
         PlaylistResponse playlist = playlistService.getPlaylist(room.getId());
-        messagingTemplate.convertAndSend("/topic/room." + room.getCode() + ".playlist", playlist);
+        eventLog.publish(room.getCode(), ".playlist", playlist);
     }
 
     @MessageMapping("/room.playlist.remove")
@@ -401,15 +775,15 @@ public class WatchPartyWebSocketHandler {
     public void removePlaylistItem(@Payload Map<String, String> payload, SimpMessageHeaderAccessor headerAccessor) {
         String sessionId = requireSessionId(headerAccessor);
 
-        Participant participant = participantRepository.findByConnectionId(sessionId)
-                .orElseThrow(() -> new IllegalStateException("Participant not found for session: " + sessionId));
+        Participant participant = requireParticipant(sessionId);
 
-        Room room = participant.getRoom();
+        Room room = requireRoom(participant);
         UUID itemId = UUID.fromString(payload.get("itemId"));
         playlistService.removeItem(itemId);
+        payloadCache.invalidate(room.getId(), RoomPayloadCache.Snapshot.PLAYLIST);
 
         PlaylistResponse playlist = playlistService.getPlaylist(room.getId());
-        messagingTemplate.convertAndSend("/topic/room." + room.getCode() + ".playlist", playlist);
+        eventLog.publish(room.getCode(), ".playlist", playlist);
     }
 
     @MessageMapping("/room.playlist")
@@ -417,23 +791,21 @@ public class WatchPartyWebSocketHandler {
     public void getPlaylist(SimpMessageHeaderAccessor headerAccessor) {
         String sessionId = requireSessionId(headerAccessor);
 
-        Participant participant = participantRepository.findByConnectionId(sessionId)
-                .orElseThrow(() -> new IllegalStateException("Participant not found for session: " + sessionId));
+        Participant participant = requireParticipant(sessionId);
 
-        Room room = participant.getRoom();
-        PlaylistResponse playlist = playlistService.getPlaylist(room.getId());
-        messagingTemplate.convertAndSend("/topic/room." + room.getCode() + ".playlist", playlist);
+        Room room = requireRoom(participant);
+        UUID roomId = room.getId();
+        eventLog.publish(room.getCode(), ".playlist",
+                payloadCache.playlist(roomId, () -> playlistService.getPlaylist(roomId)));
     }
 
     @MessageMapping("/room.playlist.next")
-    @Transactional
     public void nextPlaylistItem(SimpMessageHeaderAccessor headerAccessor) {
         String sessionId = requireSessionId(headerAccessor);
 
-        Participant participant = participantRepository.findByConnectionId(sessionId)
-                .orElseThrow(() -> new IllegalStateException("Participant not found for session: " + sessionId));
+        Participant participant = requireParticipant(sessionId);
 
-        Room room = participant.getRoom();
+        Room room = requireRoom(participant);
         Optional<PlaylistItemResponse> nextItem;
         if (room.getPlaybackMode() == PlaybackMode.SHUFFLE) {
             nextItem = playlistService.getRandomItem(room.getId(), room.getCurrentVideoUrl());
@@ -442,31 +814,62 @@ public class WatchPartyWebSocketHandler {
             nextItem = playlistService.getNextItem(room.getId(), currentPosition);
         }
         if (nextItem.isPresent()) {
-            room.setCurrentVideoUrl(nextItem.get().videoUrl());
-            room.setCurrentTimeSeconds(0);
-            room.setPlaying(true);
-            room.setStateUpdatedAt(Instant.now());
-            roomRepository.save(room);
+            String videoUrl = nextItem.get().videoUrl();
+            Instant startedAt = Instant.now();
+            room = roomStateWriter.update(room.getId(), r -> startVideo(r, videoUrl, startedAt));
+            // Anchors reported for the previous video would otherwise pull the new one to their position
+            timeline.reset(room.getId());
 
             broadcastRoomState(room);
 
-            PlaylistResponse playlist = playlistService.getPlaylist(room.getId());
-            messagingTemplate.convertAndSend("/topic/room." + room.getCode() + ".playlist", playlist);
+            // The playlist itself is unchanged, so the cached snapshot can be reused
+            UUID roomId = room.getId();
+            eventLog.publish(room.getCode(), ".playlist",
+                    payloadCache.playlist(roomId, () -> playlistService.getPlaylist(roomId)));
         }
     }
 
+    private static void startVideo(Room room, String videoUrl, Instant startedAt) {
+        room.setCurrentVideoUrl(videoUrl);
+        room.setCurrentTimeSeconds(0);
+        room.setPlaying(true);
+        room.setStateUpdatedAt(startedAt);
+    }
+
     @MessageMapping("/room.playlist.mode")
-    @Transactional
     public void setPlaybackMode(@Payload Map<String, Object> payload, SimpMessageHeaderAccessor headerAccessor) {
         String sessionId = requireSessionId(headerAccessor);
         String mode = (String) payload.get("mode");
 
-        Participant participant = participantRepository.findByConnectionId(sessionId)
-                .orElseThrow(() -> new IllegalStateException("Participant not found for session: " + sessionId));
+        Participant participant = requireParticipant(sessionId);
 
-        Room room = participant.getRoom();
-        room.setPlaybackMode(PlaybackMode.valueOf(mode));
-        roomRepository.save(room);
+        Room room = requireRoom(participant);
+        PlaybackMode playbackMode = PlaybackMode.valueOf(mode);
+        room = roomStateWriter.update(room.getId(), r -> r.setPlaybackMode(playbackMode));
+
+        broadcastRoomState(room);
+    }
+
+    @MessageMapping("/room.sync.strategy")
+    public void setSyncStrategy(@Payload Map<String, Object> payload, SimpMessageHeaderAccessor headerAccessor) {
+        String sessionId = requireSessionId(headerAccessor);
+        String strategy = (String) payload.get("strategy");
+
+        Participant participant = requireParticipant(sessionId);
+
+        Room room = requireRoom(participant);
+        if (room.getControlMode() == ControlMode.HOST_ONLY && !participant.isHost()) {
+            eventLog.publish(room.getCode(), "", new ErrorMessage("Only the host can change the sync strategy in HOST_ONLY mode"));
+            return;
+        }
+        SyncStrategy syncStrategy = SyncStrategy.valueOf(strategy);
+        room = roomStateWriter.update(room.getId(), r -> {
+            // Pin the current position before switching so the room doesn't jump to the new reference
+            r.setCurrentTimeSeconds(expectedPosition(r));
+            r.setStateUpdatedAt(Instant.now());
+            r.setSyncStrategy(syncStrategy);
+        });
+        timeline.reset(room.getId());
 
         broadcastRoomState(room);
     }
@@ -476,46 +879,49 @@ public class WatchPartyWebSocketHandler {
     public void reorderPlaylistItem(@Payload Map<String, Object> payload, SimpMessageHeaderAccessor headerAccessor) {
         String sessionId = requireSessionId(headerAccessor);
 
-        Participant participant = participantRepository.findByConnectionId(sessionId)
-                .orElseThrow(() -> new IllegalStateException("Participant not found for session: " + sessionId));
+        Participant participant = requireParticipant(sessionId);
 
-        Room room = participant.getRoom();
+        Room room = requireRoom(participant);
         UUID itemId = UUID.fromString((String) payload.get("itemId"));
         int newPosition = ((Number) payload.get("newPosition")).intValue();
 
         playlistService.reorderItem(itemId, newPosition);
+        payloadCache.invalidate(room.getId(), RoomPayloadCache.Snapshot.PLAYLIST);
 
         PlaylistResponse playlist = playlistService.getPlaylist(room.getId());
-        messagingTemplate.convertAndSend("/topic/room." + room.getCode() + ".playlist", playlist);
+        eventLog.publish(room.getCode(), ".playlist", playlist);
     }
 
     @MessageMapping("/room.webrtc.offer")
     public void webRtcOffer(@Payload WebRtcOfferMessage message, SimpMessageHeaderAccessor headerAccessor) {
         String sessionId = requireSessionId(headerAccessor);
-        String targetId = Objects.requireNonNull(message.targetConnectionId());
+        // Peers address each other by connection ID, which outlives resumed sessions
+        String targetId = resumption.sessionIdFor(Objects.requireNonNull(message.targetConnectionId()));
         messagingTemplate.convertAndSendToUser(
                 targetId, "/queue/webrtc.signal",
-                WebRtcSignalEnvelope.offer(sessionId, message.sdp()),
+                WebRtcSignalEnvelope.offer(resumption.connectionIdFor(sessionId), message.sdp()),
                 createHeaders(targetId));
     }
 
     @MessageMapping("/room.webrtc.answer")
     public void webRtcAnswer(@Payload WebRtcAnswerMessage message, SimpMessageHeaderAccessor headerAccessor) {
         String sessionId = requireSessionId(headerAccessor);
-        String targetId = Objects.requireNonNull(message.targetConnectionId());
+        // Peers address each other by connection ID, which outlives resumed sessions
+        String targetId = resumption.sessionIdFor(Objects.requireNonNull(message.targetConnectionId()));
         messagingTemplate.convertAndSendToUser(
                 targetId, "/queue/webrtc.signal",
-                WebRtcSignalEnvelope.answer(sessionId, message.sdp()),
+                WebRtcSignalEnvelope.answer(resumption.connectionIdFor(sessionId), message.sdp()),
                 createHeaders(targetId));
     }
 
     @MessageMapping("/room.webrtc.ice")
     public void webRtcIceCandidate(@Payload WebRtcIceCandidateMessage message, SimpMessageHeaderAccessor headerAccessor) {
         String sessionId = requireSessionId(headerAccessor);
-        String targetId = Objects.requireNonNull(message.targetConnectionId());
+        // Peers address each other by connection ID, which outlives resumed sessions
+        String targetId = resumption.sessionIdFor(Objects.requireNonNull(message.targetConnectionId()));
         messagingTemplate.convertAndSendToUser(
                 targetId, "/queue/webrtc.signal",
-                WebRtcSignalEnvelope.iceCandidate(sessionId, message.candidate(), message.sdpMid(), message.sdpMLineIndex()),
+                WebRtcSignalEnvelope.iceCandidate(resumption.connectionIdFor(sessionId), message.candidate(), message.sdpMid(), message.sdpMLineIndex()),
                 createHeaders(targetId));
     }
 
@@ -525,31 +931,34 @@ public class WatchPartyWebSocketHandler {
         String sessionId = requireSessionId(headerAccessor);
         boolean enabled = Boolean.TRUE.equals(payload.get("enabled"));
 
-        Participant participant = participantRepository.findByConnectionId(sessionId)
-                .orElseThrow(() -> new IllegalStateException("Participant not found for session: " + sessionId));
+        Participant participant = requireParticipant(sessionId);
 
-        Room room = participant.getRoom();
-        messagingTemplate.convertAndSend(
-                "/topic/room." + room.getCode() + ".camera-state",
-                new CameraStateMessage(sessionId, enabled));
+        Room room = requireRoom(participant);
+        eventLog.publish(room.getCode(), ".camera-state",
+                new CameraStateMessage(participant.getConnectionId(), enabled));
     }
 
     private void broadcastRoomState(Room room) {
-        List<Participant> participants = participantRepository.findByRoomId(room.getId());
-
-        List<ParticipantMessage> participantMessages = participants.stream()
-                .map(p -> new ParticipantMessage(p.getId(), p.getNickname(), p.isHost(), p.getConnectionId()))
+        List<ParticipantMessage> participantMessages = presence.participants(room.getId()).stream()
+                .map(WatchPartyWebSocketHandler::toParticipantMessage)
                 .toList();
 
-        var roomState = new RoomStateMessage(
+        eventLog.publish(room.getCode(), "", toRoomState(room, participantMessages));
+    }
+
+    private RoomStateMessage toRoomState(Room room, List<ParticipantMessage> participants) {
+        return new RoomStateMessage(
                 room.getCode(),
                 room.getCurrentVideoUrl(),
-                calculateExpectedPosition(room),
+                expectedPosition(room),
                 room.isPlaying(),
                 room.getPlaybackMode().name(),
-                participantMessages);
+                room.getSyncStrategy().name(),
+                participants);
+    }
 
-        messagingTemplate.convertAndSend("/topic/room." + room.getCode(), roomState);
+    private static ParticipantMessage toParticipantMessage(Participant p) {
+        return new ParticipantMessage(p.getId(), p.getNickname(), p.isHost(), p.getConnectionId());
     }
 
     @MessageExceptionHandler(RoomNotFoundException.class)
@@ -580,6 +989,33 @@ public class WatchPartyWebSocketHandler {
         }
     }
 
+    private Participant requireParticipant(String sessionId) {
+        String connectionId = resumption.connectionIdFor(sessionId);
+        return presence.find(connectionId)
+                .orElseThrow(() -> new IllegalStateException("Participant not found for session: " + sessionId));
+    }
+
+    /**
+     * Loads the participant's room. Being the first query of most handlers, this also decides
+     * whether a read-only handler reads from the replica or, right after a write, the primary.
+     */
+    private Room requireRoom(Participant participant) {
+        UUID roomId = participant.getRoomId();
+        return replicaLag.read(roomId, () -> roomRepository.findById(roomId))
+                .orElseThrow(() -> new IllegalStateException("Room not found for participant: " + participant.getConnectionId()));
+    }
+
+    /**
+     * Returns the last room event sequence number a resuming client has seen, or null if it sent none.
+     */
+    private static Long getResumeSeq(SimpMessageHeaderAccessor headerAccessor) {
+        Map<String, Object> sessionAttrs = headerAccessor.getSessionAttributes();
+        if (sessionAttrs != null) {
+            return (Long) sessionAttrs.remove(SessionResumptionInterceptor.RESUME_SEQ_ATTR);
+        }
+        return null;
+    }
+
     /**
      * Extracts the authenticated user ID from the WebSocket session, or null for guests.
      */
@@ -18,7 +18,8 @@ import java.util.UUID;
 
 /**
  * Extracts the JWT Bearer token from STOMP CONNECT headers and stores
- * the authenticated user's ID in the WebSocket session attributes.
+ * the authenticated user's ID in the WebSocket session attributes, along with when the token should be refreshed
+ * (see {@link TokenRefreshAdvisor}).
  * Unauthenticated connections are allowed as guests with limited permissions.
  */
 @Component
@@ -27,6 +28,7 @@ public class WebSocketAuthChannelInterceptor implements ChannelInterceptor {
     private static final Logger log = LoggerFactory.getLogger(WebSocketAuthChannelInterceptor.class);
 
     static final String USER_ID_ATTR = "userId";
+    static final String REFRESH_AT_ATTR = "tokenRefreshAt";
 
     private final JwtService jwtService;
 
@@ -46,6 +48,7 @@ public class WebSocketAuthChannelInterceptor implements ChannelInterceptor {
                         Map<String, Object> sessionAttrs = accessor.getSessionAttributes();
                         if (sessionAttrs != null) {
                             sessionAttrs.put(USER_ID_ATTR, UUID.fromString(claims.getSubject()));
+                            sessionAttrs.put(REFRESH_AT_ATTR, jwtService.refreshAtMillis(claims));
                         }
                     } else {
                         log.warn("WebSocket CONNECT with non-access token type from session {}",
@@ -1,26 +1,60 @@
 package com.watchparty.websocket;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
+import java.util.List;
+
 /**
  * Handles WebSocket session disconnect events.
  * This is the single point of disconnect handling — the @EventListener
  * in WatchPartyWebSocketHandler has been removed to avoid duplicate processing.
+ * <p>
+ * Disconnects are not processed inline: they are parked in the {@link DepartureBuffer}
+ * and drained in batches, so a network blip that drops many sessions at once costs one
+ * roster update and at most one host election per room.
  */
 @Component
 public class WebSocketEventListener implements ApplicationListener<SessionDisconnectEvent> {
 
+    private static final Logger log = LoggerFactory.getLogger(WebSocketEventListener.class);
+
     private final WatchPartyWebSocketHandler handler;
+    private final DepartureBuffer departures;
+    private final SessionLivenessTracker liveness;
 
-    public WebSocketEventListener(WatchPartyWebSocketHandler handler) {
+    public WebSocketEventListener(WatchPartyWebSocketHandler handler, DepartureBuffer departures,
+                                  SessionLivenessTracker liveness) {
         this.handler = handler;
+        this.departures = departures;
+        this.liveness = liveness;
     }
 
     @Override
     public void onApplicationEvent(@org.springframework.lang.NonNull SessionDisconnectEvent event) {
-        String sessionId = event.getSessionId();
-        handler.handleParticipantLeave(sessionId);
+        liveness.forget(event.getSessionId());
+        handler.handleDisconnect(event.getSessionId());
+    }
+
+    /**
+     * Processes due departures. Failures within a room are handled per room by the handler; if the
+     * batch fails as a whole, its departures are put back to be retried on the next run.
+     */
+    @Scheduled(fixedDelayString = "${room.leave.debounce-ms:250}")
+    void processDepartures() {
+        List<String> due = departures.drainDue();
+        if (due.isEmpty()) {
+            return;
+        }
+        try {
+            handler.handleParticipantLeaves(due);
+        } catch (RuntimeException ex) {
+            log.error("Failed to process {} departures, retrying", due.size(), ex);
+            due.forEach(connectionId -> departures.schedule(connectionId, false));
+        }
     }
 }
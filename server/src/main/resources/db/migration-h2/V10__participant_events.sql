@@ -0,0 +1,15 @@
+-- Presence is now tracked in memory; only an optional join/leave history is persisted (H2 compatible)
+
+DROP TABLE participants;
+
+CREATE TABLE participant_events (
+    id              UUID            PRIMARY KEY,
+    room_id         UUID            NOT NULL,
+    connection_id   VARCHAR(255)    NOT NULL,
+    user_id         UUID,
+    nickname        VARCHAR(255)    NOT NULL,
+    event_type      VARCHAR(16)     NOT NULL,
+    occurred_at     TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_participant_events_room_id ON participant_events(room_id, occurred_at);
@@ -0,0 +1,4 @@
+-- H2 has no declarative partitioning: chat_messages stays a plain table and ChatPartitionMaintenance
+-- deletes expired rows in chunks instead. The index matches the history and rate-limit lookups.
+
+CREATE INDEX idx_chat_messages_room_sent_at ON chat_messages(room_id, sent_at);
@@ -0,0 +1 @@
+ALTER TABLE rooms ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1 @@
+ALTER TABLE rooms ADD COLUMN sync_strategy VARCHAR(16) NOT NULL DEFAULT 'SERVER_CLOCK';
@@ -0,0 +1,41 @@
+-- Chat history is range-partitioned by sent_at, so retention drops whole partitions instead of
+-- deleting rows, and history queries bounded by sent_at only touch recent partitions.
+-- ChatPartitionMaintenance creates partitions ahead of time (named chat_messages_p<from>_<to>,
+-- UTC dates) and drops expired ones; the default partition only catches rows if it falls behind.
+
+ALTER TABLE chat_messages RENAME TO chat_messages_unpartitioned;
+ALTER TABLE chat_messages_unpartitioned RENAME CONSTRAINT chat_messages_pkey TO chat_messages_unpartitioned_pkey;
+DROP INDEX idx_chat_messages_room_id;
+DROP INDEX idx_chat_messages_sent_at;
+
+-- The partition key has to be part of the primary key; lookups by id still use its leading column
+CREATE TABLE chat_messages (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    room_id UUID NOT NULL REFERENCES rooms(id) ON DELETE CASCADE,
+    nickname VARCHAR(50) NOT NULL,
+    content VARCHAR(500) NOT NULL,
+    reactions JSONB DEFAULT '{}',
+    sent_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (id, sent_at)
+) PARTITION BY RANGE (sent_at);
+
+CREATE INDEX idx_chat_messages_room_sent_at ON chat_messages(room_id, sent_at);
+
+CREATE TABLE chat_messages_default PARTITION OF chat_messages DEFAULT;
+
+-- Existing history goes into one partition that expires as a whole; new messages start a fresh one
+DO $$
+DECLARE
+    today DATE := (now() AT TIME ZONE 'UTC')::date;
+BEGIN
+    EXECUTE format('CREATE TABLE %I PARTITION OF chat_messages FOR VALUES FROM (MINVALUE) TO (%L)',
+                   'chat_messages_p00010101_' || to_char(today, 'YYYYMMDD'), today);
+    EXECUTE format('CREATE TABLE %I PARTITION OF chat_messages FOR VALUES FROM (%L) TO (%L)',
+                   'chat_messages_p' || to_char(today, 'YYYYMMDD') || '_' || to_char(today + 7, 'YYYYMMDD'),
+                   today, today + 7);
+END $$;
+
+INSERT INTO chat_messages (id, room_id, nickname, content, reactions, sent_at)
+SELECT id, room_id, nickname, content, reactions, sent_at FROM chat_messages_unpartitioned;
+
+DROP TABLE chat_messages_unpartitioned;
@@ -0,0 +1,21 @@
+package com.watchparty.benchmark;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+
+/**
+ * Entry point for the {@code benchmark} Maven profile. Prints the static wire-size
+ * comparison first, then hands the remaining arguments to JMH.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        SyncCodecBenchmark.printWireSizes();
+        new Runner(new CommandLineOptions(args)).run();
+    }
+}
@@ -0,0 +1,114 @@
+package com.watchparty.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.watchparty.dto.PositionReportMessage;
+import com.watchparty.dto.SyncCorrectionMessage;
+import com.watchparty.websocket.SyncMessageConverter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the compact sync codec against the default Jackson path for the
+ * two per-tick sync messages, going through the same {@link MessageConverter}
+ * API the STOMP broker uses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SyncCodecBenchmark {
+
+    private static final PositionReportMessage REPORT = new PositionReportMessage(1234.567);
+    private static final SyncCorrectionMessage CORRECTION = SyncCorrectionMessage.rateAdjust(1234.567, 1.05);
+
+    private MessageConverter json;
+    private MessageConverter binary;
+    private MessageHeaders jsonHeaders;
+    private MessageHeaders binaryHeaders;
+    private Message<?> jsonReport;
+    private Message<?> binaryReport;
+    private Message<?> jsonCorrection;
+    private Message<?> binaryCorrection;
+
+    @Setup
+    public void setUp() {
+        json = jsonConverter();
+        binary = new SyncMessageConverter();
+        jsonHeaders = headers(MimeTypeUtils.APPLICATION_JSON);
+        binaryHeaders = headers(SyncMessageConverter.MIME_TYPE);
+        jsonReport = json.toMessage(REPORT, jsonHeaders);
+        binaryReport = binary.toMessage(REPORT, binaryHeaders);
+        jsonCorrection = json.toMessage(CORRECTION, jsonHeaders);
+        binaryCorrection = binary.toMessage(CORRECTION, binaryHeaders);
+    }
+
+    @Benchmark
+    public Object encodeCorrectionJson() {
+        return json.toMessage(CORRECTION, jsonHeaders);
+    }
+
+    @Benchmark
+    public Object encodeCorrectionBinary() {
+        return binary.toMessage(CORRECTION, binaryHeaders);
+    }
+
+    @Benchmark
+    public Object decodeReportJson() {
+        return json.fromMessage(jsonReport, PositionReportMessage.class);
+    }
+
+    @Benchmark
+    public Object decodeReportBinary() {
+        return binary.fromMessage(binaryReport, PositionReportMessage.class);
+    }
+
+    @Benchmark
+    public Object decodeCorrectionJson() {
+        return json.fromMessage(jsonCorrection, SyncCorrectionMessage.class);
+    }
+
+    @Benchmark
+    public Object decodeCorrectionBinary() {
+        return binary.fromMessage(binaryCorrection, SyncCorrectionMessage.class);
+    }
+
+    /**
+     * Prints STOMP body sizes for both encodings; JMH only measures time.
+     */
+    static void printWireSizes() {
+        var json = jsonConverter();
+        var binary = new SyncMessageConverter();
+        var jsonHeaders = headers(MimeTypeUtils.APPLICATION_JSON);
+        var binaryHeaders = headers(SyncMessageConverter.MIME_TYPE);
+        for (Object payload : new Object[]{REPORT, CORRECTION}) {
+            int jsonBytes = ((byte[]) json.toMessage(payload, jsonHeaders).getPayload()).length;
+            int binaryBytes = ((byte[]) binary.toMessage(payload, binaryHeaders).getPayload()).length;
+            System.out.printf("%-22s json=%3d bytes  binary=%3d bytes%n",
+                    payload.getClass().getSimpleName(), jsonBytes, binaryBytes);
+        }
+    }
+
+    private static MessageConverter jsonConverter() {
+        var converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(new ObjectMapper());
+        return converter;
+    }
+
+    private static MessageHeaders headers(MimeType contentType) {
+        return MessageBuilder.withPayload(new byte[0])
+                .copyHeaders(Map.of(MessageHeaders.CONTENT_TYPE, contentType))
+                .build()
+                .getHeaders();
+    }
+}
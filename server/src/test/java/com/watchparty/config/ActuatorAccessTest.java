@@ -0,0 +1,71 @@
+package com.watchparty.config;
+
+import com.watchparty.service.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "management.endpoints.web.exposure.include=health,info,metrics,syncquality",
+        "security.admin-user-ids=" + ActuatorAccessTest.ADMIN_ID
+})
+@AutoConfigureMockMvc
+class ActuatorAccessTest {
+
+    static final String ADMIN_ID = "6f1c2a4e-8d0b-4c1e-9a57-3b2d7e9f0a11";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Test
+    void whenAnonymousThenSyncQualityIsUnauthorized() throws Exception {
+        mockMvc.perform(get("/actuator/syncquality"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void whenRegularUserThenSyncQualityIsForbidden() throws Exception {
+        String token = jwtService.generateAccessToken(UUID.randomUUID(), "guest@example.com", "Guest");
+
+        mockMvc.perform(get("/actuator/syncquality").header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/syncquality/ABCD1234").header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void whenAdminThenSyncQualityIsListed() throws Exception {
+        String token = jwtService.generateAccessToken(UUID.fromString(ADMIN_ID), "admin@example.com", "Admin");
+
+        mockMvc.perform(get("/actuator/syncquality").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void whenRegularUserThenMetricsAreForbidden() throws Exception {
+        String token = jwtService.generateAccessToken(UUID.randomUUID(), "guest@example.com", "Guest");
+
+        mockMvc.perform(get("/actuator/metrics").header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/metrics/jvm.memory.used").header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void whenAdminThenMetricsAreListed() throws Exception {
+        String token = jwtService.generateAccessToken(UUID.fromString(ADMIN_ID), "admin@example.com", "Admin");
+
+        mockMvc.perform(get("/actuator/metrics").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,56 @@
+package com.watchparty.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectionPoolCheckTest {
+
+    @Test
+    void whenPoolIsSmallerThanInboundExecutorThenUndersized() {
+        assertTrue(check(pool(8), executor(16)).isUndersized());
+    }
+
+    @Test
+    void whenPoolCoversInboundExecutorThenNotUndersized() {
+        assertFalse(check(pool(16), executor(16)).isUndersized());
+        assertFalse(check(pool(32), executor(16)).isUndersized());
+    }
+
+    @Test
+    void whenBeansAreMissingThenNotUndersized() {
+        assertFalse(check(null, executor(16)).isUndersized());
+        assertFalse(check(pool(8), null).isUndersized());
+    }
+
+    private static ConnectionPoolCheck check(DataSource dataSource, ThreadPoolTaskExecutor executor) {
+        var beans = new StaticListableBeanFactory();
+        if (dataSource != null) {
+            beans.addBean("dataSource", dataSource);
+        }
+        if (executor != null) {
+            beans.addBean("clientInboundChannelExecutor", executor);
+        }
+        return new ConnectionPoolCheck(beans.getBeanProvider(DataSource.class),
+                beans.getBeanProvider(ThreadPoolTaskExecutor.class));
+    }
+
+    private static HikariDataSource pool(int maximumPoolSize) {
+        var dataSource = new HikariDataSource();
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        return dataSource;
+    }
+
+    private static ThreadPoolTaskExecutor executor(int poolSize) {
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        return executor;
+    }
+}
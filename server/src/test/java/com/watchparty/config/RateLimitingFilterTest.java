@@ -1,5 +1,7 @@
 package com.watchparty.config;
 
+import com.watchparty.ratelimit.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,7 +21,7 @@ class RateLimitingFilterTest {
 
     @BeforeEach
     void setUp() {
-        filter = new RateLimitingFilter();
+        filter = new RateLimitingFilter(RateLimitProperties.defaults(), new SimpleMeterRegistry());
         chain = mock(FilterChain.class);
     }
 
@@ -97,4 +99,27 @@ class RateLimitingFilterTest {
         verify(chain).doFilter(request, response);
         assertEquals(200, response.getStatus());
     }
+
+    @Test
+    void whenAuthPolicyExhaustedThenOtherRoutesStayAvailable() throws ServletException, IOException {
+        for (int i = 0; i < 20; i++) {
+            var request = new MockHttpServletRequest("POST", "/api/auth/login");
+            request.setRemoteAddr("10.0.0.3");
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+        }
+
+        var login = new MockHttpServletRequest("POST", "/api/auth/login");
+        login.setRemoteAddr("10.0.0.3");
+        var rejected = new MockHttpServletResponse();
+        filter.doFilter(login, rejected, chain);
+
+        var rooms = new MockHttpServletRequest("GET", "/api/rooms/abc");
+        rooms.setRemoteAddr("10.0.0.3");
+        var admitted = new MockHttpServletResponse();
+        filter.doFilter(rooms, admitted, chain);
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals("3", rejected.getHeader("Retry-After"));
+        assertEquals(200, admitted.getStatus());
+    }
 }
@@ -8,6 +8,8 @@ import com.watchparty.exception.RoomNotFoundException;
 import com.watchparty.security.AuthenticatedUser;
 import com.watchparty.service.JwtService;
 import com.watchparty.service.RoomService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -43,6 +45,12 @@ class RoomControllerTest {
                 .authorizeHttpRequests(auth -> auth.anyRequest().permitAll());
             return http.build();
         }
+
+        // Web slices have no metrics auto-configuration; RateLimitingFilter counts into this
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
     }
 
     @Autowired
@@ -6,6 +6,8 @@ import com.watchparty.security.AuthenticatedUser;
 import com.watchparty.service.AuthService;
 import com.watchparty.service.JwtService;
 import com.watchparty.service.RoomService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -41,6 +43,12 @@ class UserControllerTest {
                 .authorizeHttpRequests(auth -> auth.anyRequest().permitAll());
             return http.build();
         }
+
+        // Web slices have no metrics auto-configuration; RateLimitingFilter counts into this
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
     }
 
     @Autowired
@@ -69,7 +77,7 @@ class UserControllerTest {
         var userId = UUID.randomUUID();
         setAuthPrincipal(userId);
 
-        var authResponse = new AuthResponse("access", "refresh", userId, "new@example.com", "NewName");
+        var authResponse = new AuthResponse("access", "refresh", userId, "new@example.com", "NewName", 2880);
         when(authService.updateProfile(eq(userId), any(UpdateProfileRequest.class))).thenReturn(authResponse);
 
         var request = new UpdateProfileRequest("NewName", "new@example.com");
@@ -3,6 +3,8 @@ package com.watchparty.controller;
 import com.watchparty.dto.VideoRecommendation;
 import com.watchparty.service.JwtService;
 import com.watchparty.service.YouTubeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -31,6 +33,12 @@ class VideoControllerTest {
                 .authorizeHttpRequests(auth -> auth.anyRequest().permitAll());
             return http.build();
         }
+
+        // Web slices have no metrics auto-configuration; RateLimitingFilter counts into this
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
     }
 
     @Autowired
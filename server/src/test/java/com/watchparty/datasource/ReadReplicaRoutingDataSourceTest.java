@@ -0,0 +1,107 @@
+package com.watchparty.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReadReplicaRoutingDataSourceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private DataSource primary;
+    private DataSource replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+    }
+
+    @Test
+    void whenTransactionIsReadOnlyThenReplicaAnswers() {
+        var jdbc = new Routed(replica);
+
+        assertEquals("replica", jdbc.inTransaction(true));
+        assertEquals("primary", jdbc.inTransaction(false));
+    }
+
+    @Test
+    void whenReadIsPinnedThenPrimaryAnswers() {
+        var jdbc = new Routed(replica);
+
+        assertEquals("primary", ReadReplicaRoutingDataSource.onPrimary(() -> jdbc.inTransaction(true)));
+        assertEquals("replica", jdbc.inTransaction(true));
+    }
+
+    @Test
+    void whenRoomWasJustWrittenThenItsReadsGoToPrimary() {
+        var jdbc = new Routed(replica);
+        var guard = new ReplicaLagGuard("jdbc:h2:mem:replica", Duration.ofMinutes(1));
+        UUID written = UUID.randomUUID();
+        guard.recordWrite(written);
+
+        assertEquals("primary", guard.read(written, () -> jdbc.inTransaction(true)));
+        assertEquals("replica", guard.read(UUID.randomUUID(), () -> jdbc.inTransaction(true)));
+    }
+
+    @Test
+    void whenRoomWasJustCreatedThenLookupsByCodeAndOwnerGoToPrimary() {
+        var jdbc = new Routed(replica);
+        var guard = new ReplicaLagGuard("jdbc:h2:mem:replica", Duration.ofMinutes(1));
+        UUID owner = UUID.randomUUID();
+        guard.recordWrite(UUID.randomUUID(), "ABCD1234", owner);
+
+        assertEquals("primary", guard.readByCode("ABCD1234", () -> jdbc.inTransaction(true)));
+        assertEquals("primary", guard.readByOwner(owner, () -> jdbc.inTransaction(true)));
+        assertEquals("replica", guard.readByCode("WXYZ9876", () -> jdbc.inTransaction(true)));
+        assertEquals("replica", guard.readByOwner(UUID.randomUUID(), () -> jdbc.inTransaction(true)));
+    }
+
+    @Test
+    void whenReplicaIsUnavailableThenReadsFallBackToPrimary() {
+        var jdbc = new Routed(new DriverManagerDataSource("jdbc:h2:mem:missing;IFEXISTS=TRUE", "sa", ""));
+
+        assertEquals("primary", jdbc.inTransaction(true));
+        assertEquals("primary", jdbc.inTransaction(true));
+        assertEquals(1.0, meterRegistry.get("watchparty.datasource.replica.fallbacks").counter().count());
+    }
+
+    private static DataSource database(String name) {
+        var dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        var jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS origin (name VARCHAR(16))");
+        jdbc.update("DELETE FROM origin");
+        jdbc.update("INSERT INTO origin VALUES (?)", name);
+        return dataSource;
+    }
+
+    private class Routed {
+        private final JdbcTemplate jdbc;
+        private final DataSourceTransactionManager transactionManager;
+
+        Routed(DataSource replicaTarget) {
+            meterRegistry.clear();
+            DataSource routed = new LazyConnectionDataSourceProxy(
+                    new ReadReplicaRoutingDataSource(primary, replicaTarget, Duration.ofMinutes(1), meterRegistry));
+            this.jdbc = new JdbcTemplate(routed);
+            this.transactionManager = new DataSourceTransactionManager(routed);
+        }
+
+        String inTransaction(boolean readOnly) {
+            var template = new TransactionTemplate(transactionManager);
+            template.setReadOnly(readOnly);
+            return template.execute(status -> jdbc.queryForObject("SELECT name FROM origin", String.class));
+        }
+    }
+}
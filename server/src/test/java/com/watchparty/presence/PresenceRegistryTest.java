@@ -0,0 +1,138 @@
+package com.watchparty.presence;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PresenceRegistryTest {
+
+    private final List<String> notifications = Collections.synchronizedList(new ArrayList<>());
+    private PresenceRegistry registry;
+    private UUID roomId;
+
+    @BeforeEach
+    void setUp() {
+        registry = new PresenceRegistry(List.of(new PresenceListener() {
+            @Override
+            public void joined(Participant participant) {
+                notifications.add("joined " + participant.getConnectionId());
+            }
+
+            @Override
+            public void left(Collection<Participant> participants) {
+                participants.forEach(p -> notifications.add("left " + p.getConnectionId()));
+            }
+        }));
+        roomId = UUID.randomUUID();
+    }
+
+    @Test
+    void whenParticipantsJoinThenRosterKeepsJoinOrder() {
+        Participant first = participant("session-1", roomId);
+        Participant second = participant("session-2", roomId);
+
+        registry.add(first);
+        registry.add(second);
+
+        assertEquals(List.of(first, second), registry.participants(roomId));
+        assertEquals(2, registry.count(roomId));
+        assertNotNull(first.getId());
+        assertNotNull(first.getJoinedAt());
+        assertEquals(List.of("joined session-1", "joined session-2"), notifications);
+    }
+
+    @Test
+    void whenJoinsRaceForLastSeatsThenRoomIsNotOverfilledAndOnlyOneBecomesHost() throws Exception {
+        int maxParticipants = 5;
+        int joiners = 32;
+        var start = new CountDownLatch(1);
+        List<Future<PresenceRegistry.Claim>> claims = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < joiners; i++) {
+                Participant participant = participant("session-" + i, roomId);
+                claims.add(executor.submit(() -> {
+                    start.await();
+                    return registry.tryAdd(participant, maxParticipants);
+                }));
+            }
+            start.countDown();
+
+            Map<PresenceRegistry.Outcome, Integer> outcomes = new EnumMap<>(PresenceRegistry.Outcome.class);
+            for (Future<PresenceRegistry.Claim> claim : claims) {
+                outcomes.merge(claim.get().outcome(), 1, Integer::sum);
+            }
+
+            assertEquals(1, outcomes.get(PresenceRegistry.Outcome.HOST));
+            assertEquals(maxParticipants - 1, outcomes.get(PresenceRegistry.Outcome.MEMBER));
+            assertEquals(joiners - maxParticipants, outcomes.get(PresenceRegistry.Outcome.FULL));
+        }
+        assertEquals(maxParticipants, registry.count(roomId));
+        assertEquals(1, registry.participants(roomId).stream().filter(Participant::isHost).count());
+        assertEquals(maxParticipants, notifications.size());
+    }
+
+    @Test
+    void whenRoomIsFullThenTryAddLeavesItUnchanged() {
+        registry.tryAdd(participant("session-1", roomId), 1);
+
+        PresenceRegistry.Claim claim = registry.tryAdd(participant("session-2", roomId), 1);
+
+        assertFalse(claim.admitted());
+        assertEquals(1, claim.roster().size());
+        assertTrue(registry.find("session-2").isEmpty());
+    }
+
+    @Test
+    void whenParticipantsLeaveThenTheyAreGoneFromRoomAndLookup() {
+        Participant first = participant("session-1", roomId);
+        Participant second = participant("session-2", roomId);
+        registry.add(first);
+        registry.add(second);
+
+        registry.removeAll(List.of(first));
+
+        assertEquals(List.of(second), registry.participants(roomId));
+        assertTrue(registry.find("session-1").isEmpty());
+        assertEquals(List.of(second), registry.findAll(List.of("session-1", "session-2")));
+    }
+
+    @Test
+    void whenLastParticipantLeavesThenRoomIsEmpty() {
+        Participant only = participant("session-1", roomId);
+        registry.add(only);
+
+        registry.removeAll(List.of(only));
+
+        assertTrue(registry.participants(roomId).isEmpty());
+        assertEquals(0, registry.count(roomId));
+    }
+
+    @Test
+    void whenChangeIsAppliedFromReplicaThenListenersAreNotNotified() {
+        registry.apply(participant("session-1", roomId));
+
+        assertTrue(registry.find("session-1").isPresent());
+        assertTrue(notifications.isEmpty());
+    }
+
+    private static Participant participant(String connectionId, UUID roomId) {
+        var participant = new Participant();
+        participant.setConnectionId(connectionId);
+        participant.setNickname("Guest");
+        participant.setRoomId(roomId);
+        return participant;
+    }
+}
@@ -0,0 +1,120 @@
+package com.watchparty.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(-5 * SECOND);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RateLimiter limiter = new RateLimiter(List.of(
+            new RateLimitPolicy("login", "/api/auth/login", 5, Duration.ofSeconds(10)),
+            new RateLimitPolicy("api", "/api/", 100, Duration.ofMinutes(1))),
+            Duration.ofSeconds(1), registry, "http", clock::get);
+
+    @Test
+    void whenPathMatchesSeveralPoliciesThenFirstOneWins() {
+        assertEquals("login", limiter.policy(limiter.policyFor("/api/auth/login")).name());
+        assertEquals("api", limiter.policy(limiter.policyFor("/api/auth/refresh")).name());
+        assertEquals(-1, limiter.policyFor("/ws/info"));
+    }
+
+    @Test
+    void whenBurstIsSpentThenRequestsAreAdmittedAtTheSteadyRate() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(RateLimiter.ADMITTED, limiter.acquire(0, "10.0.0.1"));
+        }
+        long wait = limiter.acquire(0, "10.0.0.1");
+        assertEquals(2 * SECOND, wait);
+
+        clock.addAndGet(2 * SECOND);
+        assertEquals(RateLimiter.ADMITTED, limiter.acquire(0, "10.0.0.1"));
+        assertTrue(limiter.acquire(0, "10.0.0.1") > 0);
+        assertEquals(RateLimiter.ADMITTED, limiter.acquire(0, "10.0.0.2"));
+
+        assertEquals(7, registry.get("watchparty.ratelimit.requests")
+                .tags("policy", "login", "outcome", "admitted").counter().count());
+        assertEquals(2, registry.get("watchparty.ratelimit.requests")
+                .tags("policy", "login", "outcome", "rejected").counter().count());
+    }
+
+    @Test
+    void whenClientGoesIdleThenItIsExpiredOnlyAfterItsAllowanceRefilled() {
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire(0, "10.0.0.1");
+        }
+        limiter.acquire(1, "10.0.0.2");
+
+        // One api request is paid back after 0.6s; five login requests take 10s
+        clock.addAndGet(2 * SECOND);
+        limiter.expire();
+        assertEquals(1, limiter.trackedKeys(0));
+        assertEquals(0, limiter.trackedKeys(1));
+
+        clock.addAndGet(9 * SECOND);
+        limiter.expire();
+        assertEquals(0, limiter.trackedKeys(0));
+        assertEquals(0, registry.get("watchparty.ratelimit.keys").tags("policy", "login").gauge().value());
+    }
+
+    @Test
+    void whenClientStaysActiveThenExpiryKeepsItsState() {
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire(0, "10.0.0.1");
+        }
+        for (int second = 0; second < 30; second++) {
+            clock.addAndGet(SECOND);
+            limiter.expire();
+            if (second % 2 == 1) {
+                assertEquals(RateLimiter.ADMITTED, limiter.acquire(0, "10.0.0.1"));
+            }
+        }
+
+        assertEquals(1, limiter.trackedKeys(0));
+        assertTrue(limiter.acquire(0, "10.0.0.1") > 0);
+    }
+
+    @Test
+    void whenClientsArriveWhileExpiryRunsThenNoneIsLeftBehind() throws Exception {
+        var done = new AtomicBoolean();
+        var expirer = new Thread(() -> {
+            while (!done.get()) {
+                clock.addAndGet(SECOND / 20);
+                limiter.expire();
+            }
+        });
+        expirer.start();
+        try (ExecutorService clients = Executors.newFixedThreadPool(4)) {
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                clients.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        limiter.acquire(1, thread + ":" + i);
+                    }
+                });
+            }
+        } finally {
+            done.set(true);
+            expirer.join();
+        }
+
+        // A bucket scheduled with a clock reading the expirer has since overtaken waits one more
+        // rotation of the wheel, but it must not be lost
+        clock.addAndGet(300 * SECOND);
+        limiter.expire();
+
+        assertEquals(0, limiter.trackedKeys(1));
+    }
+}
@@ -0,0 +1,83 @@
+package com.watchparty.security;
+
+import com.watchparty.exception.ServerBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    private PasswordHasher hasher;
+
+    @AfterEach
+    void tearDown() {
+        if (hasher != null) {
+            hasher.shutdown();
+        }
+    }
+
+    @Test
+    void whenHashedThenMatchesOnlyTheOriginalPassword() {
+        hasher = new PasswordHasher(new BCryptPasswordEncoder(4), 1, 4);
+
+        String hash = hasher.encode("correct horse");
+
+        assertTrue(hasher.matches("correct horse", hash));
+        assertFalse(hasher.matches("battery staple", hash));
+    }
+
+    @Test
+    void whenCostFactorRaisedThenOldHashesNeedRehash() {
+        String weak = new BCryptPasswordEncoder(4).encode("secret");
+        hasher = new PasswordHasher(new BCryptPasswordEncoder(5), 1, 4);
+
+        assertTrue(hasher.needsRehash(weak));
+        assertFalse(hasher.needsRehash(hasher.encode("secret")));
+    }
+
+    @Test
+    void whenPoolAndQueueAreFullThenRequestIsRejectedWithoutHashing() throws Exception {
+        var release = new CountDownLatch(1);
+        var started = new CountDownLatch(1);
+        PasswordEncoder blocking = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        hasher = new PasswordHasher(blocking, 1, 1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            callers.submit(() -> hasher.encode("running"));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            callers.submit(() -> hasher.encode("queued"));
+            waitForQueuedTask();
+
+            var ex = assertThrows(ServerBusyException.class, () -> hasher.matches("rejected", "hash"));
+            assertEquals(1, ex.getRetryAfterSeconds());
+        } finally {
+            release.countDown();
+            callers.shutdown();
+            assertTrue(callers.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+
+    private static void waitForQueuedTask() throws InterruptedException {
+        // The second caller submits asynchronously; give it a moment to land in the queue
+        Thread.sleep(200);
+    }
+}
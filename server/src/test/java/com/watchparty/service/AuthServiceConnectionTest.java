@@ -0,0 +1,85 @@
+package com.watchparty.service;
+
+import com.watchparty.dto.LoginRequest;
+import com.watchparty.entity.User;
+import com.watchparty.repository.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import javax.sql.DataSource;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "spring.datasource.hikari.maximum-pool-size=1",
+        "spring.datasource.hikari.connection-timeout=1000",
+        "security.password.threads=1"
+})
+@SuppressWarnings("null")
+class AuthServiceConnectionTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void whenLoginsWaitForHashingThenNoConnectionIsHeld() throws Exception {
+        saveUser("alice@example.com", "Alice");
+        saveUser("bob@example.com", "Bob");
+
+        var hashing = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(passwordEncoder.matches(any(), any())).thenAnswer(invocation -> {
+            hashing.countDown();
+            return release.await(10, TimeUnit.SECONDS);
+        });
+
+        // One login hashes on the only hashing thread, the second queues behind it
+        var running = CompletableFuture.supplyAsync(() -> authService.login(new LoginRequest("alice@example.com", "pw")));
+        assertTrue(hashing.await(5, TimeUnit.SECONDS));
+        var queued = CompletableFuture.supplyAsync(() -> authService.login(new LoginRequest("bob@example.com", "pw")));
+
+        try {
+            // Both logins have finished reading the user once the second is queued for hashing
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            var pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+            while (pool.getActiveConnections() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, pool.getActiveConnections());
+            // The pool's single connection is free for other traffic
+            assertEquals(1, new JdbcTemplate(dataSource).queryForObject("SELECT 1", Integer.class));
+        } finally {
+            release.countDown();
+        }
+
+        assertEquals("alice@example.com", running.get(5, TimeUnit.SECONDS).email());
+        assertEquals("bob@example.com", queued.get(5, TimeUnit.SECONDS).email());
+    }
+
+    private void saveUser(String email, String displayName) {
+        var user = new User();
+        user.setEmail(email);
+        user.setDisplayName(displayName);
+        user.setPasswordHash("hashed_password");
+        userRepository.save(user);
+    }
+}
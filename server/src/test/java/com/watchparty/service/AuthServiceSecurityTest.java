@@ -5,14 +5,18 @@ import com.watchparty.entity.User;
 import com.watchparty.repository.RefreshTokenRepository;
 import com.watchparty.repository.RoomRepository;
 import com.watchparty.repository.UserRepository;
+import com.watchparty.security.PasswordHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
@@ -43,12 +47,17 @@ class AuthServiceSecurityTest {
     @Mock
     private RefreshTokenRepository refreshTokenRepository;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final RefreshTokenCache refreshTokenCache = new RefreshTokenCache(3_600_000, 1000);
+
     private AuthService authService;
 
     @BeforeEach
     void setUp() {
-        authService = new AuthService(userRepository, passwordEncoder, jwtService,
-                roomRepository, refreshTokenRepository, 604800000L);
+        authService = new AuthService(userRepository, new PasswordHasher(passwordEncoder, 1, 16), jwtService,
+                roomRepository, refreshTokenRepository, refreshTokenCache, transactionManager, new SimpleMeterRegistry(), 604800000L, 3600000L);
     }
 
     @Test
@@ -99,7 +108,7 @@ class AuthServiceSecurityTest {
         when(claims.getSubject()).thenReturn(userId.toString());
         when(jwtService.parseToken("valid-refresh")).thenReturn(claims);
         when(jwtService.isRefreshToken(claims)).thenReturn(true);
-        when(jwtService.generateAccessToken(any(), any())).thenReturn("new-access");
+        when(jwtService.generateAccessToken(any(), any(), any())).thenReturn("new-access");
         when(jwtService.generateRefreshToken(any(), any())).thenReturn("new-refresh");
 
         RefreshToken validToken = new RefreshToken();
@@ -116,13 +125,100 @@ class AuthServiceSecurityTest {
         user.setEmail("test@example.com");
         user.setDisplayName("Test");
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(refreshTokenRepository.revokeToken(any())).thenReturn(1);
 
         var response = authService.refresh("valid-refresh");
 
         assertNotNull(response);
         assertEquals("new-access", response.accessToken());
-        assertTrue(validToken.isRevoked());
-        verify(refreshTokenRepository, times(2)).save(any(RefreshToken.class));
+        verify(refreshTokenRepository).revokeToken(any());
+        verify(refreshTokenRepository).save(any(RefreshToken.class));
+    }
+
+    @Test
+    void whenRotatedTokenIsRefreshedThenFamilyAndUserComeFromCache() {
+        UUID userId = UUID.randomUUID();
+        stubRefreshClaims("first-refresh", userId);
+        stubRefreshClaims("second-refresh", userId);
+        when(jwtService.generateAccessToken(any(), any(), any())).thenReturn("access");
+        when(jwtService.generateRefreshToken(any(), any())).thenReturn("second-refresh", "third-refresh");
+        when(refreshTokenRepository.revokeToken(any())).thenReturn(1);
+
+        RefreshToken stored = new RefreshToken();
+        stored.setUserId(userId);
+        stored.setFamilyId(UUID.randomUUID());
+        stored.setExpiresAt(Instant.now().plusSeconds(3600));
+        when(refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.of(stored));
+        User user = new User();
+        user.setId(userId);
+        user.setEmail("test@example.com");
+        user.setDisplayName("Test");
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
+        authService.refresh("first-refresh");
+        var response = authService.refresh("second-refresh");
+
+        assertEquals("third-refresh", response.refreshToken());
+        verify(refreshTokenRepository, times(1)).findByTokenHash(any());
+        verify(userRepository, times(1)).findById(userId);
+        verify(refreshTokenRepository, times(2)).revokeToken(any());
+        assertEquals(1, refreshTokenCache.size());
+        assertEquals(1, refreshTokenCache.families());
+    }
+
+    @Test
+    void whenSpentTokenIsReplayedThenDatabaseRevokesEntireFamily() {
+        UUID userId = UUID.randomUUID();
+        UUID familyId = UUID.randomUUID();
+        stubRefreshClaims("first-refresh", userId);
+        stubRefreshClaims("second-refresh", userId);
+        when(jwtService.generateAccessToken(any(), any(), any())).thenReturn("access");
+        when(jwtService.generateRefreshToken(any(), any())).thenReturn("second-refresh", "third-refresh");
+        when(refreshTokenRepository.revokeToken(any())).thenReturn(1);
+
+        RefreshToken stored = new RefreshToken();
+        stored.setUserId(userId);
+        stored.setFamilyId(familyId);
+        stored.setExpiresAt(Instant.now().plusSeconds(3600));
+        when(refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.of(stored));
+        User user = new User();
+        user.setId(userId);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
+        authService.refresh("first-refresh");
+        authService.refresh("second-refresh");
+        stored.setRevoked(true);
+
+        assertThrows(ResponseStatusException.class, () -> authService.refresh("second-refresh"));
+        verify(refreshTokenRepository, times(2)).findByTokenHash(any());
+        verify(refreshTokenRepository).revokeFamily(familyId);
+    }
+
+    @Test
+    void whenTokenWasSpentElsewhereThenRevokesEntireFamily() {
+        UUID familyId = UUID.randomUUID();
+        stubRefreshClaims("raced-refresh", UUID.randomUUID());
+
+        RefreshToken stored = new RefreshToken();
+        stored.setUserId(UUID.randomUUID());
+        stored.setFamilyId(familyId);
+        stored.setExpiresAt(Instant.now().plusSeconds(3600));
+        when(refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.of(stored));
+        when(refreshTokenRepository.revokeToken(any())).thenReturn(0);
+
+        assertThrows(ResponseStatusException.class, () -> authService.refresh("raced-refresh"));
+
+        verify(refreshTokenRepository).revokeFamily(familyId);
+        verify(refreshTokenRepository, never()).save(any(RefreshToken.class));
+    }
+
+    @Test
+    void whenCleaningUpThenExpiredTokensAreDeletedOneSliceAtATime() {
+        when(refreshTokenRepository.findEarliestExpiry()).thenReturn(Instant.now().minus(Duration.ofMinutes(150)));
+
+        authService.cleanupExpiredTokens();
+
+        verify(refreshTokenRepository, times(3)).deleteExpiredBetween(any(), any());
     }
 
     @Test
@@ -144,6 +240,13 @@ class AuthServiceSecurityTest {
         assertThrows(ResponseStatusException.class, () -> authService.refresh("unknown-token"));
     }
 
+    private void stubRefreshClaims(String token, UUID userId) {
+        var claims = mock(io.jsonwebtoken.Claims.class);
+        lenient().when(claims.getSubject()).thenReturn(userId.toString());
+        when(jwtService.parseToken(token)).thenReturn(claims);
+        when(jwtService.isRefreshToken(claims)).thenReturn(true);
+    }
+
     private String anyHash() {
         return "a".repeat(64);
     }
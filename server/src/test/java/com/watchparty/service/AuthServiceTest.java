@@ -1,17 +1,21 @@
 package com.watchparty.service;
 
 import com.watchparty.dto.ChangePasswordRequest;
+import com.watchparty.dto.LoginRequest;
 import com.watchparty.dto.UpdateProfileRequest;
 import com.watchparty.entity.User;
 import com.watchparty.repository.RefreshTokenRepository;
 import com.watchparty.repository.RoomRepository;
 import com.watchparty.repository.UserRepository;
+import com.watchparty.security.PasswordHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Optional;
@@ -41,6 +45,11 @@ class AuthServiceTest {
     @Mock
     private RefreshTokenRepository refreshTokenRepository;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final RefreshTokenCache refreshTokenCache = new RefreshTokenCache(3_600_000, 1000);
+
     private AuthService authService;
 
     private User sampleUser;
@@ -48,8 +57,8 @@ class AuthServiceTest {
 
     @BeforeEach
     void setUp() {
-        authService = new AuthService(userRepository, passwordEncoder, jwtService,
-                roomRepository, refreshTokenRepository, 604800000L);
+        authService = new AuthService(userRepository, new PasswordHasher(passwordEncoder, 1, 16), jwtService,
+                roomRepository, refreshTokenRepository, refreshTokenCache, transactionManager, new SimpleMeterRegistry(), 604800000L, 3600000L);
         userId = UUID.randomUUID();
         sampleUser = new User();
         sampleUser.setId(userId);
@@ -61,7 +70,7 @@ class AuthServiceTest {
     @Test
     void whenUpdateProfileDisplayNameThenUpdates() {
         when(userRepository.findById(userId)).thenReturn(Optional.of(sampleUser));
-        when(jwtService.generateAccessToken(any(), any())).thenReturn("access");
+        when(jwtService.generateAccessToken(any(), any(), any())).thenReturn("access");
         when(jwtService.generateRefreshToken(any(), any())).thenReturn("refresh");
 
         var request = new UpdateProfileRequest("NewName", null);
@@ -76,7 +85,7 @@ class AuthServiceTest {
     void whenUpdateProfileEmailThenChecksUniqueness() {
         when(userRepository.findById(userId)).thenReturn(Optional.of(sampleUser));
         when(userRepository.existsByEmailAndIdNot("new@example.com", userId)).thenReturn(false);
-        when(jwtService.generateAccessToken(any(), any())).thenReturn("access");
+        when(jwtService.generateAccessToken(any(), any(), any())).thenReturn("access");
         when(jwtService.generateRefreshToken(any(), any())).thenReturn("refresh");
 
         var request = new UpdateProfileRequest(null, "new@example.com");
@@ -142,4 +151,31 @@ class AuthServiceTest {
         verify(roomRepository, never()).deleteByOwnerId(any());
         verify(userRepository, never()).delete(any());
     }
+
+    @Test
+    void whenLoginWithHashBelowConfiguredCostThenPasswordIsRehashed() {
+        when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(sampleUser));
+        when(passwordEncoder.matches("mypassword", "hashed_password")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("hashed_password")).thenReturn(true);
+        when(passwordEncoder.encode("mypassword")).thenReturn("stronger_hash");
+        when(jwtService.generateAccessToken(any(), any(), any())).thenReturn("access");
+        when(jwtService.generateRefreshToken(any(), any())).thenReturn("refresh");
+
+        authService.login(new LoginRequest("alice@example.com", "mypassword"));
+
+        verify(userRepository).updatePasswordHash(userId, "hashed_password", "stronger_hash");
+    }
+
+    @Test
+    void whenLoginWithCurrentHashThenPasswordIsNotRehashed() {
+        when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(sampleUser));
+        when(passwordEncoder.matches("mypassword", "hashed_password")).thenReturn(true);
+        when(jwtService.generateAccessToken(any(), any(), any())).thenReturn("access");
+        when(jwtService.generateRefreshToken(any(), any())).thenReturn("refresh");
+
+        authService.login(new LoginRequest("alice@example.com", "mypassword"));
+
+        verify(passwordEncoder, never()).encode(any());
+        verify(userRepository, never()).updatePasswordHash(any(), any(), any());
+    }
 }
@@ -0,0 +1,85 @@
+package com.watchparty.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings({"null", "unchecked"})
+class ChatPartitionMaintenanceTest {
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    @Mock
+    private JdbcTemplate jdbc;
+
+    private ChatPartitionMaintenance maintenance;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        maintenance = new ChatPartitionMaintenance(jdbc, new ChatRetention(Duration.ofDays(30), Duration.ofDays(2)),
+                new SimpleMeterRegistry(), Duration.ofDays(7), 2, 100);
+        today = LocalDate.now(ZoneOffset.UTC);
+    }
+
+    @Test
+    void whenPartitionedThenPartitionsAreCreatedAheadAndExpiredOnesDropped() {
+        givenDatabase("PostgreSQL", true);
+        String expired = partition(today.minusDays(60), today.minusDays(40));
+        String current = partition(today.minusDays(3), today.plusDays(4));
+        when(jdbc.queryForList(contains("pg_inherits"), eq(String.class)))
+                .thenReturn(List.of(expired, current, "chat_messages_default"));
+
+        maintenance.maintain();
+
+        verify(jdbc).execute("CREATE TABLE IF NOT EXISTS " + partition(today.plusDays(4), today.plusDays(11))
+                + " PARTITION OF chat_messages FOR VALUES FROM ('" + today.plusDays(4) + "') TO ('"
+                + today.plusDays(11) + "')");
+        verify(jdbc).execute("CREATE TABLE IF NOT EXISTS " + partition(today.plusDays(11), today.plusDays(18))
+                + " PARTITION OF chat_messages FOR VALUES FROM ('" + today.plusDays(11) + "') TO ('"
+                + today.plusDays(18) + "')");
+        verify(jdbc).execute("ALTER TABLE chat_messages DETACH PARTITION " + expired);
+        verify(jdbc).execute("DROP TABLE " + expired);
+        verify(jdbc, never()).execute("DROP TABLE " + current);
+        verify(jdbc, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void whenNotPartitionedThenExpiredRowsAreDeletedInChunksPerRoomType() {
+        givenDatabase("H2", false);
+        when(jdbc.update(contains("DELETE FROM chat_messages"), eq(true), any(), eq(100))).thenReturn(100, 40);
+        when(jdbc.update(contains("DELETE FROM chat_messages"), eq(false), any(), eq(100))).thenReturn(0);
+
+        maintenance.maintain();
+
+        verify(jdbc, times(2)).update(contains("DELETE FROM chat_messages"), eq(true), any(), eq(100));
+        verify(jdbc, times(1)).update(contains("DELETE FROM chat_messages"), eq(false), any(), eq(100));
+        verify(jdbc, never()).execute(anyString());
+    }
+
+    private void givenDatabase(String product, boolean partitioned) {
+        when(jdbc.execute(any(ConnectionCallback.class))).thenReturn(product);
+        if (partitioned) {
+            when(jdbc.queryForObject(contains("pg_partitioned_table"), eq(Boolean.class))).thenReturn(true);
+        }
+    }
+
+    private static String partition(LocalDate from, LocalDate to) {
+        return "chat_messages_p" + DATE.format(from) + "_" + DATE.format(to);
+    }
+}
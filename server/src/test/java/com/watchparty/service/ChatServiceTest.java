@@ -12,8 +12,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 
@@ -32,6 +34,9 @@ class ChatServiceTest {
     @Mock
     private RoomRepository roomRepository;
 
+    @Spy
+    private ChatRetention retention = new ChatRetention(Duration.ofDays(90), Duration.ofDays(2));
+
     @InjectMocks
     private ChatService chatService;
 
@@ -149,7 +154,7 @@ class ChatServiceTest {
         msg3.setSentAt(now);
 
         // Repository returns desc order (newest first)
-        when(chatMessageRepository.findTop200ByRoomIdOrderBySentAtDesc(roomId))
+        when(chatMessageRepository.findTop200ByRoomIdAndSentAtAfterOrderBySentAtDesc(eq(roomId), any()))
                 .thenReturn(List.of(msg3, msg2, msg1));
 
         List<ChatMessageResponse> history = chatService.getChatHistory(roomId);
@@ -159,4 +164,18 @@ class ChatServiceTest {
         assertEquals("Second message", history.get(1).content());
         assertEquals("Third message", history.get(2).content());
     }
+
+    @Test
+    void whenGettingHistoryThenOnlyMessagesWithinTheRoomTypesRetentionAreQueried() {
+        when(roomRepository.findPermanentById(roomId)).thenReturn(Optional.of(true));
+        when(chatMessageRepository.findTop200ByRoomIdAndSentAtAfterOrderBySentAtDesc(eq(roomId), any()))
+                .thenReturn(List.of());
+
+        chatService.getChatHistory(roomId);
+
+        var since = ArgumentCaptor.forClass(Instant.class);
+        verify(chatMessageRepository).findTop200ByRoomIdAndSentAtAfterOrderBySentAtDesc(eq(roomId), since.capture());
+        Duration window = Duration.between(since.getValue(), Instant.now());
+        assertTrue(window.compareTo(Duration.ofDays(90)) >= 0 && window.compareTo(Duration.ofDays(91)) < 0);
+    }
 }
@@ -0,0 +1,106 @@
+package com.watchparty.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "test-secret-key-for-unit-tests-must-be-at-least-256-bits-long-so-adding-more";
+
+    private final JwtService jwtService = new JwtService(SECRET, 60_000, 600_000, 2, 0.1, 0.2);
+
+    @Test
+    void whenSameTokenParsedTwiceThenVerifiedClaimsAreReused() {
+        String token = jwtService.generateAccessToken(UUID.randomUUID(), "a@example.com", "Alice");
+
+        Claims first = jwtService.parseToken(token);
+        Claims second = jwtService.parseToken(token);
+
+        assertSame(first, second);
+        assertTrue(jwtService.isAccessToken(second));
+        assertEquals("Alice", jwtService.getDisplayName(second));
+    }
+
+    @Test
+    void whenTokenTamperedThenVerificationStillFails() {
+        String token = jwtService.generateAccessToken(UUID.randomUUID(), "a@example.com", "Alice");
+        jwtService.parseToken(token);
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtService.parseToken(tampered));
+    }
+
+    @Test
+    void whenTokenExpiredThenItIsNotServedFromCache() throws InterruptedException {
+        var shortLived = new JwtService(SECRET, 1_000, 1_000, 10, 0.0, 0.2);
+        String token = shortLived.generateAccessToken(UUID.randomUUID(), "a@example.com", "Alice");
+        shortLived.parseToken(token);
+
+        Thread.sleep(1_100);
+
+        assertThrows(ExpiredJwtException.class, () -> shortLived.parseToken(token));
+    }
+
+    @Test
+    void whenCacheIsFullOfExpiredEntriesThenAPurgeMakesRoom() throws InterruptedException {
+        var shortLived = new JwtService(SECRET, 1_000, 1_000, 2, 0.0, 0.2);
+        for (int i = 0; i < 2; i++) {
+            shortLived.parseToken(shortLived.generateAccessToken(UUID.randomUUID(), i + "@example.com", "User " + i));
+        }
+        Thread.sleep(1_100);
+
+        // Full of expired entries: the first uncached token purges them and takes a slot
+        shortLived.parseToken(shortLived.generateAccessToken(UUID.randomUUID(), "a@example.com", "Alice"));
+        assertEquals(1, shortLived.cachedTokens());
+        shortLived.parseToken(shortLived.generateAccessToken(UUID.randomUUID(), "b@example.com", "Bob"));
+        assertEquals(2, shortLived.cachedTokens());
+
+        // Full of live tokens: still verified, just not cached
+        String carol = shortLived.generateAccessToken(UUID.randomUUID(), "c@example.com", "Carol");
+        assertEquals("c@example.com", shortLived.parseToken(carol).get("email", String.class));
+        assertEquals(2, shortLived.cachedTokens());
+    }
+
+    @Test
+    void whenCacheIsFullThenTokensAreStillVerified() {
+        for (int i = 0; i < 5; i++) {
+            String token = jwtService.generateAccessToken(UUID.randomUUID(), i + "@example.com", "User " + i);
+            assertEquals(i + "@example.com", jwtService.parseToken(token).get("email", String.class));
+        }
+    }
+
+    @Test
+    void whenAccessTokensAreIssuedTogetherThenExpiriesAreSpreadBelowTheConfiguredLifetime() {
+        var jittered = new JwtService(SECRET, 3_600_000, 600_000, 100, 0.5, 0.2);
+        long issuedAt = System.currentTimeMillis();
+
+        var expiries = new HashSet<Long>();
+        for (int i = 0; i < 20; i++) {
+            Claims claims = jittered.parseToken(jittered.generateAccessToken(UUID.randomUUID(), "a@example.com", "Alice"));
+            long lifetimeMs = claims.getExpiration().getTime() - issuedAt;
+            assertTrue(lifetimeMs > 1_790_000 && lifetimeMs <= 3_600_000, "lifetime " + lifetimeMs);
+            expiries.add(claims.getExpiration().getTime());
+        }
+
+        assertTrue(expiries.size() > 1);
+    }
+
+    @Test
+    void whenTokenIsFreshThenRefreshIsAdvisedOnceTheLeadIsLeft() {
+        var unjittered = new JwtService(SECRET, 600_000, 600_000, 10, 0.0, 0.2);
+        String token = unjittered.generateAccessToken(UUID.randomUUID(), "a@example.com", "Alice");
+
+        long refreshIn = unjittered.refreshInSeconds(token);
+
+        assertTrue(refreshIn >= 478 && refreshIn <= 480, "refresh in " + refreshIn);
+        assertEquals(0, unjittered.refreshInSeconds("not-a-token"));
+    }
+}
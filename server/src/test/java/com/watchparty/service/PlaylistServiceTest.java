@@ -11,9 +11,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.Instant;
 import java.util.List;
@@ -38,6 +40,9 @@ class PlaylistServiceTest {
     @Mock
     private YouTubeService youTubeService;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private PlaylistService playlistService;
 
@@ -75,6 +80,39 @@ class PlaylistServiceTest {
         assertEquals("Alice", captor.getValue().getAddedBy());
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenAddItemsThenSavesAllInOneBatchWithConsecutivePositions() {
+        when(roomRepository.findById(Objects.requireNonNull(roomId))).thenReturn(Optional.of(sampleRoom));
+        when(playlistItemRepository.countByRoomId(roomId)).thenReturn(2);
+        when(playlistItemRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<PlaylistItemResponse> responses = playlistService.addItems(roomId,
+                List.of("https://youtube.com/watch?v=a", "https://youtube.com/watch?v=b"), "Alice");
+
+        assertEquals(List.of(3, 4), responses.stream().map(PlaylistItemResponse::position).toList());
+        ArgumentCaptor<List<PlaylistItem>> captor = ArgumentCaptor.forClass(List.class);
+        verify(playlistItemRepository).saveAll(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        verify(roomRepository, times(1)).findById(roomId);
+        verify(playlistItemRepository, times(1)).countByRoomId(roomId);
+        verify(playlistItemRepository, never()).save(any());
+    }
+
+    @Test
+    void whenAddItemsThenMetadataIsFetchedBeforeTheTransactionStarts() {
+        when(roomRepository.findById(Objects.requireNonNull(roomId))).thenReturn(Optional.of(sampleRoom));
+        when(playlistItemRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        playlistService.addItems(roomId, List.of("https://youtube.com/watch?v=a", "https://youtube.com/watch?v=b"), "Alice");
+
+        InOrder inOrder = inOrder(youTubeService, transactionManager, roomRepository);
+        inOrder.verify(youTubeService, times(2)).fetchMetadata(any());
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(roomRepository).findById(roomId);
+        inOrder.verify(transactionManager).commit(any());
+    }
+
     @Test
     void whenGetPlaylistThenReturnsOrderedItems() {
         PlaylistItem item1 = createItem(UUID.randomUUID(), "https://youtube.com/watch?v=1", "Alice", 1);
@@ -0,0 +1,97 @@
+package com.watchparty.service;
+
+import com.watchparty.repository.ChatMessageRepository;
+import com.watchparty.repository.PlaylistItemRepository;
+import com.watchparty.repository.RoomRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class RoomCleanupServiceTest {
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @Mock
+    private ChatMessageRepository chatMessageRepository;
+
+    @Mock
+    private PlaylistItemRepository playlistItemRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RoomCleanupService cleanupService;
+
+    @BeforeEach
+    void setUp() {
+        cleanupService = cleanupService(Duration.ofMinutes(1));
+    }
+
+    @Test
+    void whenRoomsExpiredThenTheyAreDeletedChildFirstInChunks() {
+        List<UUID> first = List.of(UUID.randomUUID(), UUID.randomUUID());
+        List<UUID> second = List.of(UUID.randomUUID());
+        when(roomRepository.findExpiredIds(any(), any())).thenReturn(first).thenReturn(second);
+        when(roomRepository.deleteAllByIdIn(first)).thenReturn(2);
+        when(roomRepository.deleteAllByIdIn(second)).thenReturn(1);
+
+        cleanupService.deleteExpiredRooms();
+
+        InOrder order = inOrder(chatMessageRepository, playlistItemRepository, roomRepository);
+        order.verify(chatMessageRepository).deleteAllByRoomIdIn(first);
+        order.verify(playlistItemRepository).deleteAllByRoomIdIn(first);
+        order.verify(roomRepository).deleteAllByIdIn(first);
+        order.verify(chatMessageRepository).deleteAllByRoomIdIn(second);
+        verify(transactionManager, times(2)).commit(any());
+        assertEquals(3.0, meterRegistry.get("watchparty.cleanup.rooms.deleted").tag("table", "rooms").counter().count());
+        assertEquals(0.0, meterRegistry.get("watchparty.cleanup.rooms.backlog").gauge().value());
+    }
+
+    @Test
+    void whenTimeBudgetIsUsedUpThenRemainingRoomsAreLeftForNextRun() {
+        cleanupService = cleanupService(Duration.ZERO);
+        List<UUID> chunk = List.of(UUID.randomUUID(), UUID.randomUUID());
+        when(roomRepository.findExpiredIds(any(), any())).thenReturn(chunk);
+        when(roomRepository.deleteAllByIdIn(chunk)).thenReturn(2);
+        when(roomRepository.countExpired(any())).thenReturn(40L);
+
+        cleanupService.deleteExpiredRooms();
+
+        verify(roomRepository, times(1)).deleteAllByIdIn(any());
+        assertEquals(40.0, meterRegistry.get("watchparty.cleanup.rooms.backlog").gauge().value());
+    }
+
+    @Test
+    void whenNothingExpiredThenNothingIsDeleted() {
+        when(roomRepository.findExpiredIds(any(), any())).thenReturn(List.of());
+
+        cleanupService.deleteExpiredRooms();
+
+        verifyNoInteractions(chatMessageRepository, playlistItemRepository);
+        verify(roomRepository, never()).deleteAllByIdIn(any());
+    }
+
+    private RoomCleanupService cleanupService(Duration timeBudget) {
+        meterRegistry.clear();
+        return new RoomCleanupService(roomRepository, chatMessageRepository, playlistItemRepository,
+                transactionManager, meterRegistry, 2, timeBudget);
+    }
+}
@@ -1,24 +1,27 @@
 package com.watchparty.service;
 
+import com.watchparty.datasource.ReplicaLagGuard;
 import com.watchparty.dto.CreateRoomRequest;
 import com.watchparty.entity.ControlMode;
 import com.watchparty.entity.Room;
 import com.watchparty.exception.RoomNotFoundException;
-import com.watchparty.repository.ParticipantRepository;
+import com.watchparty.presence.PresenceRegistry;
 import com.watchparty.repository.RoomRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
 import java.time.Instant;
-import java.util.Collections;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -32,7 +35,13 @@ class RoomServiceTest {
     private RoomRepository roomRepository;
 
     @Mock
-    private ParticipantRepository participantRepository;
+    private PresenceRegistry presence;
+
+    @Mock
+    private RoomStateWriter roomStateWriter;
+
+    @Spy
+    private ReplicaLagGuard replicaLag = new ReplicaLagGuard("", Duration.ofSeconds(2));
 
     @InjectMocks
     private RoomService roomService;
@@ -65,12 +74,13 @@ class RoomServiceTest {
         assertEquals("ABCD1234", response.code());
         assertEquals(0, response.participantCount());
         verify(roomRepository).save(any(Room.class));
+        verify(replicaLag).recordWrite(sampleRoom.getId(), "ABCD1234", ownerId);
     }
 
     @Test
     void whenFindByCodeThenReturnsRoom() {
         when(roomRepository.findByCode("ABCD1234")).thenReturn(Optional.of(Objects.requireNonNull(sampleRoom)));
-        when(participantRepository.findByRoomId(sampleRoom.getId())).thenReturn(Collections.emptyList());
+        when(presence.count(sampleRoom.getId())).thenReturn(0);
 
         var response = roomService.findByCode("ABCD1234");
 
@@ -93,6 +103,7 @@ class RoomServiceTest {
         roomService.deleteByCode("ABCD1234", ownerId);
 
         verify(roomRepository).deleteByCode("ABCD1234");
+        verify(replicaLag).recordWrite(sampleRoom.getId(), "ABCD1234", ownerId);
     }
 
     @Test
@@ -119,5 +130,27 @@ class RoomServiceTest {
         assertThrows(ResponseStatusException.class,
                 () -> roomService.renameRoom("ABCD1234", "New Name", otherUserId));
         verify(roomRepository, never()).save(any());
+        verifyNoInteractions(roomStateWriter);
+    }
+
+    @Test
+    void whenRenameRoomThenOnlyNameIsChangedThroughWriter() {
+        when(roomRepository.findByCode("ABCD1234")).thenReturn(Optional.of(Objects.requireNonNull(sampleRoom)));
+        var latest = new Room();
+        latest.setId(sampleRoom.getId());
+        latest.setName("Movie Night");
+        latest.setPlaying(true);
+        latest.setCurrentTimeSeconds(120);
+        when(roomStateWriter.update(eq(sampleRoom.getId()), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<Room>>getArgument(1).accept(latest);
+            return latest;
+        });
+
+        var response = roomService.renameRoom("ABCD1234", "New Name", ownerId);
+
+        assertEquals("New Name", response.name());
+        assertTrue(latest.isPlaying());
+        assertEquals(120, latest.getCurrentTimeSeconds());
+        verify(roomRepository, never()).save(any());
     }
 }
@@ -0,0 +1,95 @@
+package com.watchparty.service;
+
+import com.watchparty.datasource.ReplicaLagGuard;
+import com.watchparty.entity.Room;
+import com.watchparty.repository.RoomRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class RoomStateWriterTest {
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RoomStateWriter writer;
+    private UUID roomId;
+
+    @BeforeEach
+    void setUp() {
+        writer = new RoomStateWriter(roomRepository, transactionManager,
+                new ReplicaLagGuard("", Duration.ofSeconds(2)), meterRegistry, 3);
+        roomId = UUID.randomUUID();
+    }
+
+    @Test
+    void whenNoConflictThenChangeIsWrittenOnce() {
+        Room room = room("Movie Night");
+        when(roomRepository.findById(roomId)).thenReturn(Optional.of(room));
+        when(roomRepository.saveAndFlush(room)).thenReturn(room);
+
+        Room updated = writer.update(roomId, r -> r.setPlaying(true));
+
+        assertTrue(updated.isPlaying());
+        verify(roomRepository, times(1)).saveAndFlush(any());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void whenAnotherWriterWinsThenChangeIsReappliedOnTopOfTheirs() {
+        Room stale = room("Movie Night");
+        Room renamed = room("Renamed");
+        when(roomRepository.findById(roomId)).thenReturn(Optional.of(stale), Optional.of(renamed));
+        when(roomRepository.saveAndFlush(stale)).thenThrow(conflict());
+        when(roomRepository.saveAndFlush(renamed)).thenReturn(renamed);
+
+        Room updated = writer.update(roomId, r -> r.setPlaying(true));
+
+        assertSame(renamed, updated);
+        assertEquals("Renamed", updated.getName());
+        assertTrue(updated.isPlaying());
+        verify(transactionManager).rollback(any());
+        assertEquals(1.0, meterRegistry.get("watchparty.room.update.conflicts").counter().count());
+    }
+
+    @Test
+    void whenEveryAttemptConflictsThenFailureIsRethrown() {
+        when(roomRepository.findById(roomId)).thenAnswer(invocation -> Optional.of(room("Movie Night")));
+        when(roomRepository.saveAndFlush(any())).thenThrow(conflict());
+
+        assertThrows(OptimisticLockingFailureException.class, () -> writer.update(roomId, r -> r.setPlaying(true)));
+        verify(roomRepository, times(3)).saveAndFlush(any());
+    }
+
+    private Room room(String name) {
+        var room = new Room();
+        room.setId(roomId);
+        room.setName(name);
+        return room;
+    }
+
+    private static ObjectOptimisticLockingFailureException conflict() {
+        return new ObjectOptimisticLockingFailureException(Room.class, UUID.randomUUID());
+    }
+}
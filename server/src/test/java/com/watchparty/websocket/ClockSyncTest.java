@@ -0,0 +1,67 @@
+package com.watchparty.websocket;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClockSyncTest {
+
+    private final ClockSync clockSync = new ClockSync(0.2, 0.5, 0.1, 250, 50, 1000);
+
+    @Test
+    void whenFirstSampleArrivesThenItBecomesTheEstimate() {
+        clockSync.record("session-1", 40, 250);
+
+        var estimate = clockSync.estimate("session-1").orElseThrow();
+        assertEquals(40, estimate.rttMs());
+        assertEquals(250, estimate.offsetMs());
+        assertEquals(0.02, estimate.oneWayDelaySeconds(), 1e-9);
+    }
+
+    @Test
+    void whenSampleWasDelayedThenItsOffsetCountsForLess() {
+        clockSync.record("fast", 40, 0);
+        clockSync.record("fast", 40, 100);
+        clockSync.record("slow", 40, 0);
+        clockSync.record("slow", 400, 100);
+
+        double fastOffset = clockSync.estimate("fast").orElseThrow().offsetMs();
+        double slowOffset = clockSync.estimate("slow").orElseThrow().offsetMs();
+        assertEquals(20, fastOffset, 1e-9);
+        assertEquals(2, slowOffset, 1e-9);
+    }
+
+    @Test
+    void whenSampleIsImplausibleThenItIsIgnored() {
+        clockSync.record("session-1", -5, 0);
+        clockSync.record("session-1", 60_000, 0);
+        clockSync.record("session-1", 40, Double.NaN);
+
+        assertTrue(clockSync.estimate("session-1").isEmpty());
+    }
+
+    @Test
+    void whenEstimateIsJitteryThenToleranceWidensButNeverPastUnsynced() {
+        assertEquals(0.5, clockSync.rateAdjustThreshold(Optional.empty()));
+        assertEquals(0.1, clockSync.rateAdjustThreshold(Optional.of(new ClockSync.Estimate(0, 40, 5, 10))));
+        assertEquals(0.16, clockSync.rateAdjustThreshold(Optional.of(new ClockSync.Estimate(0, 40, 80, 10))), 1e-9);
+        assertEquals(0.5, clockSync.rateAdjustThreshold(Optional.of(new ClockSync.Estimate(0, 40, 900, 10))));
+    }
+
+    @Test
+    void whenSchedulingThenLeadFollowsSlowestSessionWithinBounds() {
+        clockSync.record("fast", 20, 0);
+        clockSync.record("slow", 300, 0);
+
+        assertEquals(50, clockSync.scheduleLeadMs(List.of("fast")));
+        assertEquals(300, clockSync.scheduleLeadMs(List.of("fast", "slow")));
+        assertEquals(250, clockSync.scheduleLeadMs(List.of("fast", "unmeasured")));
+        assertEquals(50, clockSync.scheduleLeadMs(List.of()));
+
+        clockSync.record("satellite", 4000, 0);
+        assertEquals(1000, clockSync.scheduleLeadMs(List.of("satellite")));
+    }
+}
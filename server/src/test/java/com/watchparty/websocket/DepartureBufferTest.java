@@ -0,0 +1,42 @@
+package com.watchparty.websocket;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DepartureBufferTest {
+
+    @Test
+    void whenDisconnectIsWithinGracePeriodThenItIsNotDue() {
+        var buffer = new DepartureBuffer(60_000);
+
+        buffer.schedule("session-1", true);
+
+        assertTrue(buffer.isPending("session-1"));
+        assertTrue(buffer.drainDue().isEmpty());
+    }
+
+    @Test
+    void whenExplicitLeaveFollowsDisconnectThenEarlierDeadlineWins() {
+        var buffer = new DepartureBuffer(60_000);
+
+        buffer.schedule("session-1", true);
+        buffer.schedule("session-1", false);
+
+        assertEquals(List.of("session-1"), buffer.drainDue());
+        assertFalse(buffer.isPending("session-1"));
+    }
+
+    @Test
+    void whenCancelledThenDepartureIsNeverDrained() {
+        var buffer = new DepartureBuffer(0);
+
+        buffer.schedule("session-1", true);
+
+        assertTrue(buffer.cancel("session-1"));
+        assertFalse(buffer.cancel("session-1"));
+        assertTrue(buffer.drainDue().isEmpty());
+    }
+}
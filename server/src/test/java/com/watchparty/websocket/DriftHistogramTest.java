@@ -0,0 +1,47 @@
+package com.watchparty.websocket;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DriftHistogramTest {
+
+    private final DriftHistogram histogram = new DriftHistogram();
+
+    @Test
+    void whenEmptyThenPercentilesAreZero() {
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.percentile(99));
+    }
+
+    @Test
+    void whenValuesRecordedThenPercentilesStayWithinBucketPrecision() {
+        for (long ms = 1; ms <= 1000; ms++) {
+            histogram.record(ms);
+        }
+
+        assertEquals(1000, histogram.count());
+        assertEquals(500, histogram.percentile(50), 500 * 0.125);
+        assertEquals(990, histogram.percentile(99), 990 * 0.125);
+        assertTrue(histogram.percentile(100) >= 1000);
+    }
+
+    @Test
+    void whenValueOutOfRangeThenItIsClamped() {
+        histogram.record(-5);
+        histogram.record(10_000_000);
+
+        assertEquals(0, histogram.percentile(50));
+        assertEquals(DriftHistogram.MAX_VALUE_MS, histogram.percentile(100));
+    }
+
+    @Test
+    void whenIndexingThenBucketsAreContiguous() {
+        int previous = DriftHistogram.index(0);
+        for (long v = 1; v <= DriftHistogram.MAX_VALUE_MS; v++) {
+            int index = DriftHistogram.index(v);
+            assertTrue(index == previous || index == previous + 1, "gap at " + v);
+            previous = index;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.watchparty.websocket;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JoinAdmissionServiceTest {
+
+    private JoinAdmissionService admission;
+    private UUID roomId;
+
+    @BeforeEach
+    void setUp() {
+        admission = new JoinAdmissionService(2, 1);
+        roomId = UUID.randomUUID();
+    }
+
+    @Test
+    void whenRoomIsBelowLimitAndNobodyWaitsThenHasCapacity() {
+        assertTrue(admission.hasCapacity(roomId, 1));
+        assertFalse(admission.hasCapacity(roomId, 2));
+
+        admission.enqueue(roomId, join("session-1"));
+
+        assertFalse(admission.hasCapacity(roomId, 1), "New joins must not overtake queued ones");
+    }
+
+    @Test
+    void whenSessionEnqueuesTwiceThenItKeepsItsPosition() {
+        assertEquals(1, admission.enqueue(roomId, join("session-1")));
+        assertEquals(2, admission.enqueue(roomId, join("session-2")));
+        assertEquals(1, admission.enqueue(roomId, join("session-1")));
+    }
+
+    @Test
+    void whenSlotFreesThenQueuedJoinsAreAdmittedInOrder() {
+        admission.enqueue(roomId, join("session-1"));
+        admission.enqueue(roomId, join("session-2"));
+
+        assertEquals("session-1", admission.pollWaiting(roomId).sessionId());
+        assertEquals("session-2", admission.pollWaiting(roomId).sessionId());
+        assertNull(admission.pollWaiting(roomId));
+        assertTrue(admission.hasCapacity(roomId, 1));
+    }
+
+    @Test
+    void whenQueuedSessionDisconnectsThenItIsRemoved() {
+        admission.enqueue(roomId, join("session-1"));
+        admission.enqueue(roomId, join("session-2"));
+
+        admission.cancel("session-1");
+
+        assertEquals(1, admission.waiting(roomId).size());
+        assertEquals("session-2", admission.waiting(roomId).getFirst().sessionId());
+    }
+
+    @Test
+    void whenNodeIsSaturatedThenFurtherJoinsAreRefusedUntilOneEnds() {
+        long started = System.nanoTime();
+        assertTrue(admission.tryBeginJoin());
+        assertFalse(admission.tryBeginJoin());
+        assertTrue(admission.estimatedRetrySeconds() >= 1);
+
+        admission.endJoin(started);
+
+        assertTrue(admission.tryBeginJoin());
+    }
+
+    private static JoinAdmissionService.PendingJoin join(String sessionId) {
+        return new JoinAdmissionService.PendingJoin(sessionId, "Guest", null);
+    }
+}
@@ -0,0 +1,51 @@
+package com.watchparty.websocket;
+
+import com.watchparty.entity.SyncStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReferenceTimelineTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final ReferenceTimeline timeline = new ReferenceTimeline(20000, 3);
+    private final UUID roomId = UUID.randomUUID();
+
+    @Test
+    void whenHostReportedThenReferenceAdvancesFromHostAnchor() {
+        timeline.record(roomId, "host", 90.0, 0);
+        timeline.record(roomId, "viewer", 100.0, 0);
+
+        assertEquals(OptionalDouble.of(92.0), timeline.position(roomId, SyncStrategy.HOST, "host", 2 * SECOND));
+        assertEquals(OptionalDouble.empty(), timeline.position(roomId, SyncStrategy.HOST, "someone-else", 2 * SECOND));
+        assertEquals(OptionalDouble.empty(), timeline.position(roomId, SyncStrategy.HOST, "host", 21 * SECOND));
+    }
+
+    @Test
+    void whenQuorumReportedThenReferenceIsMedianOfFreshAnchors() {
+        timeline.record(roomId, "a", 100.0, 0);
+        timeline.record(roomId, "b", 101.0, SECOND);
+        assertEquals(OptionalDouble.empty(), timeline.position(roomId, SyncStrategy.QUORUM_MEDIAN, null, SECOND));
+
+        timeline.record(roomId, "c", 250.0, SECOND);
+        assertEquals(OptionalDouble.of(101.0), timeline.position(roomId, SyncStrategy.QUORUM_MEDIAN, null, SECOND));
+
+        timeline.forget(roomId, List.of("c"));
+        assertEquals(OptionalDouble.empty(), timeline.position(roomId, SyncStrategy.QUORUM_MEDIAN, null, SECOND));
+    }
+
+    @Test
+    void whenServerClockStrategyOrResetThenThereIsNoReference() {
+        timeline.record(roomId, "host", 90.0, 0);
+
+        assertEquals(OptionalDouble.empty(), timeline.position(roomId, SyncStrategy.SERVER_CLOCK, "host", 0));
+        timeline.reset(roomId);
+        assertEquals(OptionalDouble.empty(), timeline.position(roomId, SyncStrategy.HOST, "host", 0));
+    }
+}
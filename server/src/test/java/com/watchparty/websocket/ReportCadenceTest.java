@@ -0,0 +1,46 @@
+package com.watchparty.websocket;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportCadenceTest {
+
+    private final ReportCadence cadence = new ReportCadence(5000, 1000, 15000, 3);
+
+    @Test
+    void whenReportsStayInSyncThenIntervalDoublesUpToMaximum() {
+        assertEquals(OptionalLong.empty(), cadence.observe("session-1", true));
+        assertEquals(OptionalLong.empty(), cadence.observe("session-1", true));
+        assertEquals(OptionalLong.of(10000), cadence.observe("session-1", true));
+
+        for (int i = 0; i < 6; i++) {
+            cadence.observe("session-1", true);
+        }
+        assertEquals(15000, cadence.intervalMs("session-1"));
+    }
+
+    @Test
+    void whenReportDriftsThenIntervalDropsToMinimumAndStreakRestarts() {
+        for (int i = 0; i < 3; i++) {
+            cadence.observe("session-1", true);
+        }
+
+        assertEquals(OptionalLong.of(1000), cadence.observe("session-1", false));
+        assertEquals(OptionalLong.empty(), cadence.observe("session-1", false));
+        cadence.observe("session-1", true);
+        cadence.observe("session-1", true);
+        assertEquals(OptionalLong.of(2000), cadence.observe("session-1", true));
+    }
+
+    @Test
+    void whenRestartedOrForgottenThenOnlyActualChangesAreReported() {
+        assertEquals(OptionalLong.of(1000), cadence.restart("session-1"));
+        assertEquals(OptionalLong.empty(), cadence.restart("session-1"));
+
+        cadence.forget("session-1");
+        assertEquals(5000, cadence.intervalMs("session-1"));
+    }
+}
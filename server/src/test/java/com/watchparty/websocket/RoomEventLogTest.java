@@ -0,0 +1,90 @@
+package com.watchparty.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.watchparty.dto.RoomEvent;
+import com.watchparty.dto.SerializedPayload;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null") // Mockito matchers (any/eq/capture) return null by design
+class RoomEventLogTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    private RoomEventLog eventLog;
+
+    @BeforeEach
+    void setUp() {
+        eventLog = new RoomEventLog(new ObjectMapper(), messagingTemplate, 3, 1024);
+    }
+
+    @Test
+    void whenPublishedThenBroadcastCarriesSequenceHeader() {
+        long first = eventLog.publish("ABCD1234", ".chat", Map.of("content", "hi"));
+        long second = eventLog.publish("ABCD1234", "", Map.of("action", "PLAY"));
+
+        assertEquals(1, first);
+        assertEquals(2, second);
+        verify(messagingTemplate).convertAndSend(eq("/topic/room.ABCD1234.chat"), any(SerializedPayload.class),
+                eq(Map.<String, Object>of(RoomEventLog.SEQ_HEADER, "1")));
+        assertEquals(2, eventLog.lastSeq("ABCD1234"));
+    }
+
+    @Test
+    void whenEventsAreStillLoggedThenOnlyMissedOnesAreReturned() {
+        eventLog.publish("ABCD1234", ".chat", Map.of("n", 1));
+        eventLog.publish("ABCD1234", ".chat", Map.of("n", 2));
+        eventLog.publish("ABCD1234", ".chat", Map.of("n", 3));
+
+        Optional<List<RoomEvent>> missed = eventLog.eventsAfter("ABCD1234", 1);
+
+        assertTrue(missed.isPresent());
+        assertEquals(List.of(2L, 3L), missed.get().stream().map(RoomEvent::seq).toList());
+        assertEquals("/topic/room.ABCD1234.chat", missed.get().getFirst().destination());
+    }
+
+    @Test
+    void whenMissedEventsWereDroppedThenCallerMustFallBackToSnapshots() {
+        for (int i = 0; i < 5; i++) {
+            eventLog.publish("ABCD1234", ".chat", Map.of("n", i));
+        }
+
+        assertTrue(eventLog.eventsAfter("ABCD1234", 1).isEmpty());
+        assertTrue(eventLog.eventsAfter("ABCD1234", 2).isPresent());
+    }
+
+    @Test
+    void whenSequenceIsFromEvictedLogThenCallerMustFallBackToSnapshots() {
+        eventLog.publish("ABCD1234", ".chat", Map.of("n", 1));
+        eventLog.evict("ABCD1234");
+
+        assertTrue(eventLog.eventsAfter("ABCD1234", 1).isEmpty());
+        assertEquals(0, eventLog.lastSeq("ABCD1234"));
+    }
+
+    @Test
+    void whenByteBudgetIsExceededThenOldestEventsAreDropped() {
+        String large = "x".repeat(400);
+        eventLog.publish("ABCD1234", ".playlist", Map.of("items", large));
+        eventLog.publish("ABCD1234", ".playlist", Map.of("items", large));
+        eventLog.publish("ABCD1234", ".playlist", Map.of("items", large));
+
+        assertTrue(eventLog.eventsAfter("ABCD1234", 0).isEmpty());
+        assertEquals(2, eventLog.eventsAfter("ABCD1234", 1).orElseThrow().size());
+    }
+}
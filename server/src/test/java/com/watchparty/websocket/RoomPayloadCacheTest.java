@@ -0,0 +1,104 @@
+package com.watchparty.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.watchparty.datasource.ReplicaLagGuard;
+import com.watchparty.dto.ChatMessageResponse;
+import com.watchparty.dto.PlaylistItemResponse;
+import com.watchparty.dto.PlaylistResponse;
+import com.watchparty.dto.SerializedPayload;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomPayloadCacheTest {
+
+    private RoomPayloadCache cache;
+    private UUID roomId;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RoomPayloadCache(new ObjectMapper().findAndRegisterModules(), new ReplicaLagGuard("", Duration.ofSeconds(2)),
+                Duration.ofMinutes(5));
+        roomId = UUID.randomUUID();
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void whenSnapshotRequestedTwiceThenLoadsAndSerializesOnce() {
+        SerializedPayload first = cache.playlist(roomId, this::loadPlaylist);
+        SerializedPayload second = cache.playlist(roomId, this::loadPlaylist);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void whenInvalidatedThenNextRequestReloads() {
+        cache.playlist(roomId, this::loadPlaylist);
+
+        cache.invalidate(roomId, RoomPayloadCache.Snapshot.PLAYLIST);
+        cache.playlist(roomId, this::loadPlaylist);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void whenOtherSnapshotInvalidatedThenCachedEntryIsKept() {
+        cache.playlist(roomId, this::loadPlaylist);
+
+        cache.invalidate(roomId, RoomPayloadCache.Snapshot.CHAT_HISTORY);
+        cache.playlist(roomId, this::loadPlaylist);
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void whenRoomEvictedThenNextRequestReloads() {
+        cache.playlist(roomId, this::loadPlaylist);
+
+        cache.evictRoom(roomId);
+        cache.playlist(roomId, this::loadPlaylist);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void whenChatHistoryOutlivesMaxAgeThenNextRequestReloads() {
+        cache = new RoomPayloadCache(new ObjectMapper().findAndRegisterModules(), new ReplicaLagGuard("", Duration.ofSeconds(2)),
+                Duration.ZERO);
+
+        cache.chatHistory(roomId, this::loadChatHistory);
+        cache.chatHistory(roomId, this::loadChatHistory);
+        cache.playlist(roomId, this::loadPlaylist);
+        cache.playlist(roomId, this::loadPlaylist);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void whenSerializedThenBodyIsJson() {
+        SerializedPayload payload = cache.playlist(roomId, this::loadPlaylist);
+
+        String json = new String(payload.json(), StandardCharsets.UTF_8);
+        assertTrue(json.startsWith("{\"items\":["), json);
+    }
+
+    private List<ChatMessageResponse> loadChatHistory() {
+        loads.incrementAndGet();
+        return List.of();
+    }
+
+    private PlaylistResponse loadPlaylist() {
+        loads.incrementAndGet();
+        return new PlaylistResponse(List.of(new PlaylistItemResponse(
+                UUID.randomUUID(), "https://youtube.com/watch?v=abc", "Title", null, 120, "Alice", 1, null)));
+    }
+}
@@ -0,0 +1,83 @@
+package com.watchparty.websocket;
+
+import com.watchparty.dto.ParticipantMessage;
+import com.watchparty.dto.RosterUpdateMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null") // Mockito matchers (any/eq/capture) return null by design
+class RosterBroadcasterTest {
+
+    @Mock
+    private RoomEventLog eventLog;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    @Test
+    void whenJoinsArriveWithinWindowThenOneUpdateIsBroadcast() {
+        var broadcaster = new RosterBroadcaster(eventLog, taskScheduler, 100);
+
+        broadcaster.participantJoined("ABCD1234", participant("session-1"), "session-1");
+        broadcaster.participantJoined("ABCD1234", participant("session-2"), "session-1");
+        broadcaster.participantJoined("ABCD1234", participant("session-3"), "session-1");
+
+        ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler, times(1)).schedule(flush.capture(), any(Instant.class));
+        verifyNoInteractions(eventLog);
+
+        flush.getValue().run();
+
+        ArgumentCaptor<Object> sent = ArgumentCaptor.forClass(Object.class);
+        verify(eventLog, times(1)).publish(eq("ABCD1234"), eq(""), sent.capture());
+        var update = (RosterUpdateMessage) sent.getValue();
+        assertEquals(3, update.joined().size());
+        assertEquals("session-1", update.hostConnectionId());
+    }
+
+    @Test
+    void whenParticipantJoinsAndLeavesWithinWindowThenItIsOnlyListedAsLeft() {
+        var broadcaster = new RosterBroadcaster(eventLog, taskScheduler, 100);
+
+        broadcaster.participantJoined("ABCD1234", participant("session-2"), "session-1");
+        broadcaster.participantsLeft("ABCD1234", List.of("session-2", "session-3"), "session-1");
+
+        ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler, times(1)).schedule(flush.capture(), any(Instant.class));
+        flush.getValue().run();
+
+        ArgumentCaptor<Object> sent = ArgumentCaptor.forClass(Object.class);
+        verify(eventLog).publish(eq("ABCD1234"), eq(""), sent.capture());
+        var update = (RosterUpdateMessage) sent.getValue();
+        assertTrue(update.joined().isEmpty());
+        assertEquals(List.of("session-2", "session-3"), update.left());
+    }
+
+    @Test
+    void whenWindowIsZeroThenEachJoinIsBroadcastImmediately() {
+        var broadcaster = new RosterBroadcaster(eventLog, taskScheduler, 0);
+
+        broadcaster.participantJoined("ABCD1234", participant("session-1"), "session-1");
+
+        verify(eventLog).publish(eq("ABCD1234"), eq(""), any(RosterUpdateMessage.class));
+        verifyNoInteractions(taskScheduler);
+    }
+
+    private static ParticipantMessage participant(String connectionId) {
+        return new ParticipantMessage(UUID.randomUUID(), "Guest", false, connectionId);
+    }
+}
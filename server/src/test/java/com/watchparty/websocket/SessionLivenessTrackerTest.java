@@ -0,0 +1,66 @@
+package com.watchparty.websocket;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class SessionLivenessTrackerTest {
+
+    private final MessageChannel channel = mock(MessageChannel.class);
+
+    @Test
+    void whenSessionMissesHeartbeatsThenItExpiresOnce() {
+        var tracker = new SessionLivenessTracker(10_000, 2);
+        tracker.preSend(connect("session-1", 10_000), channel);
+        long now = System.nanoTime();
+
+        assertTrue(tracker.drainExpired(now + TimeUnit.SECONDS.toNanos(15)).isEmpty());
+        assertEquals(List.of("session-1"), tracker.drainExpired(now + TimeUnit.SECONDS.toNanos(25)));
+        assertTrue(tracker.drainExpired(now + TimeUnit.SECONDS.toNanos(60)).isEmpty());
+    }
+
+    @Test
+    void whenClientNegotiatesSlowerHeartbeatsThenTimeoutFollowsIt() {
+        var tracker = new SessionLivenessTracker(10_000, 2);
+        tracker.preSend(connect("session-1", 30_000), channel);
+        long now = System.nanoTime();
+
+        assertTrue(tracker.drainExpired(now + TimeUnit.SECONDS.toNanos(50)).isEmpty());
+        assertEquals(List.of("session-1"), tracker.drainExpired(now + TimeUnit.SECONDS.toNanos(65)));
+    }
+
+    @Test
+    void whenHeartbeatArrivesThenSessionStaysAlive() {
+        var tracker = new SessionLivenessTracker(10_000, 2);
+        tracker.preSend(connect("session-1", 10_000), channel);
+        long now = System.nanoTime();
+
+        tracker.touch("session-1", now + TimeUnit.SECONDS.toNanos(15));
+
+        assertTrue(tracker.drainExpired(now + TimeUnit.SECONDS.toNanos(25)).isEmpty());
+    }
+
+    @Test
+    void whenClientSendsNoHeartbeatsThenSessionIsNotTracked() {
+        var tracker = new SessionLivenessTracker(10_000, 2);
+        tracker.preSend(connect("session-1", 0), channel);
+
+        assertTrue(tracker.drainExpired(System.nanoTime() + TimeUnit.HOURS.toNanos(1)).isEmpty());
+    }
+
+    private static Message<byte[]> connect(String sessionId, long clientSendMs) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.setSessionId(sessionId);
+        accessor.setHeartbeat(clientSendMs, 10_000);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
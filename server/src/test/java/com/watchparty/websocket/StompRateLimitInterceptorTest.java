@@ -0,0 +1,110 @@
+package com.watchparty.websocket;
+
+import com.watchparty.dto.ErrorMessage;
+import com.watchparty.presence.Participant;
+import com.watchparty.presence.PresenceRegistry;
+import com.watchparty.ratelimit.StompRateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@SuppressWarnings({"null", "unchecked"})
+class StompRateLimitInterceptorTest {
+
+    private final MessageChannel channel = mock(MessageChannel.class);
+    private final PresenceRegistry presence = mock(PresenceRegistry.class);
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private StompRateLimitInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        ObjectProvider<SimpMessagingTemplate> templateProvider = mock(ObjectProvider.class);
+        when(templateProvider.getObject()).thenReturn(messagingTemplate);
+        when(presence.find(anyString())).thenReturn(Optional.empty());
+        interceptor = new StompRateLimitInterceptor(StompRateLimitProperties.defaults(), new SimpleMeterRegistry(),
+                new SessionResumption(15_000), presence, templateProvider);
+    }
+
+    @Test
+    void whenSessionFloodsPlayerActionsThenExcessIsDroppedWithError() {
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(interceptor.preSend(send("session-1", "/app/room.player"), channel));
+        }
+
+        assertNull(interceptor.preSend(send("session-1", "/app/room.player"), channel));
+        verify(messagingTemplate).convertAndSendToUser(eq("session-1"), eq("/queue/errors"),
+                any(ErrorMessage.class), any(MessageHeaders.class));
+        assertNotNull(interceptor.preSend(send("session-2", "/app/room.player"), channel));
+    }
+
+    @Test
+    void whenPositionReportsExceedBudgetThenTheyAreDroppedSilently() {
+        for (int i = 0; i < 5; i++) {
+            assertNotNull(interceptor.preSend(send("session-1", "/app/room.position.report"), channel));
+        }
+
+        assertNull(interceptor.preSend(send("session-1", "/app/room.position.report"), channel));
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    @Test
+    void whenRoomMembersTogetherExceedRoomBudgetThenFurtherFramesAreDropped() {
+        UUID roomId = UUID.randomUUID();
+        for (int i = 0; i < 3; i++) {
+            when(presence.find("session-" + i)).thenReturn(Optional.of(participant("session-" + i, roomId)));
+        }
+
+        int admitted = 0;
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 3; i++) {
+                if (interceptor.preSend(send("session-" + i, "/app/room.player"), channel) != null) {
+                    admitted++;
+                }
+            }
+        }
+
+        assertEquals(20, admitted);
+    }
+
+    @Test
+    void whenFrameIsNotSendThenItIsNotCounted() {
+        var accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setSessionId("session-1");
+        accessor.setDestination("/user/queue/errors");
+        Message<byte[]> subscribe = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+
+        for (int i = 0; i < 100; i++) {
+            assertSame(subscribe, interceptor.preSend(subscribe, channel));
+        }
+    }
+
+    private static Message<byte[]> send(String sessionId, String destination) {
+        var accessor = StompHeaderAccessor.create(StompCommand.SEND);
+        accessor.setSessionId(sessionId);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static Participant participant(String connectionId, UUID roomId) {
+        var participant = new Participant();
+        participant.setConnectionId(connectionId);
+        participant.setNickname("Guest");
+        participant.setRoomId(roomId);
+        return participant;
+    }
+}
@@ -0,0 +1,102 @@
+package com.watchparty.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.watchparty.dto.PositionReportMessage;
+import com.watchparty.dto.SyncCorrectionMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings("null")
+class SyncMessageConverterTest {
+
+    private SyncMessageConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        converter = new SyncMessageConverter();
+    }
+
+    @Test
+    void whenPositionReportRoundTripsThenValueIsPreserved() {
+        var report = new PositionReportMessage(1234.567);
+
+        Message<?> encoded = converter.toMessage(report, headers(SyncMessageConverter.MIME_TYPE));
+        Object decoded = converter.fromMessage(encoded, PositionReportMessage.class);
+
+        assertEquals(report, decoded);
+    }
+
+    @Test
+    void whenSyncCorrectionRoundTripsThenAllFieldsArePreserved() {
+        var correction = SyncCorrectionMessage.rateAdjust(98.25, 0.95);
+
+        Message<?> encoded = converter.toMessage(correction, headers(SyncMessageConverter.MIME_TYPE));
+        Object decoded = converter.fromMessage(encoded, SyncCorrectionMessage.class);
+
+        assertEquals(correction, decoded);
+    }
+
+    @Test
+    void whenNoContentTypeThenConverterDeclines() {
+        Message<?> encoded = converter.toMessage(new PositionReportMessage(1.0), headers(null));
+
+        assertNull(encoded);
+    }
+
+    @Test
+    void whenJsonContentTypeThenConverterDeclines() {
+        Message<?> encoded = converter.toMessage(new PositionReportMessage(1.0), headers(MimeTypeUtils.APPLICATION_JSON));
+
+        assertNull(encoded);
+    }
+
+    @Test
+    void whenEncodedThenBodyIsSmallerThanJson() {
+        var jsonConverter = new MappingJackson2MessageConverter();
+        jsonConverter.setObjectMapper(new ObjectMapper());
+        var correction = SyncCorrectionMessage.seek(3600.125);
+
+        byte[] compact = (byte[]) converter.toMessage(correction, headers(SyncMessageConverter.MIME_TYPE)).getPayload();
+        byte[] json = (byte[]) jsonConverter.toMessage(correction, headers(MimeTypeUtils.APPLICATION_JSON)).getPayload();
+
+        assertTrue(compact.length * 4 < json.length,
+                "Expected compact body (" + compact.length + " B) to be a fraction of JSON (" + json.length + " B)");
+    }
+
+    @Test
+    void whenPayloadIsMalformedThenThrowsConversionException() {
+        Message<byte[]> message = MessageBuilder.withPayload("not base64!".getBytes(StandardCharsets.US_ASCII))
+                .setHeader(MessageHeaders.CONTENT_TYPE, SyncMessageConverter.MIME_TYPE)
+                .build();
+
+        assertThrows(MessageConversionException.class,
+                () -> converter.fromMessage(message, PositionReportMessage.class));
+    }
+
+    @Test
+    void whenSessionAttributesCarryFlagThenCodecIsNegotiated() {
+        assertTrue(SyncMessageConverter.isNegotiated(Map.of(SyncCodecInterceptor.SYNC_CODEC_ATTR, true)));
+        assertFalse(SyncMessageConverter.isNegotiated(Map.of()));
+        assertFalse(SyncMessageConverter.isNegotiated(null));
+    }
+
+    private static MessageHeaders headers(MimeType contentType) {
+        var builder = MessageBuilder.withPayload(new byte[0]);
+        if (contentType != null) {
+            builder.setHeader(MessageHeaders.CONTENT_TYPE, contentType);
+        }
+        return builder.build().getHeaders();
+    }
+}
@@ -0,0 +1,52 @@
+package com.watchparty.websocket;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyncQualityMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SyncQualityMetrics metrics = new SyncQualityMetrics(registry);
+
+    @Test
+    void whenCorrectionsRecordedThenGlobalCountersAreTaggedByType() {
+        metrics.recordReport("ROOM0001", "session-1", 3.0, "SEEK");
+        metrics.recordReport("ROOM0001", "session-1", 0.8, "RATE_ADJUST");
+        metrics.recordReport("ROOM0002", "session-2", -0.9, "RATE_ADJUST");
+
+        assertEquals(1, registry.get("watchparty.sync.corrections").tag("type", "SEEK").counter().count());
+        assertEquals(2, registry.get("watchparty.sync.corrections").tag("type", "RATE_ADJUST").counter().count());
+        assertEquals(3, registry.get("watchparty.sync.drift").summary().count());
+        assertEquals(2, metrics.rooms().size());
+    }
+
+    @Test
+    void whenSessionReportsInSyncAfterJumpThenConvergenceIsTimedOnce() {
+        metrics.awaitConvergence("ROOM0001", "session-1", Instant.now().minusMillis(1500));
+
+        metrics.recordReport("ROOM0001", "session-1", 1.0, "RATE_ADJUST");
+        metrics.recordReport("ROOM0001", "session-1", 0.01, null);
+        metrics.recordReport("ROOM0001", "session-1", 0.02, null);
+
+        var stats = metrics.room("ROOM0001").orElseThrow();
+        assertEquals(1, stats.convergences());
+        assertTrue(stats.maxConvergenceMs() >= 1500);
+        assertEquals(1, registry.get("watchparty.sync.convergence").timer().count());
+    }
+
+    @Test
+    void whenRoomEvictedThenItsStatsAndPendingConvergencesAreDropped() {
+        metrics.awaitConvergence("ROOM0001", "session-1", Instant.now());
+        metrics.recordReport("ROOM0001", "session-2", 0.0, null);
+
+        metrics.evictRoom("ROOM0001");
+        metrics.recordReport("ROOM0001", "session-1", 0.0, null);
+
+        assertEquals(0, metrics.room("ROOM0001").orElseThrow().convergences());
+        assertEquals(1, metrics.room("ROOM0001").orElseThrow().reports());
+    }
+}
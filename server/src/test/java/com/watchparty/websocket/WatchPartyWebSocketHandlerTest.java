@@ -1,17 +1,24 @@
 package com.watchparty.websocket;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.watchparty.datasource.ReplicaLagGuard;
 import com.watchparty.dto.*;
 import com.watchparty.entity.ControlMode;
-import com.watchparty.entity.Participant;
 import com.watchparty.entity.Room;
+import com.watchparty.entity.User;
+import com.watchparty.entity.SyncStrategy;
 import com.watchparty.exception.RoomNotFoundException;
-import com.watchparty.repository.ParticipantRepository;
+import com.watchparty.presence.Participant;
+import com.watchparty.presence.PresenceRegistry;
 import com.watchparty.repository.PlaylistItemRepository;
 import com.watchparty.repository.RoomRepository;
 import com.watchparty.repository.UserRepository;
 import com.watchparty.service.ChatService;
 import com.watchparty.service.PlaylistService;
+import com.watchparty.service.RefreshTokenCache;
+import com.watchparty.service.RoomStateWriter;
 import jakarta.validation.Validator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,20 +26,28 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -44,7 +59,7 @@ class WatchPartyWebSocketHandlerTest {
     private RoomRepository roomRepository;
 
     @Mock
-    private ParticipantRepository participantRepository;
+    private PresenceRegistry presence;
 
     @Mock
     private PlaylistItemRepository playlistItemRepository;
@@ -52,6 +67,9 @@ class WatchPartyWebSocketHandlerTest {
     @Mock
     private UserRepository userRepository;
 
+    @Spy
+    private RefreshTokenCache refreshTokenCache = new RefreshTokenCache(3_600_000, 1000);
+
     @Mock
     private SimpMessagingTemplate messagingTemplate;
 
@@ -61,6 +79,42 @@ class WatchPartyWebSocketHandlerTest {
     @Mock
     private PlaylistService playlistService;
 
+    @Spy
+    private ReplicaLagGuard replicaLag = new ReplicaLagGuard("", Duration.ofSeconds(2));
+
+    @Spy
+    private RoomPayloadCache payloadCache = new RoomPayloadCache(new ObjectMapper().findAndRegisterModules(), replicaLag, Duration.ofMinutes(5));
+
+    @Spy
+    private JoinAdmissionService admission = new JoinAdmissionService(2, 64);
+
+    @Mock
+    private RosterBroadcaster rosterBroadcaster;
+
+    @Spy
+    private DepartureBuffer departures = new DepartureBuffer(5000);
+
+    @Spy
+    private SessionResumption resumption = new SessionResumption(15000);
+
+    @Mock
+    private RoomEventLog eventLog;
+
+    @Spy
+    private ClockSync clockSync = new ClockSync(0.2, 0.5, 0.1, 250, 50, 1000);
+
+    @Spy
+    private ReportCadence reportCadence = new ReportCadence(5000, 1000, 15000, 3);
+
+    @Spy
+    private SyncQualityMetrics syncMetrics = new SyncQualityMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    private ReferenceTimeline timeline = new ReferenceTimeline(20000, 3);
+
+    @Mock
+    private RoomStateWriter roomStateWriter;
+
     @Mock
     private Validator validator;
 
@@ -72,6 +126,7 @@ class WatchPartyWebSocketHandlerTest {
 
     private Room sampleRoom;
     private Participant hostParticipant;
+    private List<Participant> seated = List.of();
     private SimpMessageHeaderAccessor headerAccessor;
 
     @BeforeEach
@@ -94,9 +149,30 @@ class WatchPartyWebSocketHandlerTest {
         hostParticipant.setNickname("HostUser");
         hostParticipant.setConnectionId("session-1");
         hostParticipant.setHost(true);
-        hostParticipant.setRoom(sampleRoom);
+        hostParticipant.setRoomId(sampleRoom.getId());
         hostParticipant.setJoinedAt(Instant.now());
 
+        lenient().when(roomRepository.findById(sampleRoom.getId())).thenReturn(Optional.of(sampleRoom));
+        // Claim seats against the roster set up with seat(), as the registry would
+        lenient().when(presence.tryAdd(any(), anyInt())).thenAnswer(invocation -> {
+            Participant participant = invocation.getArgument(0);
+            if (seated.size() >= invocation.<Integer>getArgument(1)) {
+                return new PresenceRegistry.Claim(PresenceRegistry.Outcome.FULL, seated);
+            }
+            participant.setHost(seated.isEmpty());
+            var roster = new ArrayList<>(seated);
+            roster.add(participant);
+            return new PresenceRegistry.Claim(
+                    seated.isEmpty() ? PresenceRegistry.Outcome.HOST : PresenceRegistry.Outcome.MEMBER, roster);
+        });
+        // Apply room updates straight to the repository mock, so tests can inspect the saved room
+        lenient().when(roomStateWriter.update(any(), any())).thenAnswer(invocation -> {
+            Room room = roomRepository.findById(invocation.getArgument(0)).orElseThrow();
+            invocation.<Consumer<Room>>getArgument(1).accept(room);
+            roomRepository.save(room);
+            return room;
+        });
+
         headerAccessor = SimpMessageHeaderAccessor.create();
         headerAccessor.setSessionId("session-1");
     }
@@ -106,24 +182,26 @@ class WatchPartyWebSocketHandlerTest {
         var joinMessage = new JoinRoomMessage("ABCD1234", "Alice");
 
         when(roomRepository.findByCode("ABCD1234")).thenReturn(Optional.of(Objects.requireNonNull(sampleRoom)));
-        when(participantRepository.findByRoomId(Objects.requireNonNull(sampleRoom.getId())))
-                .thenReturn(Collections.emptyList())
-                .thenReturn(List.of(hostParticipant));
-        when(participantRepository.save(any(Participant.class))).thenReturn(hostParticipant);
+        when(presence.participants(Objects.requireNonNull(sampleRoom.getId())))
+                .thenReturn(Collections.emptyList());
         when(playlistService.getPlaylist(sampleRoom.getId()))
                 .thenReturn(new PlaylistResponse(Collections.emptyList()));
 
         handler.joinRoom(joinMessage, headerAccessor);
 
         ArgumentCaptor<Participant> participantCaptor = ArgumentCaptor.forClass(Participant.class);
-        verify(participantRepository).save(participantCaptor.capture());
+        verify(presence).tryAdd(participantCaptor.capture(), eq(2));
         Participant saved = participantCaptor.getValue();
         assertEquals("Alice", saved.getNickname());
         assertEquals("session-1", saved.getConnectionId());
         assertTrue(saved.isHost());
 
         verify(roomRepository).save(Objects.requireNonNull(sampleRoom));
-        verify(messagingTemplate).convertAndSend(eq("/topic/room.ABCD1234"), any(RoomStateMessage.class));
+        ArgumentCaptor<ParticipantMessage> joinedCaptor = ArgumentCaptor.forClass(ParticipantMessage.class);
+        verify(rosterBroadcaster).participantJoined(eq("ABCD1234"), joinedCaptor.capture(), eq("session-1"));
+        assertEquals("session-1", joinedCaptor.getValue().connectionId());
+        verify(eventLog, never()).publish(eq("ABCD1234"), eq(""), any(RoomStateMessage.class));
+        verify(presence, times(1)).participants(sampleRoom.getId());
     }
 
     @Test
@@ -153,13 +231,13 @@ class WatchPartyWebSocketHandlerTest {
         sampleRoom.setControlMode(ControlMode.HOST_ONLY);
         var playerMessage = new PlayerStateMessage("PAUSE", null, 50.0, false);
 
-        when(participantRepository.findByConnectionId("session-1")).thenReturn(Optional.of(Objects.requireNonNull(hostParticipant)));
+        when(presence.find("session-1")).thenReturn(Optional.of(Objects.requireNonNull(hostParticipant)));
 
         handler.playerAction(playerMessage, headerAccessor);
 
         assertFalse(sampleRoom.isPlaying());
         verify(roomRepository).save(Objects.requireNonNull(sampleRoom));
-        verify(messagingTemplate).convertAndSend(eq("/topic/room.ABCD1234"), eq(playerMessage));
+        verify(eventLog).publish("ABCD1234", "", playerMessage);
     }
 
     @Test
@@ -171,18 +249,18 @@ class WatchPartyWebSocketHandlerTest {
         nonHost.setNickname("Viewer");
         nonHost.setConnectionId("session-2");
         nonHost.setHost(false);
-        nonHost.setRoom(sampleRoom);
+        nonHost.setRoomId(sampleRoom.getId());
         nonHost.setJoinedAt(Instant.now());
 
         headerAccessor.setSessionId("session-2");
         var playerMessage = new PlayerStateMessage("PLAY", null, 0.0, true);
 
-        when(participantRepository.findByConnectionId("session-2")).thenReturn(Optional.of(Objects.requireNonNull(nonHost)));
+        when(presence.find("session-2")).thenReturn(Optional.of(Objects.requireNonNull(nonHost)));
 
         handler.playerAction(playerMessage, headerAccessor);
 
         verify(roomRepository, never()).save(any());
-        verify(messagingTemplate).convertAndSend(eq("/topic/room.ABCD1234"), any(ErrorMessage.class));
+        verify(eventLog).publish(eq("ABCD1234"), eq(""), any(ErrorMessage.class));
     }
 
     @Test
@@ -192,50 +270,259 @@ class WatchPartyWebSocketHandlerTest {
         remainingParticipant.setNickname("Bob");
         remainingParticipant.setConnectionId("session-2");
         remainingParticipant.setHost(false);
-        remainingParticipant.setRoom(sampleRoom);
+        remainingParticipant.setRoomId(sampleRoom.getId());
         remainingParticipant.setJoinedAt(Instant.now());
 
-        when(participantRepository.findByConnectionId("session-1")).thenReturn(Optional.of(Objects.requireNonNull(hostParticipant)));
+        when(presence.findAll(List.of("session-1"))).thenReturn(List.of(hostParticipant));
         when(roomRepository.findById(Objects.requireNonNull(sampleRoom.getId()))).thenReturn(Optional.of(Objects.requireNonNull(sampleRoom)));
-        when(participantRepository.findByRoomId(Objects.requireNonNull(sampleRoom.getId())))
+        when(presence.participants(Objects.requireNonNull(sampleRoom.getId())))
                 .thenReturn(List.of(remainingParticipant));
 
-        handler.leaveRoom(headerAccessor);
+        handler.handleParticipantLeaves(List.of("session-1"));
 
-        verify(participantRepository).delete(hostParticipant);
+        verify(presence).removeAll(List.of(hostParticipant));
 
-        ArgumentCaptor<Participant> captor = ArgumentCaptor.forClass(Participant.class);
-        verify(participantRepository).save(captor.capture());
-        assertTrue(captor.getValue().isHost());
-        assertEquals("Bob", captor.getValue().getNickname());
+        verify(presence).promoteToHost(remainingParticipant);
 
         verify(roomRepository).save(Objects.requireNonNull(sampleRoom));
         assertEquals("session-2", sampleRoom.getHostConnectionId());
-        verify(messagingTemplate).convertAndSend(eq("/topic/room.ABCD1234"), any(RoomStateMessage.class));
+        verify(rosterBroadcaster).participantsLeft("ABCD1234", List.of("session-1"), "session-2");
     }
 
     @Test
-    void whenLeaveRoomAndLastParticipantThenClearsHostConnectionId() {
-        when(participantRepository.findByConnectionId("session-1")).thenReturn(Optional.of(Objects.requireNonNull(hostParticipant)));
+    void whenSeveralParticipantsLeaveTogetherThenHostIsElectedOnceAndOneUpdateIsSent() {
+        var guest = new Participant();
+        guest.setConnectionId("session-2");
+        guest.setRoomId(sampleRoom.getId());
+        var remainingParticipant = new Participant();
+        remainingParticipant.setConnectionId("session-3");
+        remainingParticipant.setRoomId(sampleRoom.getId());
+
+        when(presence.findAll(List.of("session-1", "session-2")))
+                .thenReturn(List.of(hostParticipant, guest));
+        when(roomRepository.findById(Objects.requireNonNull(sampleRoom.getId()))).thenReturn(Optional.of(Objects.requireNonNull(sampleRoom)));
+        when(presence.participants(sampleRoom.getId())).thenReturn(List.of(remainingParticipant));
+
+        handler.handleParticipantLeaves(List.of("session-1", "session-2"));
+
+        verify(presence, times(1)).participants(sampleRoom.getId());
+        verify(presence, times(1)).promoteToHost(remainingParticipant);
+        verify(rosterBroadcaster, times(1)).participantsLeft("ABCD1234", List.of("session-1", "session-2"), "session-3");
+        verifyNoInteractions(eventLog);
+    }
+
+    @Test
+    void whenHostLeavesThenConnectedParticipantIsPreferredOverSeatInGracePeriod() {
+        var disconnected = new Participant();
+        disconnected.setConnectionId("session-2");
+        disconnected.setRoomId(sampleRoom.getId());
+        var connected = new Participant();
+        connected.setConnectionId("session-3");
+        connected.setRoomId(sampleRoom.getId());
+        departures.schedule("session-2", true);
+
+        when(presence.findAll(List.of("session-1"))).thenReturn(List.of(hostParticipant));
         when(roomRepository.findById(Objects.requireNonNull(sampleRoom.getId()))).thenReturn(Optional.of(Objects.requireNonNull(sampleRoom)));
-        when(participantRepository.findByRoomId(Objects.requireNonNull(sampleRoom.getId()))).thenReturn(Collections.emptyList());
+        when(presence.participants(sampleRoom.getId())).thenReturn(List.of(disconnected, connected));
+
+        handler.handleParticipantLeaves(List.of("session-1"));
+
+        verify(presence).promoteToHost(connected);
+        assertEquals("session-3", sampleRoom.getHostConnectionId());
+    }
+
+    @Test
+    void whenRemovingFromOneRoomFailsThenItsSeatsAreReleasedAndOtherRoomsAreStillHandled() {
+        var otherRoom = new Room();
+        otherRoom.setId(UUID.randomUUID());
+        otherRoom.setCode("EFGH5678");
+        var otherGuest = new Participant();
+        otherGuest.setConnectionId("session-9");
+        otherGuest.setRoomId(otherRoom.getId());
+
+        when(presence.findAll(List.of("session-1", "session-9"))).thenReturn(List.of(hostParticipant, otherGuest));
+        when(roomRepository.findById(Objects.requireNonNull(sampleRoom.getId()))).thenThrow(new IllegalStateException("database down"));
+        when(roomRepository.findById(Objects.requireNonNull(otherRoom.getId()))).thenReturn(Optional.of(otherRoom));
+        when(presence.participants(otherRoom.getId())).thenReturn(List.of());
+
+        handler.handleParticipantLeaves(List.of("session-1", "session-9"));
+
+        verify(presence).removeAll(List.of(hostParticipant));
+        verify(presence).removeAll(List.of(otherGuest));
+    }
 
+    @Test
+    void whenLeaveRoomThenDepartureIsDueWithoutGracePeriod() {
         handler.leaveRoom(headerAccessor);
 
-        verify(participantRepository).delete(hostParticipant);
+        assertEquals(List.of("session-1"), departures.drainDue());
+        verifyNoInteractions(presence);
+    }
+
+    @Test
+    void whenSessionDisconnectsThenParticipantIsKeptDuringGracePeriod() {
+        handler.handleDisconnect("session-1");
+
+        assertTrue(departures.isPending("session-1"));
+        assertTrue(departures.drainDue().isEmpty());
+        verifyNoInteractions(presence);
+    }
+
+    @Test
+    void whenUserReconnectsWithinGracePeriodThenSeatAndHostStatusAreKept() {
+        UUID userId = UUID.randomUUID();
+        hostParticipant.setUserId(userId);
+        sampleRoom.setHostConnectionId("session-1");
+        handler.handleDisconnect("session-1");
+
+        var reconnect = SimpMessageHeaderAccessor.create();
+        reconnect.setSessionId("session-9");
+        reconnect.setSessionAttributes(new HashMap<>(Map.of(
+                WebSocketAuthChannelInterceptor.USER_ID_ATTR, userId)));
+        when(roomRepository.findByCode("ABCD1234")).thenReturn(Optional.of(Objects.requireNonNull(sampleRoom)));
+        when(presence.participants(Objects.requireNonNull(sampleRoom.getId())))
+                .thenReturn(List.of(hostParticipant));
+        when(playlistService.getPlaylist(sampleRoom.getId()))
+                .thenReturn(new PlaylistResponse(Collections.emptyList()));
+
+        handler.joinRoom(new JoinRoomMessage("ABCD1234", "HostUser"), reconnect);
+
+        assertFalse(departures.isPending("session-1"));
+        assertEquals("session-1", hostParticipant.getConnectionId());
+        assertTrue(hostParticipant.isHost());
+        assertEquals("session-1", resumption.connectionIdFor("session-9"));
+        assertEquals("session-9", resumption.sessionIdFor("session-1"));
+        verify(presence, never()).add(any());
+        verifyNoInteractions(rosterBroadcaster);
+        verify(messagingTemplate).convertAndSendToUser(
+                eq("session-9"), eq("/queue/room.resume"), any(RoomResumeMessage.class), any(MessageHeaders.class));
+    }
+
+    @Test
+    void whenGuestResumesWithTokenThenMissedEventsAreReplayedWithoutRosterBroadcast() {
+        String token = resumption.issue("session-1");
+        handler.handleDisconnect("session-1");
+
+        var reconnect = SimpMessageHeaderAccessor.create();
+        reconnect.setSessionId("session-9");
+        reconnect.setSessionAttributes(new HashMap<>(Map.of(
+                SessionResumptionInterceptor.RESUME_TOKEN_ATTR, token,
+                SessionResumptionInterceptor.RESUME_SEQ_ATTR, 4L)));
+        var missed = List.of(new RoomEvent(5, "/topic/room.ABCD1234.chat", new SerializedPayload("{}".getBytes())));
+        when(roomRepository.findByCode("ABCD1234")).thenReturn(Optional.of(Objects.requireNonNull(sampleRoom)));
+        when(presence.participants(Objects.requireNonNull(sampleRoom.getId())))
+                .thenReturn(List.of(hostParticipant));
+        when(eventLog.lastSeq("ABCD1234")).thenReturn(5L);
+        when(eventLog.eventsAfter("ABCD1234", 4L)).thenReturn(Optional.of(missed));
+
+        handler.joinRoom(new JoinRoomMessage("ABCD1234", "HostUser"), reconnect);
+
+        verify(messagingTemplate).convertAndSendToUser(
+                eq("session-9"), eq("/queue/room.resume"), messageCaptor.capture(), any(MessageHeaders.class));
+        var resume = (RoomResumeMessage) messageCaptor.getValue();
+        assertEquals("session-1", resume.connectionId());
+        assertNotEquals(token, resume.resumeToken());
+        assertEquals(missed, resume.missed());
+        assertNull(resume.playlist());
+        assertEquals(5L, resume.lastSeq());
+        assertFalse(departures.isPending("session-1"));
+        verifyNoInteractions(rosterBroadcaster, playlistService, chatService);
+        verify(presence, never()).add(any());
+        assertNull(resumption.redeem(token), "Resume tokens are single-use");
+    }
+
+    @Test
+    void whenResumedSessionActsThenItIsResolvedToItsOriginalParticipant() {
+        resumption.attach("session-9", "session-1");
+        when(presence.find("session-1")).thenReturn(Optional.of(hostParticipant));
+        headerAccessor.setSessionId("session-9");
+
+        handler.webRtcCameraState(Map.of("enabled", true), headerAccessor);
+
+        verify(eventLog).publish("ABCD1234", ".camera-state", new CameraStateMessage("session-1", true));
+    }
+
+    @Test
+    void whenCatchUpIsRequestedThenOnlyMissedEventsAreSent() {
+        var missed = List.of(new RoomEvent(8, "/topic/room.ABCD1234", new SerializedPayload("{}".getBytes())));
+        when(presence.find("session-1")).thenReturn(Optional.of(hostParticipant));
+        when(eventLog.lastSeq("ABCD1234")).thenReturn(8L);
+        when(eventLog.eventsAfter("ABCD1234", 7L)).thenReturn(Optional.of(missed));
+
+        handler.catchUp(new CatchUpRequest(7), headerAccessor);
+
+        verify(messagingTemplate).convertAndSendToUser(
+                eq("session-1"), eq("/queue/room.catchup"), messageCaptor.capture(), any(MessageHeaders.class));
+        var catchUp = (RoomCatchUpMessage) messageCaptor.getValue();
+        assertEquals(missed, catchUp.missed());
+        assertEquals(8L, catchUp.lastSeq());
+        assertNull(catchUp.roomState());
+        verifyNoInteractions(playlistService, chatService);
+    }
+
+    @Test
+    void whenCaughtUpEventsWereDroppedThenSnapshotsAreSent() {
+        when(presence.find("session-1")).thenReturn(Optional.of(hostParticipant));
+        when(presence.participants(Objects.requireNonNull(sampleRoom.getId())))
+                .thenReturn(List.of(hostParticipant));
+        when(eventLog.lastSeq("ABCD1234")).thenReturn(900L);
+        when(eventLog.eventsAfter("ABCD1234", 3L)).thenReturn(Optional.empty());
+        when(playlistService.getPlaylist(sampleRoom.getId()))
+                .thenReturn(new PlaylistResponse(Collections.emptyList()));
+
+        handler.catchUp(new CatchUpRequest(3), headerAccessor);
+
+        verify(messagingTemplate).convertAndSendToUser(
+                eq("session-1"), eq("/queue/room.catchup"), messageCaptor.capture(), any(MessageHeaders.class));
+        var catchUp = (RoomCatchUpMessage) messageCaptor.getValue();
+        assertNull(catchUp.missed());
+        assertEquals(900L, catchUp.lastSeq());
+        assertEquals(1, catchUp.roomState().participants().size());
+        assertNotNull(catchUp.playlist());
+        assertNotNull(catchUp.chatHistory());
+    }
+
+    @Test
+    void whenSupersededSessionDisconnectsThenParticipantStays() {
+        resumption.attach("session-9", "session-1");
+
+        handler.handleDisconnect("session-1");
+
+        assertFalse(departures.isPending("session-1"));
+    }
+
+    @Test
+    void whenSessionsAreDeadThenSeatsAreReleasedWithoutGracePeriod() {
+        resumption.issue("session-1");
+        resumption.attach("session-9", "session-2");
+
+        handler.handleDeadSessions(List.of("session-1", "session-9"));
+
+        assertEquals(List.of("session-1", "session-2"), departures.drainDue().stream().sorted().toList());
+    }
+
+    @Test
+    void whenLeaveRoomAndLastParticipantThenClearsHostConnectionId() {
+        when(presence.findAll(List.of("session-1"))).thenReturn(List.of(hostParticipant));
+        when(roomRepository.findById(Objects.requireNonNull(sampleRoom.getId()))).thenReturn(Optional.of(Objects.requireNonNull(sampleRoom)));
+        when(presence.participants(Objects.requireNonNull(sampleRoom.getId()))).thenReturn(Collections.emptyList());
+
+        handler.handleParticipantLeaves(List.of("session-1"));
+
+        verify(presence).removeAll(List.of(hostParticipant));
         assertNull(sampleRoom.getHostConnectionId());
         verify(roomRepository).save(Objects.requireNonNull(sampleRoom));
-        verify(messagingTemplate, never()).convertAndSend(anyString(), any(RoomStateMessage.class));
+        verify(eventLog, never()).publish(anyString(), anyString(), any(RoomStateMessage.class));
     }
 
     @Test
     void whenSyncStateThenBroadcastsCurrentRoomState() {
-        when(participantRepository.findByConnectionId("session-1")).thenReturn(Optional.of(Objects.requireNonNull(hostParticipant)));
-        when(participantRepository.findByRoomId(Objects.requireNonNull(sampleRoom.getId()))).thenReturn(List.of(hostParticipant));
+        when(presence.find("session-1")).thenReturn(Optional.of(Objects.requireNonNull(hostParticipant)));
+        when(presence.participants(Objects.requireNonNull(sampleRoom.getId()))).thenReturn(List.of(hostParticipant));
 
         handler.syncState(headerAccessor);
 
-        verify(messagingTemplate).convertAndSend(eq("/topic/room.ABCD1234"), messageCaptor.capture());
+        verify(eventLog).publish(eq("ABCD1234"), eq(""), messageCaptor.capture());
         Object sent = messageCaptor.getValue();
         assertInstanceOf(RoomStateMessage.class, sent);
         var state = (RoomStateMessage) sent;
@@ -251,7 +538,7 @@ class WatchPartyWebSocketHandlerTest {
         sampleRoom.setPlaying(true);
         sampleRoom.setStateUpdatedAt(Instant.now());
 
-        when(participantRepository.findByConnectionId("session-1")).thenReturn(Optional.of(Objects.requireNonNull(hostParticipant)));
+        when(presence.find("session-1")).thenReturn(Optional.of(Objects.requireNonNull(hostParticipant)));
 
         // Client reports position 10s behind expected (~100s)
         var report = new PositionReportMessage(90.0);
@@ -270,7 +557,7 @@ class WatchPartyWebSocketHandlerTest {
         sampleRoom.setPlaying(true);
         sampleRoom.setStateUpdatedAt(Instant.now());
 
-        when(participantRepository.findByConnectionId("session-1")).thenReturn(Optional.of(Objects.requireNonNull(hostParticipant)));
+        when(presence.find("session-1")).thenReturn(Optional.of(Objects.requireNonNull(hostParticipant)));
 
         // Client reports position 1s behind expected (~100s)
         var report = new PositionReportMessage(99.0);
@@ -283,13 +570,171 @@ class WatchPartyWebSocketHandlerTest {
         assertEquals(1.05, correction.playbackRate());
     }
 
+    @Test
+    void whenPositionReportsStayInSyncThenClientIsToldToReportLessOften() {
+        sampleRoom.setCurrentTimeSeconds(100.0);
+        sampleRoom.setPlaying(true);
+        sampleRoom.setStateUpdatedAt(Instant.now());
+
+        when(presence.find("session-1")).thenReturn(Optional.of(Objects.requireNonNull(hostParticipant)));
+
+        for (int i = 0; i < 3; i++) {
+            handler.reportPosition(new PositionReportMessage(100.0), headerAccessor);
+        }
+
+        verify(messagingTemplate, never()).convertAndSendToUser(
+                eq("session-1"), eq("/queue/sync.correction"), any(), any(MessageHeaders.class));
+        verify(messagingTemplate).convertAndSendToUser(
+                eq("session-1"), eq("/queue/sync.interval"), messageCaptor.capture(), any(MessageHeaders.class));
+        assertEquals(new ReportIntervalMessage(10000), messageCaptor.getValue());
+    }
+
+    @Test
+    void whenSeekAfterStablePeriodThenSessionsReportQuicklyAgain() {
+        when(presence.find("session-1")).thenReturn(Optional.of(Objects.requireNonNull(hostParticipant)));
+        when(presence.participants(sampleRoom.getId())).thenReturn(List.of(Objects.requireNonNull(hostParticipant)));
+        for (int i = 0; i < 3; i++) {
+            reportCadence.observe("session-1", true);
+        }
+
+        handler.playerAction(new PlayerStateMessage("SEEK", null, 300.0, true), headerAccessor);
+
+        verify(messagingTemplate).convertAndSendToUser(
+                eq("session-1"), eq("/queue/sync.interval"), messageCaptor.capture(), any(MessageHeaders.class));
+        assertEquals(new ReportIntervalMessage(1000), messageCaptor.getValue());
+    }
+
+    @Test
+    void whenSeekWhileParticipantIsInGracePeriodThenOnlyConnectedSessionsAreTracked() {
+        var away = new Participant();
+        away.setConnectionId("session-2");
+        away.setRoomId(sampleRoom.getId());
+        when(presence.find("session-1")).thenReturn(Optional.of(Objects.requireNonNull(hostParticipant)));
+        when(presence.participants(sampleRoom.getId())).thenReturn(List.of(hostParticipant, away));
+        handler.handleDisconnect("session-2");
+
+        handler.playerAction(new PlayerStateMessage("SEEK", null, 300.0, true), headerAccessor);
+
+        verify(reportCadence).restart("session-1");
+        verify(reportCadence, never()).restart("session-2");
+        verify(syncMetrics).awaitConvergence(eq("ABCD1234"), eq("session-1"), any());
+        verify(syncMetrics, never()).awaitConvergence(any(), eq("session-2"), any());
+    }
+
+    @Test
+    void whenParticipantLeavesThenItsSessionStateIsForgotten() {
+        var guest = new Participant();
+        guest.setConnectionId("session-2");
+        guest.setRoomId(sampleRoom.getId());
+        clockSync.record("session-2", 80, 0);
+        when(presence.findAll(List.of("session-2"))).thenReturn(List.of(guest));
+        when(roomRepository.findById(Objects.requireNonNull(sampleRoom.getId()))).thenReturn(Optional.of(Objects.requireNonNull(sampleRoom)));
+        when(presence.participants(sampleRoom.getId())).thenReturn(List.of(hostParticipant));
+
+        handler.handleParticipantLeaves(List.of("session-2"));
+
+        assertTrue(clockSync.estimate("session-2").isEmpty());
+        verify(reportCadence).forget("session-2");
+        verify(syncMetrics).forgetSession("session-2");
+    }
+
+    @Test
+    void whenPositionReportsArriveThenRoomSyncQualityIsRecorded() {
+        sampleRoom.setCurrentTimeSeconds(100.0);
+        sampleRoom.setPlaying(true);
+        sampleRoom.setStateUpdatedAt(Instant.now());
+
+        when(presence.find("session-1")).thenReturn(Optional.of(Objects.requireNonNull(hostParticipant)));
+
+        handler.reportPosition(new PositionReportMessage(90.0), headerAccessor);
+        handler.reportPosition(new PositionReportMessage(99.0), headerAccessor);
+
+        var stats = syncMetrics.room("ABCD1234").orElseThrow();
+        assertEquals(2, stats.reports());
+        assertEquals(1, stats.seekCorrections());
+        assertEquals(1, stats.rateAdjustCorrections());
+        assertTrue(stats.p99DriftMs() >= 10_000);
+    }
+
+    @Test
+    void whenHostStrategyThenReportsAreCorrectedAgainstHostPosition() {
+        sampleRoom.setCurrentTimeSeconds(100.0);
+        sampleRoom.setPlaying(true);
+        sampleRoom.setStateUpdatedAt(Instant.now());
+        sampleRoom.setSyncStrategy(SyncStrategy.HOST);
+        sampleRoom.setHostConnectionId("session-1");
+        var viewer = new Participant();
+        viewer.setConnectionId("session-2");
+        viewer.setRoomId(sampleRoom.getId());
+        var viewerAccessor = SimpMessageHeaderAccessor.create();
+        viewerAccessor.setSessionId("session-2");
+
+        when(presence.find("session-1")).thenReturn(Optional.of(Objects.requireNonNull(hostParticipant)));
+        when(presence.find("session-2")).thenReturn(Optional.of(viewer));
+
+        // The host stalled 10s behind the server clock; a viewer following it must not be sought
+        handler.reportPosition(new PositionReportMessage(90.0), headerAccessor);
+        handler.reportPosition(new PositionReportMessage(90.0), viewerAccessor);
+
+        verify(messagingTemplate, never()).convertAndSendToUser(
+                any(), eq("/queue/sync.correction"), any(), any(MessageHeaders.class));
+    }
+
+    @Test
+    void whenPlayNowUnderHostStrategyThenNewVideoStartsFromZeroNotPreviousHostPosition() {
+        sampleRoom.setSyncStrategy(SyncStrategy.HOST);
+        sampleRoom.setHostConnectionId("session-1");
+        timeline.record(sampleRoom.getId(), "session-1", 1800.0);
+        when(presence.find("session-1")).thenReturn(Optional.of(Objects.requireNonNull(hostParticipant)));
+
+        handler.playNow(new AddPlaylistItemRequest("https://youtube.com/watch?v=next"), headerAccessor);
+
+        verify(timeline).reset(sampleRoom.getId());
+        verify(eventLog).publish(eq("ABCD1234"), eq(""), messageCaptor.capture());
+        var state = (RoomStateMessage) messageCaptor.getValue();
+        assertEquals("https://youtube.com/watch?v=next", state.currentVideoUrl());
+        assertEquals(0.0, state.currentTimeSeconds(), 0.5);
+    }
+
+    @Test
+    void whenSyncStrategyChangedThenPositionIsPinnedAndStateBroadcast() {
+        sampleRoom.setCurrentTimeSeconds(42.0);
+        when(presence.find("session-1")).thenReturn(Optional.of(Objects.requireNonNull(hostParticipant)));
+
+        handler.setSyncStrategy(Map.of("strategy", "QUORUM_MEDIAN"), headerAccessor);
+
+        assertEquals(SyncStrategy.QUORUM_MEDIAN, sampleRoom.getSyncStrategy());
+        verify(roomRepository).save(Objects.requireNonNull(sampleRoom));
+        verify(eventLog).publish(eq("ABCD1234"), eq(""), messageCaptor.capture());
+        var state = (RoomStateMessage) messageCaptor.getValue();
+        assertEquals("QUORUM_MEDIAN", state.syncStrategy());
+        assertEquals(42.0, state.currentTimeSeconds(), 0.5);
+    }
+
+    @Test
+    void whenPositionReportFromCompactCodecSessionThenCorrectionIsTaggedWithCodecContentType() {
+        sampleRoom.setCurrentTimeSeconds(100.0);
+        sampleRoom.setPlaying(true);
+        sampleRoom.setStateUpdatedAt(Instant.now());
+        headerAccessor.setSessionAttributes(new HashMap<>(Map.of(SyncCodecInterceptor.SYNC_CODEC_ATTR, true)));
+
+        when(presence.find("session-1")).thenReturn(Optional.of(Objects.requireNonNull(hostParticipant)));
+
+        handler.reportPosition(new PositionReportMessage(90.0), headerAccessor);
+
+        ArgumentCaptor<MessageHeaders> headersCaptor = ArgumentCaptor.forClass(MessageHeaders.class);
+        verify(messagingTemplate).convertAndSendToUser(
+                eq("session-1"), eq("/queue/sync.correction"), any(SyncCorrectionMessage.class), headersCaptor.capture());
+        assertEquals(SyncMessageConverter.MIME_TYPE, headersCaptor.getValue().get(MessageHeaders.CONTENT_TYPE));
+    }
+
     @Test
     void whenPositionReportWithNoDriftThenNoCorrection() {
         sampleRoom.setCurrentTimeSeconds(100.0);
         sampleRoom.setPlaying(true);
         sampleRoom.setStateUpdatedAt(Instant.now());
 
-        when(participantRepository.findByConnectionId("session-1")).thenReturn(Optional.of(Objects.requireNonNull(hostParticipant)));
+        when(presence.find("session-1")).thenReturn(Optional.of(Objects.requireNonNull(hostParticipant)));
 
         // Client reports position within 0.5s tolerance
         var report = new PositionReportMessage(100.2);
@@ -298,12 +743,46 @@ class WatchPartyWebSocketHandlerTest {
         verify(messagingTemplate, never()).convertAndSendToUser(anyString(), anyString(), any(), any(MessageHeaders.class));
     }
 
+    @Test
+    void whenSessionHasClockEstimateThenDriftIsMeasuredAtSamplingTimeWithTighterTolerance() {
+        sampleRoom.setCurrentTimeSeconds(100.0);
+        sampleRoom.setPlaying(true);
+        sampleRoom.setStateUpdatedAt(Instant.now());
+        clockSync.record("session-1", 600, 0);
+
+        when(presence.find("session-1")).thenReturn(Optional.of(Objects.requireNonNull(hostParticipant)));
+
+        // Sampled 0.3s (half the round trip) before the server saw it: in sync
+        handler.reportPosition(new PositionReportMessage(99.7), headerAccessor);
+        verify(messagingTemplate, never()).convertAndSendToUser(anyString(), anyString(), any(), any(MessageHeaders.class));
+
+        // 0.25s behind: under the unsynced tolerance, but well over the synced one
+        handler.reportPosition(new PositionReportMessage(99.45), headerAccessor);
+        verify(messagingTemplate).convertAndSendToUser(
+                eq("session-1"), eq("/queue/sync.correction"), messageCaptor.capture(), any(MessageHeaders.class));
+        var correction = (SyncCorrectionMessage) messageCaptor.getValue();
+        assertEquals("RATE_ADJUST", correction.correctionType());
+        assertTrue(correction.targetTimeSeconds() >= 100.3, "Target should lead by the one-way delay");
+    }
+
+    @Test
+    void whenTimePingArrivesThenPongEchoesClientTimeAndSampleIsRecorded() {
+        handler.timePing(new TimePingMessage(1_000.0, 80.0, -12.0), headerAccessor);
+
+        verify(messagingTemplate).convertAndSendToUser(
+                eq("session-1"), eq("/queue/time.pong"), messageCaptor.capture(), any(MessageHeaders.class));
+        var pong = (TimePongMessage) messageCaptor.getValue();
+        assertEquals(1_000.0, pong.clientSendTime());
+        assertTrue(pong.serverSendTime() >= pong.serverReceiveTime());
+        assertEquals(80.0, clockSync.estimate("session-1").orElseThrow().rttMs());
+    }
+
     @Test
     void whenPositionReportWhilePausedThenNoCorrection() {
         sampleRoom.setCurrentTimeSeconds(100.0);
         sampleRoom.setPlaying(false);
 
-        when(participantRepository.findByConnectionId("session-1")).thenReturn(Optional.of(Objects.requireNonNull(hostParticipant)));
+        when(presence.find("session-1")).thenReturn(Optional.of(Objects.requireNonNull(hostParticipant)));
 
         var report = new PositionReportMessage(90.0);
         handler.reportPosition(report, headerAccessor);
@@ -338,7 +817,7 @@ class WatchPartyWebSocketHandlerTest {
     @Test
     void whenPlayerActionThenSetsStateUpdatedAt() {
         var playerMessage = new PlayerStateMessage("PAUSE", null, 50.0, false);
-        when(participantRepository.findByConnectionId("session-1")).thenReturn(Optional.of(Objects.requireNonNull(hostParticipant)));
+        when(presence.find("session-1")).thenReturn(Optional.of(Objects.requireNonNull(hostParticipant)));
 
         assertNull(sampleRoom.getStateUpdatedAt());
 
@@ -348,6 +827,47 @@ class WatchPartyWebSocketHandlerTest {
         verify(roomRepository).save(Objects.requireNonNull(sampleRoom));
     }
 
+    @Test
+    void whenPlayThenBroadcastIsScheduledAheadByRoomRoundTrip() {
+        var playerMessage = new PlayerStateMessage("PLAY", null, 50.0, true);
+        when(presence.find("session-1")).thenReturn(Optional.of(Objects.requireNonNull(hostParticipant)));
+        when(presence.participants(sampleRoom.getId())).thenReturn(List.of(Objects.requireNonNull(hostParticipant)));
+        clockSync.record("session-1", 400, 0);
+
+        long before = System.currentTimeMillis();
+        handler.playerAction(playerMessage, headerAccessor);
+
+        verify(eventLog).publish(eq("ABCD1234"), eq(""), messageCaptor.capture());
+        var broadcast = (PlayerStateMessage) messageCaptor.getValue();
+        assertNotNull(broadcast.executeAt());
+        assertTrue(broadcast.executeAt() >= before + 400);
+        assertEquals(broadcast.executeAt(), (double) sampleRoom.getStateUpdatedAt().toEpochMilli());
+        assertEquals(50.0, handler.calculateExpectedPosition(sampleRoom), 0.001);
+    }
+
+    @Test
+    void whenPauseThenBroadcastIsNotScheduled() {
+        var playerMessage = new PlayerStateMessage("PAUSE", null, 50.0, false);
+        when(presence.find("session-1")).thenReturn(Optional.of(Objects.requireNonNull(hostParticipant)));
+
+        handler.playerAction(playerMessage, headerAccessor);
+
+        verify(eventLog).publish(eq("ABCD1234"), eq(""), messageCaptor.capture());
+        assertNull(((PlayerStateMessage) messageCaptor.getValue()).executeAt());
+        verify(presence, never()).participants(any());
+    }
+
+    @Test
+    void whenClientSendsExecuteAtOnUnscheduledActionThenItIsNotBroadcast() {
+        var playerMessage = new PlayerStateMessage("PAUSE", null, 50.0, false, 9_999_999_999_999.0);
+        when(presence.find("session-1")).thenReturn(Optional.of(Objects.requireNonNull(hostParticipant)));
+
+        handler.playerAction(playerMessage, headerAccessor);
+
+        verify(eventLog).publish(eq("ABCD1234"), eq(""), messageCaptor.capture());
+        assertNull(((PlayerStateMessage) messageCaptor.getValue()).executeAt());
+    }
+
     @Test
     void whenWebRtcOfferThenForwardsToTarget() {
         var offer = new WebRtcOfferMessage("session-2", "sdp-offer-data");
@@ -393,21 +913,178 @@ class WatchPartyWebSocketHandlerTest {
     }
 
     @Test
-    void whenJoinRoomThenSendsSessionInfo() {
+    void whenSecondSessionJoinsThenPlaylistSnapshotIsServedFromCache() {
+        when(roomRepository.findByCode("ABCD1234")).thenReturn(Optional.of(Objects.requireNonNull(sampleRoom)));
+        when(presence.participants(Objects.requireNonNull(sampleRoom.getId())))
+                .thenReturn(List.of(hostParticipant));
+        when(playlistService.getPlaylist(sampleRoom.getId()))
+                .thenReturn(new PlaylistResponse(Collections.emptyList()));
+
+        handler.joinRoom(new JoinRoomMessage("ABCD1234", "Alice"), headerAccessor);
+        headerAccessor.setSessionId("session-2");
+        handler.joinRoom(new JoinRoomMessage("ABCD1234", "Bob"), headerAccessor);
+
+        verify(playlistService, times(1)).getPlaylist(sampleRoom.getId());
+        verify(chatService, times(1)).getChatHistory(sampleRoom.getId());
+        verify(messagingTemplate, times(2)).convertAndSendToUser(
+                anyString(), eq("/queue/room.welcome"), any(RoomWelcomeMessage.class), any(MessageHeaders.class));
+    }
+
+    @Test
+    void whenJoinRoomThenSendsSingleWelcomeFrame() {
         var joinMessage = new JoinRoomMessage("ABCD1234", "Alice");
 
         when(roomRepository.findByCode("ABCD1234")).thenReturn(Optional.of(Objects.requireNonNull(sampleRoom)));
-        when(participantRepository.findByRoomId(Objects.requireNonNull(sampleRoom.getId())))
-                .thenReturn(Collections.emptyList())
-                .thenReturn(List.of(hostParticipant));
-        when(participantRepository.save(any(Participant.class))).thenReturn(hostParticipant);
+        when(presence.participants(Objects.requireNonNull(sampleRoom.getId())))
+                .thenReturn(Collections.emptyList());
         when(playlistService.getPlaylist(sampleRoom.getId()))
                 .thenReturn(new PlaylistResponse(Collections.emptyList()));
 
         handler.joinRoom(joinMessage, headerAccessor);
 
-        // Verify session.info was sent
         verify(messagingTemplate).convertAndSendToUser(
-                eq("session-1"), eq("/queue/session.info"), messageCaptor.capture(), any(MessageHeaders.class));
+                eq("session-1"), eq("/queue/room.welcome"), messageCaptor.capture(), any(MessageHeaders.class));
+        verify(messagingTemplate, times(1)).convertAndSendToUser(
+                anyString(), anyString(), any(), any(MessageHeaders.class));
+
+        var welcome = assertInstanceOf(RoomWelcomeMessage.class, messageCaptor.getValue());
+        assertEquals("session-1", welcome.connectionId());
+        assertEquals("ABCD1234", welcome.roomState().roomCode());
+        assertEquals(1, welcome.roomState().participants().size());
+        assertEquals("{\"items\":[]}", new String(welcome.playlist().json(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void whenAuthenticatedUserIsCachedThenCurrentDisplayNameIsUsedWithoutLoadingUser() {
+        var user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("carol@example.com");
+        user.setDisplayName("Carol");
+        refreshTokenCache.putUser(user);
+        // A profile change updates the cache, while the session's access token keeps the old name
+        user.setDisplayName("Caroline");
+        refreshTokenCache.putUser(user);
+        headerAccessor.setSessionAttributes(new HashMap<>(Map.of(
+                WebSocketAuthChannelInterceptor.USER_ID_ATTR, user.getId())));
+
+        when(roomRepository.findByCode("ABCD1234")).thenReturn(Optional.of(Objects.requireNonNull(sampleRoom)));
+        when(presence.participants(Objects.requireNonNull(sampleRoom.getId())))
+                .thenReturn(Collections.emptyList());
+        when(playlistService.getPlaylist(sampleRoom.getId()))
+                .thenReturn(new PlaylistResponse(Collections.emptyList()));
+
+        handler.joinRoom(new JoinRoomMessage("ABCD1234", "ignored"), headerAccessor);
+
+        ArgumentCaptor<Participant> participantCaptor = ArgumentCaptor.forClass(Participant.class);
+        verify(presence).tryAdd(participantCaptor.capture(), eq(2));
+        assertEquals("Caroline", participantCaptor.getValue().getNickname());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void whenAuthenticatedUserIsNotCachedThenDisplayNameIsLoaded() {
+        var user = new User();
+        user.setId(UUID.randomUUID());
+        user.setDisplayName("Dave");
+        headerAccessor.setSessionAttributes(new HashMap<>(Map.of(
+                WebSocketAuthChannelInterceptor.USER_ID_ATTR, user.getId())));
+
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(roomRepository.findByCode("ABCD1234")).thenReturn(Optional.of(Objects.requireNonNull(sampleRoom)));
+        when(presence.participants(Objects.requireNonNull(sampleRoom.getId())))
+                .thenReturn(Collections.emptyList());
+        when(playlistService.getPlaylist(sampleRoom.getId()))
+                .thenReturn(new PlaylistResponse(Collections.emptyList()));
+
+        handler.joinRoom(new JoinRoomMessage("ABCD1234", "ignored"), headerAccessor);
+
+        ArgumentCaptor<Participant> participantCaptor = ArgumentCaptor.forClass(Participant.class);
+        verify(presence).tryAdd(participantCaptor.capture(), eq(2));
+        assertEquals("Dave", participantCaptor.getValue().getNickname());
+    }
+
+    @Test
+    void whenRoomIsFullThenJoinIsQueuedWithEstimatedWait() {
+        var other = new Participant();
+        other.setConnectionId("session-2");
+        other.setRoomId(sampleRoom.getId());
+
+        when(roomRepository.findByCode("ABCD1234")).thenReturn(Optional.of(Objects.requireNonNull(sampleRoom)));
+        when(presence.participants(Objects.requireNonNull(sampleRoom.getId())))
+                .thenReturn(List.of(hostParticipant, other));
+        headerAccessor.setSessionId("session-3");
+
+        handler.joinRoom(new JoinRoomMessage("ABCD1234", "Carol"), headerAccessor);
+
+        verify(presence, never()).tryAdd(any(Participant.class), anyInt());
+        verify(messagingTemplate).convertAndSendToUser(
+                eq("session-3"), eq("/queue/room.admission"), messageCaptor.capture(), any(MessageHeaders.class));
+        var admissionMessage = assertInstanceOf(AdmissionMessage.class, messageCaptor.getValue());
+        assertEquals("QUEUED", admissionMessage.status());
+        assertEquals(1, admissionMessage.position());
+        assertTrue(admissionMessage.estimatedWaitSeconds() > 0);
+    }
+
+    @Test
+    void whenParticipantLeavesFullRoomThenQueuedJoinIsAdmitted() {
+        var guest = new Participant();
+        guest.setId(UUID.randomUUID());
+        guest.setNickname("Guest");
+        guest.setConnectionId("session-2");
+        guest.setRoomId(sampleRoom.getId());
+        admission.enqueue(sampleRoom.getId(), new JoinAdmissionService.PendingJoin("session-3", "Carol", null));
+
+        when(presence.findAll(List.of("session-2"))).thenReturn(List.of(guest));
+        when(roomRepository.findById(Objects.requireNonNull(sampleRoom.getId()))).thenReturn(Optional.of(sampleRoom));
+        seat(List.of(hostParticipant));
+        when(playlistService.getPlaylist(sampleRoom.getId()))
+                .thenReturn(new PlaylistResponse(Collections.emptyList()));
+
+        handler.handleParticipantLeaves(List.of("session-2"));
+
+        ArgumentCaptor<Participant> participantCaptor = ArgumentCaptor.forClass(Participant.class);
+        verify(presence).tryAdd(participantCaptor.capture(), eq(2));
+        assertEquals("session-3", participantCaptor.getValue().getConnectionId());
+        assertFalse(participantCaptor.getValue().isHost());
+        verify(messagingTemplate).convertAndSendToUser(
+                eq("session-3"), eq("/queue/room.welcome"), any(RoomWelcomeMessage.class), any(MessageHeaders.class));
+        assertTrue(admission.waiting(sampleRoom.getId()).isEmpty());
+    }
+
+    @Test
+    void whenRoomFillsBeforeSeatIsClaimedThenJoinIsQueuedAndNobodyBecomesHost() {
+        var other = new Participant();
+        other.setConnectionId("session-2");
+        other.setRoomId(sampleRoom.getId());
+        when(roomRepository.findByCode("ABCD1234")).thenReturn(Optional.of(Objects.requireNonNull(sampleRoom)));
+        // The roster read before the claim is stale: two concurrent joins filled the room meanwhile
+        when(presence.participants(sampleRoom.getId())).thenReturn(Collections.emptyList());
+        seated = List.of(hostParticipant, other);
+        headerAccessor.setSessionId("session-3");
+
+        handler.joinRoom(new JoinRoomMessage("ABCD1234", "Carol"), headerAccessor);
+
+        verify(roomStateWriter, never()).update(any(), any());
+        verify(rosterBroadcaster, never()).participantJoined(any(), any(), any());
+        verify(messagingTemplate).convertAndSendToUser(
+                eq("session-3"), eq("/queue/room.admission"), messageCaptor.capture(), any(MessageHeaders.class));
+        assertEquals("QUEUED", assertInstanceOf(AdmissionMessage.class, messageCaptor.getValue()).status());
+    }
+
+    @Test
+    void whenNodeIsSaturatedThenJoinIsAskedToRetry() {
+        doReturn(false).when(admission).tryBeginJoin();
+
+        handler.joinRoom(new JoinRoomMessage("ABCD1234", "Alice"), headerAccessor);
+
+        verifyNoInteractions(roomRepository);
+        verify(messagingTemplate).convertAndSendToUser(
+                eq("session-1"), eq("/queue/room.admission"), messageCaptor.capture(), any(MessageHeaders.class));
+        assertEquals("RETRY", ((AdmissionMessage) messageCaptor.getValue()).status());
+    }
+
+    private void seat(List<Participant> roster) {
+        seated = roster;
+        when(presence.participants(sampleRoom.getId())).thenReturn(roster);
     }
 }